@@ -93,6 +93,20 @@ public abstract class AbstractEntity implements Serializable {
         this.id = id;
     }
 
+    /**
+     * Returns the optimistic locking version. It is incremented every time the record is updated, and an update
+     * based on an older version of the record must be rejected.
+     *
+     * @return the version of the record this instance was read from
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
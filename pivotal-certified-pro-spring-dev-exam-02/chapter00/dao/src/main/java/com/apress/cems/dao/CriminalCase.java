@@ -43,8 +43,31 @@ import java.util.Set;
 @SequenceGenerator(name = "seqCriminalCaseGen", allocationSize = 1)
 @Entity
 @Table(name="CRIMINAL_CASE")
+@NamedEntityGraph(name = CriminalCase.WITH_LEAD_INVESTIGATOR,
+        attributeNodes = @NamedAttributeNode(value = "leadInvestigator", subgraph = "detective"),
+        subgraphs = @NamedSubgraph(name = "detective", attributeNodes = @NamedAttributeNode("person")))
+@NamedEntityGraph(name = CriminalCase.FULL_CASE_TREE,
+        attributeNodes = {
+                @NamedAttributeNode(value = "leadInvestigator", subgraph = "detective"),
+                @NamedAttributeNode(value = "evidenceSet", subgraph = "evidence")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "detective", attributeNodes = @NamedAttributeNode("person")),
+                @NamedSubgraph(name = "evidence", attributeNodes = {@NamedAttributeNode("storage"), @NamedAttributeNode("trackEntries")})
+        })
 public class CriminalCase extends  AbstractEntity{
 
+    /**
+     * Fetches the lead investigator and its person details together with the case.
+     */
+    public static final String WITH_LEAD_INVESTIGATOR = "CriminalCase.withLeadInvestigator";
+
+    /**
+     * Fetches the lead investigator, the evidence, its storage and its custody history together with the case.
+     * The assigned detectives are left out, joining a second collection would multiply the number of rows.
+     */
+    public static final String FULL_CASE_TREE = "CriminalCase.fullCaseTree";
+
     @NotEmpty
     @Column(name="case_number", unique = true, nullable = false)
     private String number;
@@ -111,6 +111,10 @@ public class Evidence extends AbstractEntity {
         this.archived = archived;
     }
 
+    public Set<TrackEntry> getTrackEntries() {
+        return trackEntries;
+    }
+
     private void setTrackEntries(Set<TrackEntry> trackEntries) {
         this.trackEntries = trackEntries;
     }
@@ -45,6 +45,11 @@ import java.util.Objects;
  * @since 1.0
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "IX_PERSON_FIRSTNAME", columnList = "firstName, id"),
+        @Index(name = "IX_PERSON_LASTNAME", columnList = "lastName, id"),
+        @Index(name = "IX_PERSON_HIRINGDATE", columnList = "hiringDate, id")
+})
 @SequenceGenerator(name = "seqPersonGen", allocationSize = 1)
 @NamedQueries({
         @NamedQuery(name = Person.FIND_BY_COMPLETE_NAME, query = "from Person p where p.firstName=:fn and p.lastName=:ln"),
@@ -1,5 +1,9 @@
 package com.apress.cems.dto;
 
+import com.apress.cems.dao.Person;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
 
 /**
@@ -14,6 +18,28 @@ public class CriteriaDto {
 
     private Boolean exactMatch;
 
+    /**
+     * Opt-in for non-exact matches: the field contains the value anywhere instead of starting with it. A leading
+     * wildcard cannot use the index of the field, so every page of such a search scans the table.
+     */
+    private Boolean containsMatch = false;
+
+    /**
+     * Search results are returned in pages of at most this many persons.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    @Min(1)
+    @Max(500)
+    private Integer pageSize = DEFAULT_PAGE_SIZE;
+
+    /**
+     * Position of the last person of the previous page: the value of the searched field and the id.
+     * Both are null for the first page.
+     */
+    private String afterValue;
+
+    private Long afterId;
 
     /**
      * Field needed just to communicate a message of no results found.
@@ -45,6 +71,14 @@ public class CriteriaDto {
         this.exactMatch = exactMatch;
     }
 
+    public Boolean getContainsMatch() {
+        return containsMatch;
+    }
+
+    public void setContainsMatch(Boolean containsMatch) {
+        this.containsMatch = containsMatch;
+    }
+
     public String getNoResults() {
         return noResults;
     }
@@ -53,6 +87,58 @@ public class CriteriaDto {
         this.noResults = noResults;
     }
 
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public String getAfterValue() {
+        return afterValue;
+    }
+
+    public void setAfterValue(String afterValue) {
+        this.afterValue = afterValue;
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+
+    /**
+     * @param last the last person of the current page
+     * @return the criteria to retrieve the page after the one ending with the given person
+     */
+    public CriteriaDto next(Person last) {
+        var next = new CriteriaDto();
+        next.fieldName = fieldName;
+        next.fieldValue = fieldValue;
+        next.exactMatch = exactMatch;
+        next.containsMatch = containsMatch;
+        next.pageSize = pageSize;
+        next.afterId = last.getId();
+        switch (FieldGroup.getField(fieldName)) {
+            case FIRSTNAME:
+                next.afterValue = last.getFirstName();
+                break;
+            case LASTNAME:
+                next.afterValue = last.getLastName();
+                break;
+            case USERNAME:
+                next.afterValue = last.getUsername();
+                break;
+            default:
+                break;
+        }
+        return next;
+    }
+
     public boolean isEmpty(){
         return fieldName == null && fieldValue == null;
     }
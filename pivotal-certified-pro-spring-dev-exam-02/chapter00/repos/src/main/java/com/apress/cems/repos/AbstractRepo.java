@@ -28,7 +28,9 @@ SOFTWARE.
 package com.apress.cems.repos;
 
 import com.apress.cems.dao.AbstractEntity;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.util.Collection;
 import java.util.Optional;
 
 /**
@@ -39,10 +41,45 @@ public interface AbstractRepo <T extends AbstractEntity> {
 
     void save(T entity);
 
+    /**
+     * Saves all entities in the collection. Implementations backed by a database should override this
+     * to send the rows in batches instead of one round trip per entity.
+     *
+     * @param entities the entities to save
+     */
+    default void saveAll(Collection<T> entities) {
+        entities.forEach(this::save);
+    }
+
     void delete(T entity);
 
     T update(T entity);
 
+    /**
+     * Updates all entities in the collection. Implementations backed by a database should override this to write only
+     * the modified columns, in batches, and to reject the entities whose version is older than the one in the database.
+     * <p>
+     * This default calls {@link #update(AbstractEntity)} for every entity and relies on it for the version check: an
+     * entity it rejects with an {@code OptimisticLockingFailureException} is reported as a
+     * {@link UpdateResult.Conflict#STALE_VERSION} conflict and the others are still updated. An {@code update} that does
+     * not check versions will overwrite concurrent changes.
+     *
+     * @param entities the entities to update
+     * @return the outcome of the update for every entity
+     */
+    default UpdateResult updateAll(Collection<T> entities) {
+        var result = new UpdateResult();
+        entities.forEach(entity -> {
+            try {
+                update(entity);
+                result.addUpdated(entity.getId());
+            } catch (OptimisticLockingFailureException e) {
+                result.addConflict(entity.getId(), UpdateResult.Conflict.STALE_VERSION);
+            }
+        });
+        return result;
+    }
+
     int deleteById(Long entityId);
 
     Optional<T> findById(Long entityId);
@@ -5,8 +5,11 @@ import com.apress.cems.dao.Detective;
 import com.apress.cems.util.CaseStatus;
 import com.apress.cems.util.CaseType;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author Iuliana Cosmina
@@ -22,4 +25,38 @@ public interface CriminalCaseRepo extends  AbstractRepo<CriminalCase>  {
 
     Set<CriminalCase> findByType(CaseType type);
 
+    /**
+     * Returns one page of cases with the given status, ordered by ID.
+     *
+     * @param afterId the ID of the last case on the previous page, {@code null} for the first page
+     * @param limit maximum number of cases in the page
+     */
+    List<CriminalCase> findByStatus(CaseStatus status, Long afterId, int limit);
+
+    /**
+     * Returns one page of cases with the given type, ordered by ID.
+     *
+     * @param afterId the ID of the last case on the previous page, {@code null} for the first page
+     * @param limit maximum number of cases in the page
+     */
+    List<CriminalCase> findByType(CaseType type, Long afterId, int limit);
+
+    /**
+     * Returns one page of cases with the given status and type, ordered by ID.
+     *
+     * @param afterId the ID of the last case on the previous page, {@code null} for the first page
+     * @param limit maximum number of cases in the page
+     */
+    List<CriminalCase> findByStatusAndType(CaseStatus status, CaseType type, Long afterId, int limit);
+
+    /**
+     * @return the number of cases for each status, statuses without cases are not included
+     */
+    Map<CaseStatus, Long> countByStatus();
+
+    /**
+     * Streams all criminal cases without loading them in memory first. The stream must be closed after use.
+     */
+    Stream<CriminalCase> streamAll();
+
 }
@@ -30,8 +30,10 @@ package com.apress.cems.repos;
 import com.apress.cems.dao.Detective;
 import com.apress.cems.util.Rank;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author Iuliana Cosmina
@@ -41,6 +43,13 @@ public interface DetectiveRepo extends AbstractRepo<Detective> {
 
     Set<Detective> findAll();
 
+    /**
+     * Streams all detectives without loading them in memory first. The stream must be closed after use.
+     */
+    default Stream<Detective> streamAll() {
+        return findAll().stream();
+    }
+
     Optional<Detective> findByBadgeNumber(String badgeNumber);
 
     Set<Detective> findbyRank(Rank rank);
@@ -48,4 +57,8 @@ public interface DetectiveRepo extends AbstractRepo<Detective> {
     default Optional<Detective> findByIdWithPersonDetails(Long id) {
         return Optional.empty();
     }
+
+    default Set<Detective> findAllByIdsWithPersonDetails(Collection<Long> ids) {
+        return Set.of();
+    }
 }
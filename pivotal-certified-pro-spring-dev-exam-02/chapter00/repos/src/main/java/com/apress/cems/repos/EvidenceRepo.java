@@ -6,6 +6,7 @@ import com.apress.cems.dao.Storage;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author Iuliana Cosmina
@@ -18,4 +19,9 @@ public interface EvidenceRepo extends AbstractRepo<Evidence> {
     Optional<Evidence> findByNumber(String evidenceNumber);
 
     boolean isInStorage(Storage storage);
+
+    /**
+     * Streams all evidence without loading it in memory first. The stream must be closed after use.
+     */
+    Stream<Evidence> streamAll();
 }
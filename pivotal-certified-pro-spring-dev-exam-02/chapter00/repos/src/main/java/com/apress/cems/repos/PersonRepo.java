@@ -3,6 +3,7 @@ package com.apress.cems.repos;
 import com.apress.cems.dao.Person;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * @author Iuliana Cosmina
@@ -19,6 +20,13 @@ public interface PersonRepo extends AbstractRepo<Person> {
 
     Set<Person> findAll();
 
+    /**
+     * Streams all persons without loading them in memory first. The stream must be closed after use.
+     */
+    default Stream<Person> streamAll() {
+        return findAll().stream();
+    }
+
     int updatePassword(Long personId, String newPass);
 
     long count();
@@ -3,7 +3,10 @@ package com.apress.cems.repos;
 import com.apress.cems.dao.TrackEntry;
 import com.apress.cems.util.TrackAction;
 
+import java.time.LocalDateTime;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -17,4 +20,17 @@ public interface TrackEntryRepo extends AbstractRepo<TrackEntry> {
     Set<TrackEntry> findByDate(Date date);
     Set<TrackEntry> findByDateAndAction(Date date, TrackAction action);
 
+    /**
+     * Returns one page of the entries with {@code from <= date < to}, ordered by date and ID.
+     *
+     * @param last the last entry of the previous page, {@code null} for the first page
+     * @param limit maximum number of entries in the page
+     */
+    List<TrackEntry> findByDateRange(LocalDateTime from, LocalDateTime to, TrackEntry last, int limit);
+
+    /**
+     * @return the most recent entry in the chain of custody of the evidence
+     */
+    Optional<TrackEntry> findLatestByEvidenceId(Long evidenceId);
+
 }
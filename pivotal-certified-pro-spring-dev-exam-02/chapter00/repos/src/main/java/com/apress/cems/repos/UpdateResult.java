@@ -0,0 +1,89 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.repos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk update. Every entity given to {@link AbstractRepo#updateAll(java.util.Collection)} ends up in exactly one
+ * of the three groups: updated, unchanged (nothing to write) or in conflict. A conflict only rejects its own row,
+ * the rest of the batch is still written.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public class UpdateResult {
+
+    public enum Conflict {
+        /** The record was modified since the entity was read, its version no longer matches. */
+        STALE_VERSION,
+        /** The record does not exist anymore. */
+        NOT_FOUND
+    }
+
+    private final List<Long> updated = new ArrayList<>();
+    private final List<Long> unchanged = new ArrayList<>();
+    private final Map<Long, Conflict> conflicts = new LinkedHashMap<>();
+
+    public void addUpdated(Long id) {
+        updated.add(id);
+    }
+
+    public void addUnchanged(Long id) {
+        unchanged.add(id);
+    }
+
+    public void addConflict(Long id, Conflict conflict) {
+        conflicts.put(id, conflict);
+    }
+
+    public List<Long> getUpdated() {
+        return Collections.unmodifiableList(updated);
+    }
+
+    public List<Long> getUnchanged() {
+        return Collections.unmodifiableList(unchanged);
+    }
+
+    public Map<Long, Conflict> getConflicts() {
+        return Collections.unmodifiableMap(conflicts);
+    }
+
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UpdateResult[updated=%d, unchanged=%d, conflicts=%s]", updated.size(), unchanged.size(), conflicts);
+    }
+}
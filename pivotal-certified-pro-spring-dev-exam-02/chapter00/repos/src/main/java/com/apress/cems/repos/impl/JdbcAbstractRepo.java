@@ -29,9 +29,31 @@ package com.apress.cems.repos.impl;
 
 import com.apress.cems.dao.AbstractEntity;
 import com.apress.cems.repos.AbstractRepo;
+import com.apress.cems.repos.util.JdbcStreams;
+import com.apress.cems.repos.UpdateResult;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.support.JdbcUtils;
 
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * @author Iuliana Cosmina
@@ -39,16 +61,255 @@ import java.util.Optional;
  */
 public class JdbcAbstractRepo<T extends AbstractEntity> implements AbstractRepo<T> {
 
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
     protected JdbcTemplate jdbcTemplate;
 
+    protected int batchSize = DEFAULT_BATCH_SIZE;
+
+    protected int fetchSize = DEFAULT_FETCH_SIZE;
+
     public JdbcAbstractRepo(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
     }
 
+    /**
+     * @param batchSize maximum number of rows sent to the database in a single JDBC batch by {@link #saveAll(Collection)}
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be a positive number!");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param fetchSize number of rows the driver fetches from the database in one round trip when a query result is streamed
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be a positive number!");
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
     @Override
     public void save(T entity) {
     }
 
+    /**
+     * Inserts the entities in chunks of {@code batchSize} rows. All chunks are executed on the same {@code PreparedStatement},
+     * so the insert statement is parsed only once. Repositories that do not provide an insert statement fall back
+     * to saving the entities one by one.
+     */
+    @Override
+    public void saveAll(Collection<T> entities) {
+        var sql = insertSql();
+        if (sql == null) {
+            entities.forEach(this::save);
+            return;
+        }
+        if (entities.isEmpty()) {
+            return;
+        }
+        var now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(sql, entities, batchSize, (ps, entity) -> bindInsert(ps, entity, now));
+    }
+
+    /**
+     * @return the insert statement shared by {@code save} and {@code saveAll}, or {@code null} if batching is not supported
+     */
+    protected String insertSql() {
+        return null;
+    }
+
+    /**
+     * Binds the entity fields to the parameters of the statement returned by {@link #insertSql()}.
+     *
+     * @param ps the statement to bind the parameters to
+     * @param entity the entity to insert
+     * @param now the value to use for the audit columns
+     */
+    protected void bindInsert(PreparedStatement ps, T entity, Timestamp now) throws SQLException {
+    }
+
+    /**
+     * The returned stream holds a database connection until it is closed, use it in a try-with-resources block.
+     */
+    protected Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, Object... args) {
+        return JdbcStreams.queryForStream(jdbcTemplate, fetchSize, sql, rowMapper, args);
+    }
+
+    /**
+     * Updates the entities with optimistic locking, writing only the columns whose values differ from the ones in the database.
+     * <ol>
+     *     <li>the current version and values of the records are read, {@code batchSize} records per query;</li>
+     *     <li>an entity whose version is not the one in the database is a conflict, one with no modified column is left alone;</li>
+     *     <li>the others are grouped by the set of modified columns, every group is sent as JDBC batches of a single
+     *     {@code update ... where ID=? and VERSION=?} statement, which also increments the version;</li>
+     *     <li>a row the statement did not update was modified concurrently after step 1, and is reported as a conflict.</li>
+     * </ol>
+     * Conflicts do not abort the batch. The updated entities get the new version and modification date.
+     * Repositories that do not describe their updatable columns fall back to updating the entities one by one.
+     */
+    @Override
+    public UpdateResult updateAll(Collection<T> entities) {
+        var columns = updatableColumns();
+        if (columns == null) {
+            return AbstractRepo.super.updateAll(entities);
+        }
+        var result = new UpdateResult();
+        var current = findCurrentValues(entities, columns);
+        Map<BitSet, List<DirtyEntity<T>>> byColumns = new LinkedHashMap<>();
+        for (var entity : entities) {
+            var row = current.get(entity.getId());
+            if (row == null) {
+                result.addConflict(entity.getId(), UpdateResult.Conflict.NOT_FOUND);
+                continue;
+            }
+            if (row[0] == null || ((Number) row[0]).intValue() != entity.getVersion()) {
+                result.addConflict(entity.getId(), UpdateResult.Conflict.STALE_VERSION);
+                continue;
+            }
+            var values = updatableValues(entity);
+            var dirty = new BitSet(columns.length);
+            for (int i = 0; i < columns.length; ++i) {
+                if (!sameValue(values[i], row[i + 1])) {
+                    dirty.set(i);
+                }
+            }
+            if (dirty.isEmpty()) {
+                result.addUnchanged(entity.getId());
+            } else {
+                byColumns.computeIfAbsent(dirty, k -> new ArrayList<>()).add(new DirtyEntity<>(entity, values));
+            }
+        }
+
+        var now = LocalDateTime.now();
+        byColumns.forEach((dirty, group) -> {
+            var sql = new StringBuilder("update ").append(tableName()).append(" set ");
+            dirty.stream().forEach(i -> sql.append(columns[i]).append("=?, "));
+            sql.append("MODIFIED_AT=?, VERSION=VERSION+1 where ID=? and VERSION=?");
+            var counts = jdbcTemplate.batchUpdate(sql.toString(), group, batchSize, (ps, de) -> {
+                int index = 1;
+                for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+                    StatementCreatorUtils.setParameterValue(ps, index++, SqlTypeValue.TYPE_UNKNOWN, de.values[i]);
+                }
+                ps.setTimestamp(index++, Timestamp.valueOf(now));
+                ps.setLong(index++, de.entity.getId());
+                ps.setInt(index, de.entity.getVersion());
+            });
+            int i = 0;
+            for (var batch : counts) {
+                for (var count : batch) {
+                    var entity = group.get(i++).entity;
+                    if (count == 0) {
+                        result.addConflict(entity.getId(), UpdateResult.Conflict.STALE_VERSION);
+                    } else {
+                        entity.setVersion(entity.getVersion() + 1);
+                        entity.setModifiedAt(now);
+                        result.addUpdated(entity.getId());
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return the current version, followed by the values of the updatable columns, of every record matching an entity
+     */
+    private Map<Long, Object[]> findCurrentValues(Collection<T> entities, String[] columns) {
+        Map<Long, Object[]> current = new HashMap<>();
+        var ids = entities.stream().map(AbstractEntity::getId).distinct().toArray();
+        for (int from = 0; from < ids.length; from += batchSize) {
+            var chunk = Arrays.copyOfRange(ids, from, Math.min(from + batchSize, ids.length));
+            var sql = "select ID, VERSION, " + String.join(", ", columns) + " from " + tableName() +
+                    " where ID in (?" + ",?".repeat(chunk.length - 1) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                var row = new Object[columns.length + 1];
+                for (int i = 0; i < row.length; ++i) {
+                    row[i] = JdbcUtils.getResultSetValue(rs, i + 2);
+                }
+                current.put(rs.getLong(1), row);
+            }, chunk);
+        }
+        return current;
+    }
+
+    private static boolean sameValue(Object value, Object stored) {
+        if (value instanceof Number && stored instanceof Number) {
+            return new BigDecimal(value.toString()).compareTo(new BigDecimal(stored.toString())) == 0;
+        }
+        return Objects.equals(value, stored);
+    }
+
+    /**
+     * @return the table updated by {@link #updateAll(Collection)}
+     */
+    protected String tableName() {
+        return null;
+    }
+
+    /**
+     * @return the columns {@link #updateAll(Collection)} compares and writes, or {@code null} if it is not supported.
+     * {@code ID}, {@code VERSION} and the audit columns are managed by this class and must not be part of it.
+     */
+    protected String[] updatableColumns() {
+        return null;
+    }
+
+    /**
+     * @param entity the entity to update
+     * @return the values of the columns returned by {@link #updatableColumns()}, in the same order, as the JDBC types
+     * the database returns for them, e.g. {@code Timestamp} for a date and the name of an enum value
+     */
+    protected Object[] updatableValues(T entity) {
+        return new Object[0];
+    }
+
+    private static final class DirtyEntity<T> {
+        private final T entity;
+        private final Object[] values;
+
+        private DirtyEntity(T entity, Object[] values) {
+            this.entity = entity;
+            this.values = values;
+        }
+    }
+
+    protected static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+
+    protected static String toName(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    protected static Long idOf(AbstractEntity entity) {
+        return entity == null ? null : entity.getId();
+    }
+
+    /**
+     * Binds a nullable identifier, {@code PreparedStatement.setLong} only takes a primitive.
+     */
+    protected static void setId(PreparedStatement ps, int index, Long id) throws SQLException {
+        if (id == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, id);
+        }
+    }
+
     @Override
     public T update(T entity) {
         return null;
@@ -33,21 +33,38 @@ import com.apress.cems.repos.CriminalCaseRepo;
 import com.apress.cems.repos.util.CriminalCaseRowMapper;
 import com.apress.cems.util.CaseStatus;
 import com.apress.cems.util.CaseType;
-import org.apache.commons.lang3.NotImplementedException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
+ * The finders by status and type use keyset pagination: each page starts after the last ID of the previous page,
+ * so the database seeks directly into the {@code (STATUS, ID)}, {@code (STATUS, CASE_TYPE, ID)} and
+ * {@code (CASE_TYPE, ID)} indexes instead of skipping over an offset.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
 @Repository
 public class JdbcCriminalCaseRepo  extends JdbcAbstractRepo<CriminalCase> implements CriminalCaseRepo {
+    private static final String INSERT_SQL = "insert into CRIMINAL_CASE(ID, CASE_NUMBER, CASE_TYPE, STATUS, SHORT_DESCRIPTION, LEAD_INVESTIGATOR, CREATED_AT, MODIFIED_AT, VERSION) values(?,?,?,?,?,?,?,?,?)";
+
+    private static final String[] UPDATABLE_COLUMNS = {"CASE_NUMBER", "CASE_TYPE", "STATUS", "SHORT_DESCRIPTION", "LEAD_INVESTIGATOR"};
+
+    private static final String SELECT_SQL = "select ID, CASE_NUMBER, CASE_TYPE, STATUS, SHORT_DESCRIPTION, LEAD_INVESTIGATOR as LEAD_INVESTIGATOR_ID, VERSION from CRIMINAL_CASE";
+
     private RowMapper<CriminalCase> rowMapper = new CriminalCaseRowMapper();
 
     public JdbcCriminalCaseRepo(JdbcTemplate jdbcTemplate) {
@@ -56,29 +73,60 @@ public class JdbcCriminalCaseRepo  extends JdbcAbstractRepo<CriminalCase> implem
 
     @Override
     public Optional<CriminalCase> findById(Long id) {
-        var sql = "select ID, CASE_NUMBER, CASE_TYPE, STATUS, SHORT_DESCRIPTION from CRIMINAL_CASE where ID= ?";
+        var sql = SELECT_SQL + " where ID= ?";
         return Optional.of(jdbcTemplate.queryForObject(sql, rowMapper, id));
     }
 
     @Override
     public Set<CriminalCase> findByLeadInvestigator(Detective detective) {
-        var sql =  "select ID, CASE_NUMBER, CASE_TYPE, STATUS, SHORT_DESCRIPTION from CRIMINAL_CASE c, DETECTIVE d where c.LEAD_INVESTIGATOR=d.ID and d.ID= ?";
-        return new HashSet<>(jdbcTemplate.query(sql, new Object[]{detective.getId()}, rowMapper));
+        var sql = SELECT_SQL + " where LEAD_INVESTIGATOR= ?";
+        return new HashSet<>(jdbcTemplate.query(sql, rowMapper, detective.getId()));
     }
 
     @Override
     public Optional<CriminalCase> findByNumber(String caseNumber) {
-        var sql = "select ID, CASE_NUMBER, CASE_TYPE, STATUS, SHORT_DESCRIPTION from CRIMINAL_CASE where CASE_NUMBER= ?";
+        var sql = SELECT_SQL + " where CASE_NUMBER= ?";
         var result = jdbcTemplate.queryForObject(sql, rowMapper, caseNumber);
         return result == null ? Optional.empty() :  Optional.of(result);
     }
-
     @Override
     public void save(CriminalCase cc) {
-        jdbcTemplate.update(
-                "insert into CRIMINAL_CASE(ID, CASE_NUMBER, CASE_TYPE, STATUS, SHORT_DESCRIPTION, LEAD_INVESTIGATOR ) values(?,?,?,?,?,?,?)",
-                cc.getId(), cc.getNumber(), cc.getType(), cc.getStatus(), cc.getShortDescription(), cc.getLeadInvestigator().getId()
-        );
+        var now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, ps -> bindInsert(ps, cc, now));
+    }
+
+    @Override
+    protected String insertSql() {
+        return INSERT_SQL;
+    }
+
+    @Override
+    protected void bindInsert(PreparedStatement ps, CriminalCase cc, Timestamp now) throws SQLException {
+        setId(ps, 1, cc.getId());
+        ps.setString(2, cc.getNumber());
+        ps.setString(3, toName(cc.getType()));
+        ps.setString(4, toName(cc.getStatus()));
+        ps.setString(5, cc.getShortDescription());
+        setId(ps, 6, idOf(cc.getLeadInvestigator()));
+        ps.setTimestamp(7, now);
+        ps.setTimestamp(8, now);
+        ps.setInt(9, 1);
+    }
+
+    @Override
+    protected String tableName() {
+        return "CRIMINAL_CASE";
+    }
+
+    @Override
+    protected String[] updatableColumns() {
+        return UPDATABLE_COLUMNS;
+    }
+
+    @Override
+    protected Object[] updatableValues(CriminalCase cc) {
+        return new Object[]{cc.getNumber(), toName(cc.getType()), toName(cc.getStatus()), cc.getShortDescription(),
+                cc.getLeadInvestigator() == null ? null : cc.getLeadInvestigator().getId()};
     }
 
     @Override
@@ -91,13 +139,52 @@ public class JdbcCriminalCaseRepo  extends JdbcAbstractRepo<CriminalCase> implem
         return jdbcTemplate.update("delete from CRIMINAL_CASE where ID =? ", entityId);
     }
 
+    @Override
+    public Stream<CriminalCase> streamAll() {
+        return queryForStream(SELECT_SQL, rowMapper);
+    }
+
     @Override
     public Set<CriminalCase> findByStatus(CaseStatus status) {
-        throw new NotImplementedException("Not needed for this implementation.");
+        var sql = SELECT_SQL + " where STATUS= ?";
+        return new HashSet<>(jdbcTemplate.query(sql, rowMapper, status.name()));
     }
 
     @Override
     public Set<CriminalCase> findByType(CaseType type) {
-        throw new NotImplementedException("Not needed for this implementation.");
+        var sql = SELECT_SQL + " where CASE_TYPE= ?";
+        return new HashSet<>(jdbcTemplate.query(sql, rowMapper, type.name()));
+    }
+
+    @Override
+    public List<CriminalCase> findByStatus(CaseStatus status, Long afterId, int limit) {
+        var sql = SELECT_SQL + " where STATUS= ? and ID > ? order by ID fetch first ? rows only";
+        return jdbcTemplate.query(sql, rowMapper, status.name(), keyOf(afterId), limit);
+    }
+
+    @Override
+    public List<CriminalCase> findByType(CaseType type, Long afterId, int limit) {
+        var sql = SELECT_SQL + " where CASE_TYPE= ? and ID > ? order by ID fetch first ? rows only";
+        return jdbcTemplate.query(sql, rowMapper, type.name(), keyOf(afterId), limit);
+    }
+
+    @Override
+    public List<CriminalCase> findByStatusAndType(CaseStatus status, CaseType type, Long afterId, int limit) {
+        var sql = SELECT_SQL + " where STATUS= ? and CASE_TYPE= ? and ID > ? order by ID fetch first ? rows only";
+        return jdbcTemplate.query(sql, rowMapper, status.name(), type.name(), keyOf(afterId), limit);
+    }
+
+    @Override
+    public Map<CaseStatus, Long> countByStatus() {
+        var sql = "select STATUS, count(*) as CNT from CRIMINAL_CASE group by STATUS";
+        Map<CaseStatus, Long> result = new EnumMap<>(CaseStatus.class);
+        jdbcTemplate.query(sql, rs -> {
+            result.put(CaseStatus.valueOf(rs.getString(1)), rs.getLong(2));
+        });
+        return result;
+    }
+
+    private static long keyOf(Long afterId) {
+        return afterId == null ? Long.MIN_VALUE : afterId;
     }
 }
@@ -36,9 +36,14 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author Iuliana Cosmina
@@ -48,6 +53,14 @@ import java.util.Set;
 @Repository
 public class JdbcDetectiveRepo extends JdbcAbstractRepo<Detective> implements DetectiveRepo {
 
+    private static final String INSERT_SQL = "insert into DETECTIVE(ID, BADGE_NUMBER, RANK, ARMED, STATUS, PERSON_ID, CREATED_AT, MODIFIED_AT, VERSION) values(?,?,?,?,?,?,?,?,?)";
+
+    private static final String[] UPDATABLE_COLUMNS = {"BADGE_NUMBER", "RANK", "ARMED", "STATUS", "PERSON_ID"};
+
+    private static final String FIND_ALL_SQL = "select d.ID, d.BADGE_NUMBER, d.RANK, d.ARMED, d.STATUS, d.PERSON_ID, d.VERSION, " +
+            "p.USERNAME, p.FIRSTNAME, p.LASTNAME, p.HIRINGDATE " +
+            "from DETECTIVE d, PERSON p where d.PERSON_ID=p.ID";
+
     private RowMapper<Detective> rowMapper = new DetectiveRowMapper();
 
     public JdbcDetectiveRepo(JdbcTemplate jdbcTemplate) {
@@ -56,7 +69,7 @@ public class JdbcDetectiveRepo extends JdbcAbstractRepo<Detective> implements De
 
     @Override
     public Optional<Detective> findById(Long id) {
-        var sql = "select d.ID, d.BADGE_NUMBER, d.RANK, d.ARMED, d.STATUS,d.PERSON_ID, " +
+        var sql = "select d.ID, d.BADGE_NUMBER, d.RANK, d.ARMED, d.STATUS, d.PERSON_ID, d.VERSION, " +
                 "p.USERNAME, p.FIRSTNAME, p.LASTNAME, p.HIRINGDATE "+
                 "from DETECTIVE d, PERSON p where d.ID= ? and d.PERSON_ID=p.ID";
         return Optional.of(jdbcTemplate.queryForObject(sql, rowMapper, id));
@@ -64,28 +77,64 @@ public class JdbcDetectiveRepo extends JdbcAbstractRepo<Detective> implements De
 
     @Override
     public Optional<Detective> findByBadgeNumber(String badgeNumber) {
-        var sql = "select ID, BADGE_NUMBER, RANK, ARMED, STATUS,PERSON_ID from DETECTIVE where BADGE_NUMBER= ?";
+        var sql = "select ID, BADGE_NUMBER, RANK, ARMED, STATUS, PERSON_ID, VERSION from DETECTIVE where BADGE_NUMBER= ?";
         var detective = jdbcTemplate.queryForObject(sql, rowMapper, badgeNumber);
         return detective == null ? Optional.empty() : Optional.of(detective);
     }
 
     @Override
     public void save(Detective detective) {
-        jdbcTemplate.update(
-                "insert into DETECTIVE(ID, BADGE_NUMBER, RANK, ARMED, STATUS,PERSON_ID) values(?,?,?,?,?,?)",
-                detective.getId(), detective.getBadgeNumber(), detective.getRank(), detective.getStatus(), detective.getPerson().getId()
-        );
+        var now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, ps -> bindInsert(ps, detective, now));
+    }
+
+    @Override
+    protected String insertSql() {
+        return INSERT_SQL;
+    }
+
+    @Override
+    protected void bindInsert(PreparedStatement ps, Detective detective, Timestamp now) throws SQLException {
+        setId(ps, 1, detective.getId());
+        ps.setString(2, detective.getBadgeNumber());
+        ps.setString(3, toName(detective.getRank()));
+        ps.setBoolean(4, Boolean.TRUE.equals(detective.getArmed()));
+        ps.setString(5, toName(detective.getStatus()));
+        setId(ps, 6, idOf(detective.getPerson()));
+        ps.setTimestamp(7, now);
+        ps.setTimestamp(8, now);
+        ps.setInt(9, 1);
+    }
+
+    @Override
+    protected String tableName() {
+        return "DETECTIVE";
+    }
+
+    @Override
+    protected String[] updatableColumns() {
+        return UPDATABLE_COLUMNS;
+    }
+
+    @Override
+    protected Object[] updatableValues(Detective detective) {
+        return new Object[]{detective.getBadgeNumber(), toName(detective.getRank()), Boolean.TRUE.equals(detective.getArmed()),
+                toName(detective.getStatus()), detective.getPerson() == null ? null : detective.getPerson().getId()};
     }
 
     @Override
     public Set<Detective> findAll() {
-        var sql = "select ID, BADGE_NUMBER, RANK, ARMED, STATUS,PERSON_ID from DETECTIVE";
-        return new HashSet<>(jdbcTemplate.query(sql, rowMapper));
+        return new HashSet<>(jdbcTemplate.query(FIND_ALL_SQL, rowMapper));
+    }
+
+    @Override
+    public Stream<Detective> streamAll() {
+        return queryForStream(FIND_ALL_SQL, rowMapper);
     }
 
     @Override
     public Set<Detective> findbyRank(Rank rank) {
-        var sql = "select ID, BADGE_NUMBER, RANK, ARMED, STATUS,PERSON_ID from DETECTIVE where RANK= ?";
+        var sql = "select ID, BADGE_NUMBER, RANK, ARMED, STATUS, PERSON_ID, VERSION from DETECTIVE where RANK= ?";
         return new HashSet<>(jdbcTemplate.query(sql, rowMapper, rank));
     }
 
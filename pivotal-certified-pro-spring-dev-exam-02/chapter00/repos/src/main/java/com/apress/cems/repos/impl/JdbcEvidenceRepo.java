@@ -27,9 +27,109 @@ SOFTWARE.
 */
 package com.apress.cems.repos.impl;
 
+import com.apress.cems.dao.CriminalCase;
+import com.apress.cems.dao.Evidence;
+import com.apress.cems.dao.Storage;
+import com.apress.cems.repos.EvidenceRepo;
+import com.apress.cems.repos.util.EvidenceRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
 /**
  * @author Iuliana Cosmina
  * @since 1.0
  */
-public class JdbcEvidenceRepo {
+@Repository
+public class JdbcEvidenceRepo extends JdbcAbstractRepo<Evidence> implements EvidenceRepo {
+
+    private static final String INSERT_SQL = "insert into EVIDENCE(ID, CASE_FK, STORAGE_FK, EVIDENCE_NUMBER, ITEM_NAME, NOTES, ARCHIVED, CREATED_AT, MODIFIED_AT, VERSION) values(?,?,?,?,?,?,?,?,?,?)";
+
+    private RowMapper<Evidence> rowMapper = new EvidenceRowMapper();
+
+    public JdbcEvidenceRepo(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    @Override
+    public Optional<Evidence> findById(Long id) {
+        var sql = "select ID, CASE_FK, STORAGE_FK, EVIDENCE_NUMBER, ITEM_NAME, NOTES, ARCHIVED from EVIDENCE where ID= ?";
+        return Optional.of(jdbcTemplate.queryForObject(sql, rowMapper, id));
+    }
+
+    @Override
+    public Set<Evidence> findByCriminalCase(CriminalCase criminalCase) {
+        var sql = "select ID, CASE_FK, STORAGE_FK, EVIDENCE_NUMBER, ITEM_NAME, NOTES, ARCHIVED from EVIDENCE where CASE_FK= ?";
+        return new HashSet<>(jdbcTemplate.query(sql, rowMapper, criminalCase.getId()));
+    }
+
+    @Override
+    public Optional<Evidence> findByNumber(String evidenceNumber) {
+        var sql = "select ID, CASE_FK, STORAGE_FK, EVIDENCE_NUMBER, ITEM_NAME, NOTES, ARCHIVED from EVIDENCE where EVIDENCE_NUMBER= ?";
+        return Optional.of(jdbcTemplate.queryForObject(sql, rowMapper, evidenceNumber));
+    }
+
+    @Override
+    public boolean isInStorage(Storage storage) {
+        var sql = "select count(*) from EVIDENCE where STORAGE_FK= ?";
+        return jdbcTemplate.queryForObject(sql, Long.class, storage.getId()) > 0;
+    }
+
+    @Override
+    public Stream<Evidence> streamAll() {
+        var sql = "select ID, CASE_FK, STORAGE_FK, EVIDENCE_NUMBER, ITEM_NAME, NOTES, ARCHIVED from EVIDENCE";
+        return queryForStream(sql, rowMapper);
+    }
+
+    @Override
+    public void save(Evidence evidence) {
+        var now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, ps -> bindInsert(ps, evidence, now));
+    }
+
+    @Override
+    protected String insertSql() {
+        return INSERT_SQL;
+    }
+
+    @Override
+    protected void bindInsert(PreparedStatement ps, Evidence evidence, Timestamp now) throws SQLException {
+        setId(ps, 1, evidence.getId());
+        setId(ps, 2, idOf(evidence.getCriminalCase()));
+        setId(ps, 3, idOf(evidence.getStorage()));
+        ps.setString(4, evidence.getNumber());
+        ps.setString(5, evidence.getItemName());
+        ps.setString(6, evidence.getNotes());
+        ps.setBoolean(7, Boolean.TRUE.equals(evidence.getArchived()));
+        ps.setTimestamp(8, now);
+        ps.setTimestamp(9, now);
+        ps.setInt(10, 1);
+    }
+
+    @Override
+    public Evidence update(Evidence evidence) {
+        jdbcTemplate.update("update EVIDENCE set STORAGE_FK=?, ITEM_NAME=?, NOTES=?, ARCHIVED=?, MODIFIED_AT=? where ID=?",
+                evidence.getStorage().getId(), evidence.getItemName(), evidence.getNotes(), evidence.getArchived(), LocalDateTime.now(), evidence.getId()
+        );
+        return evidence;
+    }
+
+    @Override
+    public void delete(Evidence entity) {
+        jdbcTemplate.update("delete from EVIDENCE where ID =? ", entity.getId());
+    }
+
+    @Override
+    public int deleteById(Long entityId) {
+        return jdbcTemplate.update("delete from EVIDENCE where ID =? ", entityId);
+    }
 }
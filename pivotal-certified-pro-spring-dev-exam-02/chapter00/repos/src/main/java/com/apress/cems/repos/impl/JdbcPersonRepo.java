@@ -30,16 +30,23 @@ package com.apress.cems.repos.impl;
 import com.apress.cems.dao.Person;
 import com.apress.cems.repos.ApressRepo;
 import com.apress.cems.repos.PersonRepo;
+import com.apress.cems.repos.UpdateResult;
 import com.apress.cems.repos.util.PersonRowMapper;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author Iuliana Cosmina
@@ -51,6 +58,10 @@ public class JdbcPersonRepo extends JdbcAbstractRepo<Person> implements PersonRe
 
     private static final String[] SPECIAL_CHARS = new String[]{"$", "#", "&", "%"};
 
+    private static final String INSERT_SQL = "insert into PERSON(ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE, MODIFIED_AT, CREATED_AT, VERSION) values(?,?,?,?,?,?,?,?,?)";
+
+    private static final String[] UPDATABLE_COLUMNS = {"USERNAME", "FIRSTNAME", "LASTNAME", "PASSWORD", "HIRINGDATE"};
+
     public JdbcPersonRepo(JdbcTemplate jdbcTemplate) {
         super(jdbcTemplate);
     }
@@ -58,19 +69,19 @@ public class JdbcPersonRepo extends JdbcAbstractRepo<Person> implements PersonRe
     @ApressRepo
     @Override
     public Optional<Person> findById(Long id) {
-        var sql = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE from PERSON where ID= ?";
+        var sql = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE, VERSION from PERSON where ID= ?";
         return Optional.of(jdbcTemplate.queryForObject(sql, rowMapper, id));
     }
 
     @Override
     public Optional<Person> findByUsername(String username) {
-        var sql = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE from PERSON where USERNAME= ?";
+        var sql = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE, VERSION from PERSON where USERNAME= ?";
         return Optional.of(jdbcTemplate.queryForObject(sql, rowMapper, username));
     }
 
     @Override
     public Optional<Person> findByCompleteName(String firstName, String lastName) {
-        var sql = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE from PERSON where FIRSTNAME= ? and LASTNAME= ?";
+        var sql = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE, VERSION from PERSON where FIRSTNAME= ? and LASTNAME= ?";
         return Optional.of(jdbcTemplate.queryForObject(sql, new Object[]{firstName, lastName}, rowMapper));
     }
 
@@ -80,33 +91,95 @@ public class JdbcPersonRepo extends JdbcAbstractRepo<Person> implements PersonRe
         return jdbcTemplate.update(sql, newPass, personId);
     }
 
+    /**
+     * Writes the person only if the record still has the version the person was read with, and increments it.
+     *
+     * @throws OptimisticLockingFailureException if the record was modified or deleted since the person was read
+     */
     @Override
     public Person update(Person person) {
+        checkNames(person);
+        var now = LocalDateTime.now();
+        int count = jdbcTemplate.update("update PERSON set USERNAME=?, FIRSTNAME=?, LASTNAME=?, PASSWORD=?, MODIFIED_AT=?, VERSION=VERSION+1 where ID=? and VERSION=?",
+                 person.getUsername(), person.getFirstName(), person.getLastName(), person.getPassword(), now, person.getId(), person.getVersion()
+        );
+        if (count == 0) {
+            throw new OptimisticLockingFailureException("Person " + person.getId() + " with version " + person.getVersion()
+                    + " was modified or deleted by another transaction.");
+        }
+        person.setVersion(person.getVersion() + 1);
+        person.setModifiedAt(now);
+        return person;
+    }
+
+    /**
+     * All names are checked before anything is written, an invalid one rejects the whole collection.
+     */
+    @Override
+    public UpdateResult updateAll(Collection<Person> persons) {
+        persons.forEach(this::checkNames);
+        return super.updateAll(persons);
+    }
+
+    private void checkNames(Person person) {
         if (StringUtils.indexOfAny(person.getFirstName(), SPECIAL_CHARS) != -1 ||
                 StringUtils.indexOfAny(person.getLastName(), SPECIAL_CHARS) != -1) {
             throw new IllegalArgumentException("Text contains weird characters!");
         }
-        jdbcTemplate.update("update PERSON set USERNAME=?, FIRSTNAME=?, LASTNAME=?, PASSWORD=?, MODIFIED_AT=? where ID=?",
-                 person.getUsername(), person.getFirstName(), person.getLastName(), person.getPassword(), LocalDateTime.now(), person.getId()
-        );
-        return person;
+    }
+
+    @Override
+    protected String tableName() {
+        return "PERSON";
+    }
+
+    @Override
+    protected String[] updatableColumns() {
+        return UPDATABLE_COLUMNS;
+    }
+
+    @Override
+    protected Object[] updatableValues(Person person) {
+        return new Object[]{person.getUsername(), person.getFirstName(), person.getLastName(), person.getPassword(),
+                toTimestamp(person.getHiringDate())};
     }
 
     @Override
     public void save(Person person) {
-        jdbcTemplate.update(
-                "insert into PERSON(ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE, MODIFIED_AT, CREATED_AT, VERSION) values(?,?,?,?,?,?,?,?,?)",
-                person.getId(), person.getUsername(), person.getFirstName(), person.getLastName(), person.getPassword(),
-                person.getHiringDate(), LocalDateTime.now(), LocalDateTime.now(), 1
-        );
+        var now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, ps -> bindInsert(ps, person, now));
+    }
+
+    @Override
+    protected String insertSql() {
+        return INSERT_SQL;
+    }
+
+    @Override
+    protected void bindInsert(PreparedStatement ps, Person person, Timestamp now) throws SQLException {
+        setId(ps, 1, person.getId());
+        ps.setString(2, person.getUsername());
+        ps.setString(3, person.getFirstName());
+        ps.setString(4, person.getLastName());
+        ps.setString(5, person.getPassword());
+        ps.setTimestamp(6, toTimestamp(person.getHiringDate()));
+        ps.setTimestamp(7, now);
+        ps.setTimestamp(8, now);
+        ps.setInt(9, 1);
     }
 
     @Override
     public Set<Person> findAll() {
-        var sql = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE from PERSON";
+        var sql = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE, VERSION from PERSON";
         return new HashSet<>(jdbcTemplate.query(sql, rowMapper));
     }
 
+    @Override
+    public Stream<Person> streamAll() {
+        var sql = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE, VERSION from PERSON";
+        return queryForStream(sql, rowMapper);
+    }
+
     @Override
     public void delete(Person entity) {
         jdbcTemplate.update("delete from PERSON where ID =? ", entity.getId());
@@ -34,6 +34,9 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -43,6 +46,8 @@ import java.util.Optional;
  */
 @Repository
 public class JdbcStorageRepo extends JdbcAbstractRepo<Storage> implements StorageRepo {
+    private static final String INSERT_SQL = "insert into STORAGE(ID, NAME, LOCATION, MODIFIED_AT, CREATED_AT) values(?,?,?,?,?)";
+
     private RowMapper<Storage> rowMapper = new StorageRowMapper();
 
     public JdbcStorageRepo(JdbcTemplate jdbcTemplate) {
@@ -69,10 +74,22 @@ public class JdbcStorageRepo extends JdbcAbstractRepo<Storage> implements Storag
 
     @Override
     public void save(Storage storage) {
-        jdbcTemplate.update(
-                "insert into STORAGE(ID, NAME, LOCATION, MODIFIED_AT, CREATED_AT) values(?,?,?,?,?)",
-                storage.getId(), storage.getName(), storage.getLocation(), LocalDateTime.now(), LocalDateTime.now()
-        );
+        var now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, ps -> bindInsert(ps, storage, now));
+    }
+
+    @Override
+    protected String insertSql() {
+        return INSERT_SQL;
+    }
+
+    @Override
+    protected void bindInsert(PreparedStatement ps, Storage storage, Timestamp now) throws SQLException {
+        setId(ps, 1, storage.getId());
+        ps.setString(2, storage.getName());
+        ps.setString(3, storage.getLocation());
+        ps.setTimestamp(4, now);
+        ps.setTimestamp(5, now);
     }
 
     @Override
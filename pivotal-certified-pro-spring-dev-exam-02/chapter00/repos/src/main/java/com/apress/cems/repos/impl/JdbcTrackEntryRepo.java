@@ -27,9 +27,135 @@ SOFTWARE.
 */
 package com.apress.cems.repos.impl;
 
+import com.apress.cems.dao.TrackEntry;
+import com.apress.cems.repos.TrackEntryRepo;
+import com.apress.cems.repos.util.TrackEntryRowMapper;
+import com.apress.cems.util.TrackAction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 /**
+ * TRACK_ENTRY is the chain of custody of the evidence, so entries are only ever appended, never updated or deleted.
+ * Range scans page through {@code (TRACK_DATE, ID)} with keyset pagination and the latest entry of an evidence
+ * is read from the top of the {@code (EVIDENCE_FK, TRACK_DATE, ID)} index, so neither scans the whole history.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
-public class JdbcTrackEntryRepo {
+@Repository
+public class JdbcTrackEntryRepo extends JdbcAbstractRepo<TrackEntry> implements TrackEntryRepo {
+
+    private static final String INSERT_SQL = "insert into TRACK_ENTRY(ID, TRACK_DATE, EVIDENCE_FK, DETECTIVE_FK, ACTION, REASON, CREATED_AT, MODIFIED_AT, VERSION) values(?,?,?,?,?,?,?,?,?)";
+
+    private static final String SELECT_SQL = "select ID, TRACK_DATE, ACTION, REASON, EVIDENCE_FK, DETECTIVE_FK from TRACK_ENTRY";
+
+    private RowMapper<TrackEntry> rowMapper = new TrackEntryRowMapper();
+
+    public JdbcTrackEntryRepo(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    @Override
+    public Optional<TrackEntry> findById(Long id) {
+        var sql = SELECT_SQL + " where ID= ?";
+        return Optional.of(jdbcTemplate.queryForObject(sql, rowMapper, id));
+    }
+
+    @Override
+    public Set<TrackEntry> findByDetectiveId(Long detectiveId) {
+        var sql = SELECT_SQL + " where DETECTIVE_FK= ?";
+        return new HashSet<>(jdbcTemplate.query(sql, rowMapper, detectiveId));
+    }
+
+    @Override
+    public Set<TrackEntry> findByEvidenceId(Long evidenceId) {
+        var sql = SELECT_SQL + " where EVIDENCE_FK= ?";
+        return new HashSet<>(jdbcTemplate.query(sql, rowMapper, evidenceId));
+    }
+
+    @Override
+    public Set<TrackEntry> findByDate(Date date) {
+        var day = startOfDay(date);
+        var sql = SELECT_SQL + " where TRACK_DATE >= ? and TRACK_DATE < ?";
+        return new HashSet<>(jdbcTemplate.query(sql, rowMapper, Timestamp.valueOf(day), Timestamp.valueOf(day.plusDays(1))));
+    }
+
+    @Override
+    public Set<TrackEntry> findByDateAndAction(Date date, TrackAction action) {
+        var day = startOfDay(date);
+        var sql = SELECT_SQL + " where TRACK_DATE >= ? and TRACK_DATE < ? and ACTION= ?";
+        return new HashSet<>(jdbcTemplate.query(sql, rowMapper, Timestamp.valueOf(day), Timestamp.valueOf(day.plusDays(1)), action.name()));
+    }
+
+    @Override
+    public List<TrackEntry> findByDateRange(LocalDateTime from, LocalDateTime to, TrackEntry last, int limit) {
+        if (last == null) {
+            var sql = SELECT_SQL + " where TRACK_DATE >= ? and TRACK_DATE < ? order by TRACK_DATE, ID fetch first ? rows only";
+            return jdbcTemplate.query(sql, rowMapper, Timestamp.valueOf(from), Timestamp.valueOf(to), limit);
+        }
+        var lastDate = Timestamp.valueOf(last.getDate());
+        var sql = SELECT_SQL + " where TRACK_DATE >= ? and TRACK_DATE < ? and (TRACK_DATE > ? or (TRACK_DATE = ? and ID > ?))" +
+                " order by TRACK_DATE, ID fetch first ? rows only";
+        return jdbcTemplate.query(sql, rowMapper, Timestamp.valueOf(from), Timestamp.valueOf(to), lastDate, lastDate, last.getId(), limit);
+    }
+
+    @Override
+    public Optional<TrackEntry> findLatestByEvidenceId(Long evidenceId) {
+        var sql = SELECT_SQL + " where EVIDENCE_FK= ? order by TRACK_DATE desc, ID desc fetch first 1 rows only";
+        return jdbcTemplate.query(sql, rowMapper, evidenceId).stream().findFirst();
+    }
+
+    @Override
+    public void save(TrackEntry trackEntry) {
+        var now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, ps -> bindInsert(ps, trackEntry, now));
+    }
+
+    @Override
+    protected String insertSql() {
+        return INSERT_SQL;
+    }
+
+    @Override
+    protected void bindInsert(PreparedStatement ps, TrackEntry trackEntry, Timestamp now) throws SQLException {
+        setId(ps, 1, trackEntry.getId());
+        ps.setTimestamp(2, toTimestamp(trackEntry.getDate()));
+        setId(ps, 3, idOf(trackEntry.getEvidence()));
+        setId(ps, 4, idOf(trackEntry.getDetective()));
+        ps.setString(5, toName(trackEntry.getAction()));
+        ps.setString(6, trackEntry.getReason());
+        ps.setTimestamp(7, now);
+        ps.setTimestamp(8, now);
+        ps.setInt(9, 1);
+    }
+
+    @Override
+    public TrackEntry update(TrackEntry entity) {
+        throw new UnsupportedOperationException("Track entries are append-only.");
+    }
+
+    @Override
+    public void delete(TrackEntry entity) {
+        throw new UnsupportedOperationException("Track entries are append-only.");
+    }
+
+    @Override
+    public int deleteById(Long entityId) {
+        throw new UnsupportedOperationException("Track entries are append-only.");
+    }
+
+    private static LocalDateTime startOfDay(Date date) {
+        return new Timestamp(date.getTime()).toLocalDateTime().toLocalDate().atStartOfDay();
+    }
 }
@@ -31,7 +31,6 @@ import com.apress.cems.dao.CriminalCase;
 import com.apress.cems.dao.Detective;
 import com.apress.cems.util.CaseStatus;
 import com.apress.cems.util.CaseType;
-import org.springframework.jdbc.core.RowMapper;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -41,27 +40,28 @@ import java.sql.SQLException;
  * @author Iuliana Cosmina
  * @since 1.0
  */
-public class CriminalCaseRowMapper implements RowMapper<CriminalCase> {
+public class CriminalCaseRowMapper extends IndexedRowMapper<CriminalCase> {
 
-    @Override
-    public CriminalCase mapRow(ResultSet rs, int rowNum) throws SQLException {
-        var id = rs.getLong("ID");
-        var number = rs.getString("CASE_NUMBER");
-        var type = rs.getString("CASE_TYPE");
-        var status = rs.getString("STATUS");
-        var shortDescription = rs.getString("SHORT_DESCRIPTION");
-        var detectiveId =  rs.getLong("LEAD_INVESTIGATOR_ID");
+    private static final EnumLookup<CaseType> TYPES = EnumLookup.of(CaseType.class);
+    private static final EnumLookup<CaseStatus> STATUSES = EnumLookup.of(CaseStatus.class);
+
+    public CriminalCaseRowMapper() {
+        super("ID", "CASE_NUMBER", "CASE_TYPE", "STATUS", "SHORT_DESCRIPTION", "LEAD_INVESTIGATOR_ID", "VERSION" + OPTIONAL);
+    }
 
+    @Override
+    protected CriminalCase mapRow(ResultSet rs, int[] idx) throws SQLException {
         var cc = new CriminalCase();
-        cc.setId(id);
-        cc.setNumber(number);
-        cc.setType(CaseType.valueOf(type));
-        cc.setStatus(CaseStatus.valueOf(status));
-        cc.setShortDescription(shortDescription);
+        cc.setId(rs.getLong(idx[0]));
+        cc.setNumber(rs.getString(idx[1]));
+        cc.setType(TYPES.get(rs.getString(idx[2])));
+        cc.setStatus(STATUSES.get(rs.getString(idx[3])));
+        cc.setShortDescription(rs.getString(idx[4]));
 
         var detective = new Detective();
-        detective.setId(detectiveId);
+        detective.setId(rs.getLong(idx[5]));
         cc.setLeadInvestigator(detective);
+        setVersion(rs, idx[6], cc);
         return cc;
     }
 }
@@ -31,7 +31,6 @@ import com.apress.cems.dao.Detective;
 import com.apress.cems.dao.Person;
 import com.apress.cems.util.EmploymentStatus;
 import com.apress.cems.util.Rank;
-import org.springframework.jdbc.core.RowMapper;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -40,31 +39,33 @@ import java.sql.SQLException;
  * @author Iuliana Cosmina
  * @since 1.0
  */
-public class DetectiveRowMapper implements RowMapper<Detective> {
-    @Override
-    public Detective mapRow(ResultSet rs, int rowNum) throws SQLException {
-        var id = rs.getLong("ID");
-        var badgeNumber = rs.getString("BADGE_NUMBER");
-        var rank = rs.getString("RANK");
-        var armed = rs.getBoolean("ARMED");
-        var status = rs.getString("STATUS");
-        var personId = rs.getLong("PERSON_ID");
+public class DetectiveRowMapper extends IndexedRowMapper<Detective> {
+
+    private static final EnumLookup<Rank> RANKS = EnumLookup.of(Rank.class);
+    private static final EnumLookup<EmploymentStatus> STATUSES = EnumLookup.of(EmploymentStatus.class);
 
+    public DetectiveRowMapper() {
+        super("ID", "BADGE_NUMBER", "RANK", "ARMED", "STATUS", "PERSON_ID", "USERNAME", "FIRSTNAME", "LASTNAME", "HIRINGDATE", "VERSION" + OPTIONAL);
+    }
+
+    @Override
+    protected Detective mapRow(ResultSet rs, int[] idx) throws SQLException {
         var person = new Person();
-        person.setId(personId);
-        person.setUsername(rs.getString("USERNAME"));
-        person.setFirstName(rs.getString("FIRSTNAME"));
-        person.setLastName(rs.getString("LASTNAME"));
-        person.setHiringDate(rs.getTimestamp("HIRINGDATE").toLocalDateTime());
+        person.setId(rs.getLong(idx[5]));
+        person.setUsername(rs.getString(idx[6]));
+        person.setFirstName(rs.getString(idx[7]));
+        person.setLastName(rs.getString(idx[8]));
+        person.setHiringDate(getLocalDateTime(rs, idx[9]));
 
         var detective = new Detective();
-        detective.setId(id);
+        detective.setId(rs.getLong(idx[0]));
         detective.setPerson(person);
-        detective.setBadgeNumber(badgeNumber);
-        detective.setRank(Rank.valueOf(rank));
-        detective.setArmed(armed);
-        detective.setStatus(EmploymentStatus.valueOf(status));
+        detective.setBadgeNumber(rs.getString(idx[1]));
+        detective.setRank(RANKS.get(rs.getString(idx[2])));
+        detective.setArmed(rs.getBoolean(idx[3]));
+        detective.setStatus(STATUSES.get(rs.getString(idx[4])));
 
+        setVersion(rs, idx[10], detective);
         return detective;
     }
 }
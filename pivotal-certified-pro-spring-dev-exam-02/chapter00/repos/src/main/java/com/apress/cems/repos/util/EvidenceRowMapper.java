@@ -0,0 +1,65 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.repos.util;
+
+import com.apress.cems.dao.CriminalCase;
+import com.apress.cems.dao.Evidence;
+import com.apress.cems.dao.Storage;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public class EvidenceRowMapper extends IndexedRowMapper<Evidence> {
+
+    public EvidenceRowMapper() {
+        super("ID", "EVIDENCE_NUMBER", "ITEM_NAME", "NOTES", "ARCHIVED", "CASE_FK", "STORAGE_FK");
+    }
+
+    @Override
+    protected Evidence mapRow(ResultSet rs, int[] idx) throws SQLException {
+        var criminalCase = new CriminalCase();
+        criminalCase.setId(rs.getLong(idx[5]));
+
+        var storage = new Storage();
+        storage.setId(rs.getLong(idx[6]));
+
+        var evidence = new Evidence();
+        evidence.setId(rs.getLong(idx[0]));
+        evidence.setNumber(rs.getString(idx[1]));
+        evidence.setItemName(rs.getString(idx[2]));
+        evidence.setNotes(rs.getString(idx[3]));
+        evidence.setArchived(rs.getBoolean(idx[4]));
+        evidence.setCriminalCase(criminalCase);
+        evidence.setStorage(storage);
+        return evidence;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.repos.util;
+
+import com.apress.cems.dao.AbstractEntity;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Base class for row mappers that read columns by index. The column names are resolved to indexes
+ * only once per {@code ResultSet}, instead of a lookup by name for every column of every row.
+ *
+ * Instances are stateless from the caller's point of view and can be shared between threads: the resolved
+ * indexes are published as an immutable snapshot, a thread mapping a different {@code ResultSet} simply resolves them again.
+ * The snapshot only holds a weak reference to its {@code ResultSet}, so a mapper kept in a repository field does not keep
+ * the last result set, and the statement behind it, reachable once the query is over.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public abstract class IndexedRowMapper<T> implements RowMapper<T> {
+
+    public static final String OPTIONAL = "?";
+
+    private final String[] columns;
+
+    private volatile ResolvedColumns resolved;
+
+    /**
+     * @param columns the column labels this mapper reads, in the order used by {@link #mapRow(ResultSet, int[])}.
+     *                A label ending in {@value #OPTIONAL} marks a column that not every query selects, its index is {@code 0}
+     *                when it is missing from the {@code ResultSet}
+     */
+    protected IndexedRowMapper(String... columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public final T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        var current = resolved;
+        if (current == null || current.rs.get() != rs) {
+            current = new ResolvedColumns(rs, resolve(rs));
+            resolved = current;
+        }
+        return mapRow(rs, current.indexes);
+    }
+
+    /**
+     * @param rs the result set positioned on the current row
+     * @param idx the column indexes, {@code idx[i]} is the index of the i-th column given to the constructor
+     */
+    protected abstract T mapRow(ResultSet rs, int[] idx) throws SQLException;
+
+    private int[] resolve(ResultSet rs) throws SQLException {
+        var indexes = new int[columns.length];
+        for (int i = 0; i < columns.length; ++i) {
+            var column = columns[i];
+            indexes[i] = column.endsWith(OPTIONAL) ? findOptional(rs, column.substring(0, column.length() - 1)) : rs.findColumn(column);
+        }
+        return indexes;
+    }
+
+    private static int findOptional(ResultSet rs, String column) throws SQLException {
+        var metaData = rs.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); ++i) {
+            if (column.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads the optimistic locking version, if the query selected it.
+     */
+    protected static void setVersion(ResultSet rs, int index, AbstractEntity entity) throws SQLException {
+        if (index > 0) {
+            entity.setVersion(rs.getInt(index));
+        }
+    }
+
+    /**
+     * Reads a {@code TIMESTAMP} column straight into a {@code LocalDateTime}, without the intermediate {@code java.sql.Timestamp}.
+     */
+    protected static LocalDateTime getLocalDateTime(ResultSet rs, int index) throws SQLException {
+        return rs.getObject(index, LocalDateTime.class);
+    }
+
+    private static final class ResolvedColumns {
+        private final WeakReference<ResultSet> rs;
+        private final int[] indexes;
+
+        private ResolvedColumns(ResultSet rs, int[] indexes) {
+            this.rs = new WeakReference<>(rs);
+            this.indexes = indexes;
+        }
+    }
+}
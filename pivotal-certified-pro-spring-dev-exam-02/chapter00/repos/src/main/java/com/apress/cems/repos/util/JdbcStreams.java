@@ -0,0 +1,123 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.repos.util;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams query results without materializing them in a collection. Rows are mapped one at a time as the stream is consumed,
+ * and the driver fetches them from the database {@code fetchSize} rows at a time.
+ *
+ * The statement, the result set and the connection stay open until the stream is closed, so the returned
+ * streams must always be used in a try-with-resources block.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public final class JdbcStreams {
+
+    private JdbcStreams() {
+    }
+
+    public static <T> Stream<T> queryForStream(JdbcTemplate jdbcTemplate, int fetchSize, String sql, RowMapper<T> rowMapper, Object... args) {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        Connection con = DataSourceUtils.getConnection(dataSource);
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(args).setValues(ps);
+            rs = ps.executeQuery();
+            final ResultSet resultSet = rs;
+            final PreparedStatement statement = ps;
+            return StreamSupport.stream(new ResultSetSpliterator<>(jdbcTemplate, sql, resultSet, rowMapper), false)
+                    .onClose(() -> release(resultSet, statement, con, dataSource));
+        } catch (SQLException ex) {
+            release(rs, ps, con, dataSource);
+            throw translate(jdbcTemplate, sql, ex);
+        }
+    }
+
+    private static DataAccessException translate(JdbcTemplate jdbcTemplate, String sql, SQLException ex) {
+        DataAccessException dae = jdbcTemplate.getExceptionTranslator().translate("StreamQuery", sql, ex);
+        return dae != null ? dae : new UncategorizedSQLException("StreamQuery", sql, ex);
+    }
+
+    private static void release(ResultSet rs, PreparedStatement ps, Connection con, DataSource dataSource) {
+        JdbcUtils.closeResultSet(rs);
+        JdbcUtils.closeStatement(ps);
+        DataSourceUtils.releaseConnection(con, dataSource);
+    }
+
+    private static class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final JdbcTemplate jdbcTemplate;
+        private final String sql;
+        private final ResultSet rs;
+        private final RowMapper<T> rowMapper;
+        private int rowNum = 0;
+
+        ResultSetSpliterator(JdbcTemplate jdbcTemplate, String sql, ResultSet rs, RowMapper<T> rowMapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.jdbcTemplate = jdbcTemplate;
+            this.sql = sql;
+            this.rs = rs;
+            this.rowMapper = rowMapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (rs.next()) {
+                    action.accept(rowMapper.mapRow(rs, rowNum++));
+                    return true;
+                }
+                return false;
+            } catch (SQLException ex) {
+                throw translate(jdbcTemplate, sql, ex);
+            }
+        }
+    }
+}
@@ -28,7 +28,6 @@ SOFTWARE.
 package com.apress.cems.repos.util;
 
 import com.apress.cems.dao.Person;
-import org.springframework.jdbc.core.RowMapper;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -37,23 +36,22 @@ import java.sql.SQLException;
  * @author Iuliana Cosmina
  * @since 1.0
  */
-public class PersonRowMapper implements RowMapper<Person> {
-    @Override
-    public Person mapRow(ResultSet rs, int rowNum) throws SQLException {
-        var id = rs.getLong("ID");
-        var username = rs.getString("USERNAME");
-        var firstname = rs.getString("FIRSTNAME");
-        var lastname = rs.getString("LASTNAME");
-        var password = rs.getString("PASSWORD");
-        var hiringDate = rs.getTimestamp("HIRINGDATE").toLocalDateTime();
+public class PersonRowMapper extends IndexedRowMapper<Person> {
+
+    public PersonRowMapper() {
+        super("ID", "USERNAME", "FIRSTNAME", "LASTNAME", "PASSWORD", "HIRINGDATE", "VERSION" + OPTIONAL);
+    }
 
+    @Override
+    protected Person mapRow(ResultSet rs, int[] idx) throws SQLException {
         var person = new Person();
-        person.setId(id);
-        person.setUsername(username);
-        person.setFirstName(firstname);
-        person.setLastName(lastname);
-        person.setPassword(password);
-        person.setHiringDate(hiringDate);
+        person.setId(rs.getLong(idx[0]));
+        person.setUsername(rs.getString(idx[1]));
+        person.setFirstName(rs.getString(idx[2]));
+        person.setLastName(rs.getString(idx[3]));
+        person.setPassword(rs.getString(idx[4]));
+        person.setHiringDate(getLocalDateTime(rs, idx[5]));
+        setVersion(rs, idx[6], person);
         return person;
     }
 }
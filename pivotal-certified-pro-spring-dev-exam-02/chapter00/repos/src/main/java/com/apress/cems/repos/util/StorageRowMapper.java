@@ -28,7 +28,6 @@ SOFTWARE.
 package com.apress.cems.repos.util;
 
 import com.apress.cems.dao.Storage;
-import org.springframework.jdbc.core.RowMapper;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -37,17 +36,18 @@ import java.sql.SQLException;
  * @author Iuliana Cosmina
  * @since 1.0
  */
-public class StorageRowMapper implements RowMapper<Storage> {
-    @Override
-    public Storage mapRow(ResultSet rs, int rowNum) throws SQLException {
-        var id = rs.getLong("ID");
-        var name = rs.getString("NAME");
-        var location = rs.getString("LOCATION");
+public class StorageRowMapper extends IndexedRowMapper<Storage> {
+
+    public StorageRowMapper() {
+        super("ID", "NAME", "LOCATION");
+    }
 
+    @Override
+    protected Storage mapRow(ResultSet rs, int[] idx) throws SQLException {
         var storage = new Storage();
-        storage.setId(id);
-        storage.setName(name);
-        storage.setLocation(location);
+        storage.setId(rs.getLong(idx[0]));
+        storage.setName(rs.getString(idx[1]));
+        storage.setLocation(rs.getString(idx[2]));
         return storage;
     }
 }
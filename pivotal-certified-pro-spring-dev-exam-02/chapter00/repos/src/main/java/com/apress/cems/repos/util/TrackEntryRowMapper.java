@@ -0,0 +1,67 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.repos.util;
+
+import com.apress.cems.dao.Detective;
+import com.apress.cems.dao.Evidence;
+import com.apress.cems.dao.TrackEntry;
+import com.apress.cems.util.TrackAction;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public class TrackEntryRowMapper extends IndexedRowMapper<TrackEntry> {
+
+    private static final EnumLookup<TrackAction> ACTIONS = EnumLookup.of(TrackAction.class);
+
+    public TrackEntryRowMapper() {
+        super("ID", "TRACK_DATE", "ACTION", "REASON", "EVIDENCE_FK", "DETECTIVE_FK");
+    }
+
+    @Override
+    protected TrackEntry mapRow(ResultSet rs, int[] idx) throws SQLException {
+        var evidence = new Evidence();
+        evidence.setId(rs.getLong(idx[4]));
+
+        var detective = new Detective();
+        detective.setId(rs.getLong(idx[5]));
+
+        var trackEntry = new TrackEntry();
+        trackEntry.setId(rs.getLong(idx[0]));
+        trackEntry.setDate(getLocalDateTime(rs, idx[1]));
+        trackEntry.setAction(ACTIONS.get(rs.getString(idx[2])));
+        trackEntry.setReason(rs.getString(idx[3]));
+        trackEntry.setEvidence(evidence);
+        trackEntry.setDetective(detective);
+        return trackEntry;
+    }
+}
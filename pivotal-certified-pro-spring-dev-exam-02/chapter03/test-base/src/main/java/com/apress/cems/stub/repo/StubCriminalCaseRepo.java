@@ -39,6 +39,7 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.apress.cems.stub.util.TestObjectsBuilder.buildCase;
 import static com.apress.cems.stub.util.TestObjectsBuilder.buildDetective;
@@ -115,6 +116,31 @@ public class StubCriminalCaseRepo extends StubAbstractRepo<CriminalCase> impleme
         throw new NotImplementedException("Not needed for this stub.");
     }
 
+    @Override
+    public List<CriminalCase> findByStatus(CaseStatus status, Long afterId, int limit) {
+        throw new NotImplementedException("Not needed for this stub.");
+    }
+
+    @Override
+    public List<CriminalCase> findByType(CaseType type, Long afterId, int limit) {
+        throw new NotImplementedException("Not needed for this stub.");
+    }
+
+    @Override
+    public List<CriminalCase> findByStatusAndType(CaseStatus status, CaseType type, Long afterId, int limit) {
+        throw new NotImplementedException("Not needed for this stub.");
+    }
+
+    @Override
+    public Map<CaseStatus, Long> countByStatus() {
+        throw new NotImplementedException("Not needed for this stub.");
+    }
+
+    @Override
+    public Stream<CriminalCase> streamAll() {
+        return records.values().stream();
+    }
+
     @PreDestroy
     public void clear(){
         records2.entrySet().removeIf(e ->true);
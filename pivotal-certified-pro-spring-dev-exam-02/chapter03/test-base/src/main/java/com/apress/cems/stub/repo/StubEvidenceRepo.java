@@ -35,6 +35,7 @@ import org.apache.commons.lang3.NotImplementedException;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author Iuliana Cosmina
@@ -56,6 +57,11 @@ public class StubEvidenceRepo extends StubAbstractRepo<Evidence> implements Evid
         throw new NotImplementedException("Not needed for this stub.");
     }
 
+    @Override
+    public Stream<Evidence> streamAll() {
+        return records.values().stream();
+    }
+
     @Override
     public Evidence update(Evidence entity)  {
         throw new NotImplementedException("Not needed for this stub.");
@@ -32,7 +32,10 @@ import com.apress.cems.repos.TrackEntryRepo;
 import com.apress.cems.util.TrackAction;
 import org.apache.commons.lang3.NotImplementedException;
 
+import java.time.LocalDateTime;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -65,4 +68,14 @@ public class StubTrackEntryRepo extends StubAbstractRepo<TrackEntry> implements
     public Set<TrackEntry> findByDateAndAction(Date date, TrackAction action) {
         throw new NotImplementedException("Not needed for this stub.");
     }
+
+    @Override
+    public List<TrackEntry> findByDateRange(LocalDateTime from, LocalDateTime to, TrackEntry last, int limit) {
+        throw new NotImplementedException("Not needed for this stub.");
+    }
+
+    @Override
+    public Optional<TrackEntry> findLatestByEvidenceId(Long evidenceId) {
+        throw new NotImplementedException("Not needed for this stub.");
+    }
 }
@@ -0,0 +1,159 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.aop;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the execution time of the repository and service finders. The statistics of every intercepted method
+ * are created, and exported to the {@code MeterRegistry}, the first time the method is called. After that, besides
+ * the join point Spring creates for every advised call, a call only reads {@code System.nanoTime()} twice and the registry
+ * clock once, increments {@code LongAdder} counters and one bucket in each histogram of the time window, none of which
+ * allocates or takes a lock.
+ *
+ * The registry gets, for each method tagged with its {@code method} name and the {@code type} of the advised bean:
+ * the {@code cems.find} timer, the {@code cems.find.failures} counter, the {@code cems.find.max} time and the
+ * {@code cems.find.percentile} times for the 50th, 95th, 99th and 99.9th percentiles. The timer and the counter are
+ * cumulative, the maximum and the percentiles only cover the calls made during the last {@link #EXPIRY}, so that a
+ * slow call at startup does not hide the current latency forever.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Aspect
+@Component
+public class PerformanceMonitor implements MeterBinder {
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99, 0.999};
+    /** Same window as the distribution statistics of a Micrometer timer. */
+    static final Duration EXPIRY = Duration.ofMinutes(2);
+    static final int BUFFER_LENGTH = 3;
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, MethodStats>> stats = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * Used by the AspectJ weaver, which instantiates the aspect itself. Nothing is measured until the aspect is bound
+     * to the registry of the context, see {@code LtwConfig}.
+     */
+    public PerformanceMonitor() {
+    }
+
+    @Autowired
+    public PerformanceMonitor(MeterRegistry meterRegistry) {
+        bindTo(meterRegistry);
+    }
+
+    /**
+     * Exports the statistics to the given registry, the statistics collected for a previous registry are dropped.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        stats.clear();
+    }
+
+    @Around("com.apress.cems.aop.PointcutContainer.repoFind() || com.apress.cems.aop.PointcutContainer.serviceFind()")
+    public Object timeFind(ProceedingJoinPoint joinPoint) throws Throwable {
+        var registry = meterRegistry;
+        if (registry == null) {
+            return joinPoint.proceed();
+        }
+        var methodStats = statsFor(joinPoint, registry);
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            methodStats.failures.increment();
+            throw t;
+        } finally {
+            methodStats.record(System.nanoTime() - start);
+        }
+    }
+
+    private MethodStats statsFor(ProceedingJoinPoint joinPoint, MeterRegistry registry) {
+        var type = joinPoint.getTarget().getClass();
+        var method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        var typeStats = stats.get(type);
+        if (typeStats == null) {
+            typeStats = stats.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+        }
+        var methodStats = typeStats.get(method);
+        if (methodStats == null) {
+            methodStats = typeStats.computeIfAbsent(method, m -> new MethodStats(registry, type.getName(), m.getName()));
+        }
+        return methodStats;
+    }
+
+    static final class MethodStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final TimeWindowLatencyHistogram histogram;
+
+        private MethodStats(MeterRegistry registry, String type, String method) {
+            histogram = new TimeWindowLatencyHistogram(registry.config().clock(), EXPIRY, BUFFER_LENGTH);
+            var tags = Tags.of("type", type, "method", method);
+            FunctionTimer.builder("cems.find", this, s -> s.calls.sum(), s -> s.totalNanos.sum(), TimeUnit.NANOSECONDS)
+                    .tags(tags).description("Finder executions").register(registry);
+            FunctionCounter.builder("cems.find.failures", this, s -> s.failures.sum())
+                    .tags(tags).description("Finder executions that threw an exception").register(registry);
+            TimeGauge.builder("cems.find.max", this, TimeUnit.NANOSECONDS, s -> s.histogram.getMax())
+                    .tags(tags).description("Longest finder execution in the time window").register(registry);
+            for (var percentile : PERCENTILES) {
+                TimeGauge.builder("cems.find.percentile", this, TimeUnit.NANOSECONDS, s -> s.histogram.valueAtPercentile(percentile))
+                        .tags(tags.and("percentile", String.valueOf(percentile)))
+                        .description("Finder execution time percentile").register(registry);
+            }
+        }
+
+        private void record(long nanos) {
+            calls.increment();
+            totalNanos.add(nanos);
+            histogram.record(nanos);
+        }
+    }
+}
@@ -32,15 +32,12 @@ import com.apress.cems.dao.Person;
 import com.apress.cems.ex.UnexpectedException;
 import org.apache.commons.lang3.StringUtils;
 import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
-
 /**
  * @author Iuliana Cosmina
  * @since 1.0
@@ -49,7 +46,6 @@ import java.util.Optional;
 @Component
 public class PersonMonitor {
     private static final Logger logger = LoggerFactory.getLogger(PersonMonitor.class);
-    private static long findByIdCount = 0;
 
     //@Before("execution(public * com.apress.cems.repos.*.JdbcPersonRepo+.findById(..))")
     @Before("execution(public * com.apress.cems.repos.*.JdbcPersonRepo+.findById(..)) && within(com.apress.*) ")
@@ -79,13 +75,6 @@ public class PersonMonitor {
         logger.info("[beforeFind]: ---> Method {}.{}  is about to be called", className, methodName);
     }
 
-    @After("com.apress.cems.aop.PointcutContainer.repoFind() || com.apress.cems.aop.PointcutContainer.serviceFind()")
-    public void afterFind(JoinPoint joinPoint) {
-        ++findByIdCount;
-        var methodName = joinPoint.getSignature().getName();
-        logger.info("[afterFind]: ---> Method {}  was called {}  times", methodName, findByIdCount);
-    }
-
     private static final String[] SPECIAL_CHARS = new String[]{"$", "#", "&", "%"};
 
     @Before("com.apress.cems.aop.PointcutContainer.beforeSavePointcut(person,service)")
@@ -115,21 +104,4 @@ public class PersonMonitor {
         }
     }
 
-    @Around("com.apress.cems.aop.PointcutContainer.repoFind() || com.apress.cems.aop.PointcutContainer.serviceFind()")
-    public Object aroundFind(ProceedingJoinPoint joinPoint) throws Throwable {
-        var methodName = joinPoint.getSignature().getName();
-
-        logger.info("[aroundFind]: ---> Intercepting call of {}", methodName);
-        long t1 = System.currentTimeMillis();
-        try {
-            //put a pause here so we can register an execution time
-            Thread.sleep(1000L);
-            var obj = joinPoint.proceed();
-            return obj != null ? obj : Optional.empty();
-        } finally {
-            long t2 = System.currentTimeMillis();
-            logger.info("[aroundFind]: ---> Execution of {} took {} ", methodName, (t2 - t1) / 1000 + " seconds.");
-        }
-    }
-
 }
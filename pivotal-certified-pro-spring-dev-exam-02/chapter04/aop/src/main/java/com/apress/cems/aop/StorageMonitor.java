@@ -50,7 +50,7 @@ public class StorageMonitor {
         logger.info("[bubuHappens] ---> BUBU when calling: {}.{}", className, methodName);
     }
 
-    @Before("within(@com.apress.cems.aop.ApressService *)")
+    @Before("execution(* *(..)) && within(@com.apress.cems.aop.ApressService *)")
     public void beforeAnyWithClassAnnotation(JoinPoint joinPoint) {
         var methodName = joinPoint.getSignature().getName();
         logger.info("[beforeAnyWithClassAnnotation]: ---> Method {} is about to be called", methodName);
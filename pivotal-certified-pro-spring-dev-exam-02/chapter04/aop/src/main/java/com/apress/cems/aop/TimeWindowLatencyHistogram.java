@@ -0,0 +1,124 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.aop;
+
+import io.micrometer.core.instrument.Clock;
+
+import java.time.Duration;
+
+/**
+ * {@link LatencyHistogram} that only reports the durations recorded during the last {@code expiry}, like the
+ * distribution statistics of a Micrometer timer. It keeps a ring of {@code bufferLength} histograms, a duration is
+ * recorded in all of them and the reported values are read from the oldest one. Every {@code expiry / bufferLength}
+ * the oldest histogram is emptied and the next one becomes the oldest, so a slow call stops showing in the maximum
+ * and in the percentiles between {@code expiry - expiry / bufferLength} and {@code expiry} after it was recorded.
+ *
+ * Recording stays lock free, the ring is only locked by the call that rotates it.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public final class TimeWindowLatencyHistogram {
+    private final Clock clock;
+    private final long durationBetweenRotatesMillis;
+    private final LatencyHistogram[] ring;
+
+    private volatile int oldest;
+    private volatile long lastRotateTimestampMillis;
+
+    /**
+     * @param clock the clock of the registry the values are exported to
+     * @param expiry how long a recorded duration is reported
+     * @param bufferLength the number of histograms the window is made of, at least 1
+     */
+    public TimeWindowLatencyHistogram(Clock clock, Duration expiry, int bufferLength) {
+        this.clock = clock;
+        this.durationBetweenRotatesMillis = Math.max(1L, expiry.toMillis() / bufferLength);
+        this.ring = new LatencyHistogram[bufferLength];
+        for (int i = 0; i < bufferLength; ++i) {
+            ring[i] = new LatencyHistogram();
+        }
+        this.lastRotateTimestampMillis = clock.wallTime();
+    }
+
+    /**
+     * @param nanos the duration to record, negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        rotate();
+        for (var histogram : ring) {
+            histogram.record(nanos);
+        }
+    }
+
+    /**
+     * @return the number of durations recorded during the window
+     */
+    public long getCount() {
+        rotate();
+        return ring[oldest].getCount();
+    }
+
+    /**
+     * @return the longest duration recorded during the window, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        rotate();
+        return ring[oldest].getMax();
+    }
+
+    /**
+     * @see LatencyHistogram#valueAtPercentile(double)
+     */
+    public long valueAtPercentile(double percentile) {
+        rotate();
+        return ring[oldest].valueAtPercentile(percentile);
+    }
+
+    private void rotate() {
+        if (clock.wallTime() - lastRotateTimestampMillis < durationBetweenRotatesMillis) {
+            return;
+        }
+        synchronized (this) {
+            var timeSinceLastRotate = clock.wallTime() - lastRotateTimestampMillis;
+            if (timeSinceLastRotate < durationBetweenRotatesMillis) {
+                return;
+            }
+            var next = oldest;
+            int rotated = 0;
+            do {
+                ring[next].reset();
+                next = (next + 1) % ring.length;
+                timeSinceLastRotate -= durationBetweenRotatesMillis;
+                ++rotated;
+            } while (timeSinceLastRotate >= durationBetweenRotatesMillis && rotated < ring.length);
+            oldest = next;
+            lastRotateTimestampMillis = clock.wallTime() - timeSinceLastRotate % durationBetweenRotatesMillis;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.aop.config;
+
+import com.apress.cems.aop.PerformanceMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.Aspects;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Alternative to {@link AopConfig} for a JVM started with the AspectJ weaving agent, configured by
+ * {@code META-INF/aop-ltw.xml}. The advice is woven into the service and repository classes when they are loaded,
+ * so calls do not go through a proxy and the context does not match pointcuts against every bean at startup.
+ * The aspects are instantiated by AspectJ, so only the services and the repositories are scanned and there is no
+ * auto-proxy creator. The {@code ltw} profile keeps this configuration out of the context when it is found by the
+ * component scan of {@link AopConfig}. The {@link PerformanceMonitor} instance created by AspectJ is exposed as a bean
+ * and bound to the registry of this context, instead of a registry shared by the whole JVM.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Configuration
+@Profile("ltw")
+@ComponentScan(basePackages = {"com.apress.cems.aop.service", "com.apress.cems.repos"})
+public class LtwConfig {
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public PerformanceMonitor performanceMonitor(MeterRegistry meterRegistry) {
+        var monitor = Aspects.aspectOf(PerformanceMonitor.class);
+        monitor.bindTo(meterRegistry);
+        return monitor;
+    }
+}
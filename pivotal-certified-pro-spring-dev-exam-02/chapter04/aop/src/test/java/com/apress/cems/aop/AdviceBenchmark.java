@@ -0,0 +1,110 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.aop;
+
+import com.apress.cems.aop.service.PersonService;
+import com.apress.cems.aop.service.PersonServiceImpl;
+import com.apress.cems.dao.Person;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measurements shared by the proxy and the load-time weaving tests, so the numbers they log can be compared.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+final class AdviceBenchmark {
+    static final int ITERATIONS = 2_000_000;
+    static final int BEANS = 2_000;
+
+    private AdviceBenchmark() {
+    }
+
+    /**
+     * @return the average duration in nanoseconds of {@code service.findById}, measured after a warm-up
+     */
+    static double nanosPerCall(PersonService service) {
+        for (int i = 0; i < 5; ++i) {
+            run(service);
+        }
+        return run(service);
+    }
+
+    private static double run(PersonService service) {
+        long found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            found += service.findById(1L).isPresent() ? 1 : 0;
+        }
+        var nanosPerCall = (double) (System.nanoTime() - start) / ITERATIONS;
+        assertEquals(ITERATIONS, found);
+        return Math.round(nanosPerCall * 10) / 10.0;
+    }
+
+    /**
+     * @return the time in milliseconds taken to refresh a context made of {@code config} and {@value #BEANS}
+     * services that match the finder pointcuts
+     */
+    static long startupMillis(Class<?> config) {
+        try (var ctx = new AnnotationConfigApplicationContext()) {
+            ctx.register(config);
+            for (int i = 0; i < BEANS; ++i) {
+                ctx.registerBean("personService" + i, FixedPersonService.class);
+            }
+            long start = System.nanoTime();
+            ctx.refresh();
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    /**
+     * A configuration without aspects, the services are registered by {@link #startupMillis(Class)}.
+     */
+    static class PlainConfig {
+    }
+
+    /**
+     * A service that does no work, so the measured time is the cost of the advice and of the way it is applied.
+     */
+    static class FixedPersonService extends PersonServiceImpl {
+        private final Optional<Person> person = Optional.of(new Person());
+
+        FixedPersonService() {
+            super(null);
+        }
+
+        @Override
+        public Optional<Person> findById(Long id) {
+            return person;
+        }
+    }
+}
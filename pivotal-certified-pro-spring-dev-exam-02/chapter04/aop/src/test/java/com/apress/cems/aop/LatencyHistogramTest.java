@@ -0,0 +1,79 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.aop;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsShouldBeContiguousOverTheWholeRange() {
+        assertEquals(0, LatencyHistogram.indexOf(0));
+        for (int i = 1; LatencyHistogram.highestValueIn(i - 1) < Long.MAX_VALUE; ++i) {
+            var lowest = LatencyHistogram.highestValueIn(i - 1) + 1;
+            assertAll(
+                    () -> assertEquals(lowest - 1, LatencyHistogram.highestValueIn(LatencyHistogram.indexOf(lowest - 1))),
+                    () -> assertTrue(LatencyHistogram.highestValueIn(LatencyHistogram.indexOf(lowest)) >= lowest)
+            );
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueIn(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void percentilesShouldBeWithinTheBucketPrecision() {
+        var histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; ++nanos) {
+            histogram.record(nanos * 1_000);
+        }
+        double maxError = 1.0 / LatencyHistogram.SUB_BUCKETS;
+        assertAll(
+                () -> assertEquals(100_000, histogram.getCount()),
+                () -> assertEquals(100_000_000, histogram.getMax()),
+                () -> assertEquals(50_000_000, histogram.valueAtPercentile(0.5), 50_000_000 * maxError),
+                () -> assertEquals(99_000_000, histogram.valueAtPercentile(0.99), 99_000_000 * maxError),
+                () -> assertEquals(100_000_000, histogram.valueAtPercentile(1.0))
+        );
+    }
+
+    @Test
+    void emptyHistogramShouldReportZero() {
+        var histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertAll(
+                () -> assertEquals(1, histogram.getCount()),
+                () -> assertEquals(0, histogram.valueAtPercentile(0.99)),
+                () -> assertEquals(0, new LatencyHistogram().valueAtPercentile(0.5))
+        );
+    }
+}
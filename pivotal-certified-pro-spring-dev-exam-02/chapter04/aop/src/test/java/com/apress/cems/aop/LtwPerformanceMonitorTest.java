@@ -0,0 +1,109 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.aop;
+
+import com.apress.cems.aop.AdviceBenchmark.FixedPersonService;
+import com.apress.cems.aop.config.LtwConfig;
+import com.apress.cems.aop.service.PersonService;
+import com.apress.cems.aop.service.PersonServiceImpl;
+import com.apress.cems.aop.test.TestDbConfig;
+import com.apress.cems.repos.impl.JdbcPersonRepo;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.Aspects;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs only in a JVM started with the AspectJ agent, see the {@code ltwTest} task. The {@code benchmark} tests also
+ * need {@code -DloadTest=true}.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Tag("ltw")
+@ActiveProfiles("ltw")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {LtwConfig.class, TestDbConfig.class})
+class LtwPerformanceMonitorTest {
+    private static final Logger logger = LoggerFactory.getLogger(LtwPerformanceMonitorTest.class);
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void shouldWeaveTheServicesInsteadOfProxyingThem() {
+        personService.findById(1L);
+        var serviceCalls = timer(PersonServiceImpl.class).count();
+        var repoCalls = timer(JdbcPersonRepo.class).count();
+
+        personService.findById(1L);
+
+        assertAll(
+                () -> assertTrue(Aspects.hasAspect(PerformanceMonitor.class)),
+                () -> assertFalse(AopUtils.isAopProxy(personService)),
+                () -> assertEquals(serviceCalls + 1, timer(PersonServiceImpl.class).count()),
+                () -> assertEquals(repoCalls + 1, timer(JdbcPersonRepo.class).count())
+        );
+    }
+
+    /**
+     * The woven counterpart of {@code PerformanceMonitorTest.benchmarkProxyOverhead}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void benchmarkWovenAdvice() {
+        var woven = AdviceBenchmark.nanosPerCall(new FixedPersonService());
+        logger.info("Calling findById took {} ns per call with the monitor woven into the class", woven);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void benchmarkStartupWithManyBeans() {
+        var woven = AdviceBenchmark.startupMillis(AdviceBenchmark.PlainConfig.class);
+        logger.info("Starting a context with {} woven services took {} ms", AdviceBenchmark.BEANS, woven);
+    }
+
+    private FunctionTimer timer(Class<?> type) {
+        return meterRegistry.get("cems.find").tags("type", type.getName(), "method", "findById").functionTimer();
+    }
+}
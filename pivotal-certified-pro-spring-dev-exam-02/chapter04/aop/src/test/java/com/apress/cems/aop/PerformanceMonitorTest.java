@@ -0,0 +1,176 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.aop;
+
+import com.apress.cems.aop.AdviceBenchmark.FixedPersonService;
+import com.apress.cems.aop.config.AopConfig;
+import com.apress.cems.aop.service.PersonService;
+import com.apress.cems.aop.service.PersonServiceImpl;
+import com.apress.cems.aop.test.TestDbConfig;
+import com.apress.cems.repos.impl.JdbcPersonRepo;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code benchmark} tests only log numbers that depend on the machine, they run when the build is started with
+ * {@code -DloadTest=true}.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {AopConfig.class, TestDbConfig.class})
+class PerformanceMonitorTest {
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceMonitorTest.class);
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void shouldTimeRepositoryAndServiceFinders() {
+        personService.findById(1L);
+        var serviceCalls = timer(PersonServiceImpl.class, "findById").count();
+        var repoCalls = timer(JdbcPersonRepo.class, "findById").count();
+
+        personService.findById(1L);
+        personService.findById(1L);
+
+        assertAll(
+                () -> assertEquals(serviceCalls + 2, timer(PersonServiceImpl.class, "findById").count()),
+                () -> assertEquals(repoCalls + 2, timer(JdbcPersonRepo.class, "findById").count()),
+                () -> assertTrue(timer(PersonServiceImpl.class, "findById").totalTime(TimeUnit.NANOSECONDS) > 0)
+        );
+    }
+
+    @Test
+    void shouldCountFailedFinders() {
+        personService.findById(1L);
+        var failures = meterRegistry.get("cems.find.failures").tags("type", PersonServiceImpl.class.getName(), "method", "findById").functionCounter();
+        var before = failures.count();
+
+        assertThrows(EmptyResultDataAccessException.class, () -> personService.findById(99L));
+        assertEquals(before + 1, failures.count());
+    }
+
+    @Test
+    void shouldExportPercentiles() {
+        personService.findByUsername("sherlock.holmes");
+        var max = meterRegistry.get("cems.find.max").tags("type", PersonServiceImpl.class.getName(), "method", "findByUsername").timeGauge();
+        var p99 = meterRegistry.get("cems.find.percentile").tags("type", PersonServiceImpl.class.getName(), "method", "findByUsername", "percentile", "0.99").timeGauge();
+        assertAll(
+                () -> assertTrue(max.value(TimeUnit.NANOSECONDS) > 0),
+                () -> assertTrue(p99.value(TimeUnit.NANOSECONDS) > 0),
+                () -> assertTrue(p99.value(TimeUnit.NANOSECONDS) <= max.value(TimeUnit.NANOSECONDS))
+        );
+    }
+
+    @Test
+    void shouldTimeCallsThroughAnAspectJProxy() {
+        var registry = new SimpleMeterRegistry();
+        PersonService monitoredProxy = monitoredProxy(new FixedPersonService(), registry);
+
+        monitoredProxy.findById(1L);
+        monitoredProxy.findById(1L);
+
+        assertEquals(2, registry.get("cems.find").tags("method", "findById").functionTimer().count());
+    }
+
+    /**
+     * Compares the cost of a call on the target, on a proxy without advice and on a proxy advised by the monitor.
+     * {@code LtwPerformanceMonitorTest} logs the cost of the same call with the advice woven into the class.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void benchmarkProxyOverhead() {
+        var target = new FixedPersonService();
+        PersonService plainProxy = (PersonService) new ProxyFactory(target).getProxy();
+        PersonService monitoredProxy = monitoredProxy(target, new SimpleMeterRegistry());
+
+        var direct = AdviceBenchmark.nanosPerCall(target);
+        var proxied = AdviceBenchmark.nanosPerCall(plainProxy);
+        var monitored = AdviceBenchmark.nanosPerCall(monitoredProxy);
+        logger.info("Calling findById took {} ns per call on the target, {} ns through a plain proxy, {} ns through the monitored proxy",
+                direct, proxied, monitored);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void benchmarkStartupWithManyBeans() {
+        var plain = AdviceBenchmark.startupMillis(AdviceBenchmark.PlainConfig.class);
+        var proxied = AdviceBenchmark.startupMillis(MonitoredConfig.class);
+        logger.info("Starting a context with {} services took {} ms without aspects, {} ms creating the monitored proxies",
+                AdviceBenchmark.BEANS, plain, proxied);
+    }
+
+    private static PersonService monitoredProxy(PersonService target, MeterRegistry registry) {
+        var factory = new AspectJProxyFactory(target);
+        factory.addAspect(new PerformanceMonitor(registry));
+        return factory.getProxy();
+    }
+
+    private FunctionTimer timer(Class<?> type, String method) {
+        return meterRegistry.get("cems.find").tags("type", type.getName(), "method", method).functionTimer();
+    }
+
+    /**
+     * Not annotated with {@code @Configuration}, so that the component scan of {@link AopConfig} does not find it.
+     */
+    @EnableAspectJAutoProxy
+    static class MonitoredConfig {
+        @Bean
+        PerformanceMonitor performanceMonitor() {
+            return new PerformanceMonitor(new SimpleMeterRegistry());
+        }
+
+        @Bean
+        StorageMonitor storageMonitor() {
+            return new StorageMonitor();
+        }
+    }
+}
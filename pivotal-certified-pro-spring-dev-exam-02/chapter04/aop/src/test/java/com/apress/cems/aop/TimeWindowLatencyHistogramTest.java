@@ -0,0 +1,80 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.aop;
+
+import io.micrometer.core.instrument.MockClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+class TimeWindowLatencyHistogramTest {
+    private final MockClock clock = new MockClock();
+    private final TimeWindowLatencyHistogram histogram = new TimeWindowLatencyHistogram(clock, Duration.ofMinutes(3), 3);
+
+    @Test
+    void slowCallShouldExpireAfterTheWindow() {
+        histogram.record(5_000_000_000L);
+        histogram.record(1_000_000L);
+        assertEquals(5_000_000_000L, histogram.getMax());
+
+        clock.add(Duration.ofMinutes(2));
+        histogram.record(2_000_000L);
+        assertAll(
+                () -> assertEquals(5_000_000_000L, histogram.getMax()),
+                () -> assertEquals(3, histogram.getCount())
+        );
+
+        clock.add(Duration.ofMinutes(1));
+        assertAll(
+                () -> assertEquals(2_000_000L, histogram.getMax()),
+                () -> assertEquals(1, histogram.getCount()),
+                () -> assertEquals(2_000_000L, histogram.valueAtPercentile(0.99))
+        );
+    }
+
+    @Test
+    void idleWindowShouldReportZero() {
+        histogram.record(5_000_000L);
+
+        clock.add(Duration.ofHours(1));
+        assertAll(
+                () -> assertEquals(0, histogram.getCount()),
+                () -> assertEquals(0, histogram.getMax()),
+                () -> assertEquals(0, histogram.valueAtPercentile(0.5))
+        );
+
+        histogram.record(7_000_000L);
+        assertEquals(7_000_000L, histogram.getMax());
+    }
+}
@@ -54,6 +54,12 @@ import java.util.Properties;
 @EnableTransactionManagement
 public class ServiceConfig {
 
+    /**
+     * Lazy associations and collections are initialized for up to this many owners in a single query,
+     * instead of one query per owner.
+     */
+    public static final int BATCH_FETCH_SIZE = 64;
+
     @Autowired
     DataSource dataSource;
 
@@ -69,6 +75,7 @@ public class ServiceConfig {
         JpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         factoryBean.setJpaVendorAdapter(vendorAdapter);
         factoryBean.setJpaProperties(hibernateProperties);
+        factoryBean.getJpaPropertyMap().putIfAbsent("hibernate.default_batch_fetch_size", BATCH_FETCH_SIZE);
         return factoryBean;
     }
 
@@ -2,14 +2,63 @@ package com.apress.cems.dj.repos;
 
 import com.apress.cems.dao.CriminalCase;
 import com.apress.cems.dao.Detective;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author Iuliana Cosmina
  * @since 1.0
  */
 public interface CriminalCaseRepo extends JpaRepository<CriminalCase, Long> {
+
+    @EntityGraph(CriminalCase.WITH_LEAD_INVESTIGATOR)
+    @Override
+    List<CriminalCase> findAll();
+
+    @EntityGraph(CriminalCase.WITH_LEAD_INVESTIGATOR)
     List<CriminalCase> findByLeadInvestigator(Detective detective);
+
+    @Query(value = "select c.id from CriminalCase c", countQuery = "select count(c) from CriminalCase c")
+    Page<Long> findPageOfIds(Pageable pageable);
+
+    @EntityGraph(CriminalCase.FULL_CASE_TREE)
+    @Query("select distinct c from CriminalCase c where c.id in :ids")
+    List<CriminalCase> findAllWithFullCaseTreeByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns a page of cases with their lead investigator, evidence and custody history already loaded. Applying
+     * the page to a query that joins collections would make Hibernate page in memory, so the page of identifiers
+     * is selected first and the cases are then fetched in one query. The detectives that made the track entries
+     * are not part of that query; they are loaded eagerly right after it, {@code hibernate.default_batch_fetch_size}
+     * detectives per statement when the persistence unit sets it, as {@code ServiceConfig} does. The assigned
+     * detectives are not loaded.
+     * <p>
+     * A case deleted between the two queries is left out of the page, which then holds fewer cases than the
+     * page size.
+     *
+     * @param pageable the page to return, its sort is applied to the case properties
+     * @return the page of fully loaded cases, in the requested order
+     */
+    default Page<CriminalCase> findAllWithFullCaseTree(Pageable pageable) {
+        Page<Long> ids = findPageOfIds(pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+        Map<Long, CriminalCase> cases = findAllWithFullCaseTreeByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(CriminalCase::getId, Function.identity()));
+        List<CriminalCase> content = ids.stream().map(cases::get).filter(Objects::nonNull).collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
 }
@@ -44,4 +44,16 @@ public interface DetectiveRepo extends JpaRepository<Detective, Long> {
     @EntityGraph(attributePaths = {"criminalCases"})
     @Query("select d from Detective d where d.id=:id" )
     Optional<Detective> findByIdWithCriminalCases(@Param("id") Long id);
+
+    /**
+     * The resolved and in progress statuses must match the ones in {@link com.apress.cems.dj.services.wrappers.DetectiveWrapper}.
+     */
+    @Query("select d.id as id, p.firstName as firstName, p.lastName as lastName, d.badgeNumber as badgeNumber, " +
+            "d.rank as rank, d.armed as armed, d.status as status, " +
+            "sum(case when c.status = com.apress.cems.util.CaseStatus.CLOSED then 1 else 0 end) as casesResolved, " +
+            "sum(case when c.status in (com.apress.cems.util.CaseStatus.UNDER_INVESTIGATION, " +
+            "com.apress.cems.util.CaseStatus.IN_COURT, com.apress.cems.util.CaseStatus.COLD) then 1 else 0 end) as casesInProgress " +
+            "from Detective d join d.person p left join d.criminalCases c where d.id=:id " +
+            "group by d.id, p.firstName, p.lastName, d.badgeNumber, d.rank, d.armed, d.status")
+    Optional<DetectiveSummary> findSummaryById(@Param("id") Long id);
 }
@@ -30,6 +30,7 @@ package com.apress.cems.dj.repos;
 import com.apress.cems.dao.CriminalCase;
 import com.apress.cems.dao.Evidence;
 import com.apress.cems.dao.Storage;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -43,5 +44,6 @@ public interface EvidenceRepo extends JpaRepository<Evidence,Long> {
     
     List<Evidence> findAllByStorage(Storage storage);
 
+    @EntityGraph(attributePaths = {"storage", "trackEntries"})
     List<Evidence> findAllByCriminalCase(CriminalCase criminalCase);
 }
@@ -28,12 +28,13 @@ SOFTWARE.
 package com.apress.cems.dj.repos;
 
 import com.apress.cems.dao.Person;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -45,24 +46,72 @@ public interface PersonRepo extends JpaRepository<Person, Long> {
     @Query("select p from Person p where p.username=:un")
     Optional<Person> findByUsername(@Param("un")String username);
 
-    @Query("select p from Person p where p.username like %?1%")
-    List<Person> findByUsernameLike(String username);
-
     @Query("select p from Person p where p.firstName=:fn and p.lastName=:ln")
     Optional<Person> findByCompleteName(@Param("fn")String fn, @Param("ln")String lastName);
 
-    @Query("select p from Person p where p.firstName=:fn")
-    List<Person> findByFirstName(@Param("fn")String firstName);
-
-    @Query("select p from Person p where p.firstName like %?1%")
-    List<Person> findByFirstNameLike(String firstName);
-
-    @Query("select p from Person p where p.lastName=:ln")
-    List<Person> findByLastName( @Param("ln")String lastName);
-
-    @Query("select p from Person p where p.lastName like %?1%")
-    List<Person> findByLastNameLike(String lastName);
-
-    @Query("select p from Person p where p.hiringDate=:hd")
-    List<Person> findByHiringDate(@Param("hd")LocalDateTime date);
+    /*
+     * The search finders below return one page at a time, positioned after the last person of the previous page (keyset
+     * pagination) instead of skipping rows with an offset, so every page costs the same. Matching by prefix, unlike a
+     * leading wildcard, and ordering by the searched column and ID lets the database use the (column, ID) indexes
+     * declared on Person. Pass the pattern built by startingWith(prefix); for the first page pass the prefix
+     * itself as the after value and Long.MIN_VALUE as the after id.
+     */
+
+    @Query("select p from Person p where p.username like :prefix escape '!' " +
+            "and (p.username > :afterValue or (p.username = :afterValue and p.id > :afterId)) order by p.username, p.id")
+    Slice<Person> findByUsernameStartingWith(@Param("prefix") String prefix, @Param("afterValue") String afterValue,
+                                             @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select p from Person p where p.firstName=:fn and p.id > :afterId order by p.id")
+    Slice<Person> findByFirstName(@Param("fn") String firstName, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select p from Person p where p.firstName like :prefix escape '!' " +
+            "and (p.firstName > :afterValue or (p.firstName = :afterValue and p.id > :afterId)) order by p.firstName, p.id")
+    Slice<Person> findByFirstNameStartingWith(@Param("prefix") String prefix, @Param("afterValue") String afterValue,
+                                              @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select p from Person p where p.lastName=:ln and p.id > :afterId order by p.id")
+    Slice<Person> findByLastName(@Param("ln") String lastName, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select p from Person p where p.lastName like :prefix escape '!' " +
+            "and (p.lastName > :afterValue or (p.lastName = :afterValue and p.id > :afterId)) order by p.lastName, p.id")
+    Slice<Person> findByLastNameStartingWith(@Param("prefix") String prefix, @Param("afterValue") String afterValue,
+                                             @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select p from Person p where p.hiringDate=:hd and p.id > :afterId order by p.id")
+    Slice<Person> findByHiringDate(@Param("hd") LocalDateTime date, @Param("afterId") Long afterId, Pageable pageable);
+
+    /*
+     * The contains finders below back the searches that opt in with CriteriaDto.containsMatch. The leading wildcard
+     * keeps the database from using an index, so they are paged by ID only. Pass the pattern built by containing(value).
+     */
+
+    @Query("select p from Person p where p.username like :pattern escape '!' and p.id > :afterId order by p.id")
+    Slice<Person> findByUsernameContaining(@Param("pattern") String pattern, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select p from Person p where p.firstName like :pattern escape '!' and p.id > :afterId order by p.id")
+    Slice<Person> findByFirstNameContaining(@Param("pattern") String pattern, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select p from Person p where p.lastName like :pattern escape '!' and p.id > :afterId order by p.id")
+    Slice<Person> findByLastNameContaining(@Param("pattern") String pattern, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * @param prefix the text the searched values must start with
+     * @return the {@code like} pattern matching the prefix, with its wildcards escaped with {@code '!'}
+     */
+    static String startingWith(String prefix) {
+        return escape(prefix) + "%";
+    }
+
+    /**
+     * @param value the text the searched values must contain
+     * @return the {@code like} pattern matching the value anywhere, with its wildcards escaped with {@code '!'}
+     */
+    static String containing(String value) {
+        return "%" + escape(value) + "%";
+    }
+
+    private static String escape(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
 }
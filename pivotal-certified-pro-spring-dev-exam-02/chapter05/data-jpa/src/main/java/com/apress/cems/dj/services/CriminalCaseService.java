@@ -30,6 +30,8 @@ package com.apress.cems.dj.services;
 import com.apress.cems.dao.CriminalCase;
 import com.apress.cems.dao.Detective;
 import com.apress.cems.dj.services.wrappers.DetectiveWrapper;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -40,6 +42,8 @@ import java.util.List;
 public interface CriminalCaseService {
     List<CriminalCase> findAll();
 
+    Page<CriminalCase> findAllWithFullCaseTree(Pageable pageable);
+
     List<CriminalCase> findAllByLeadInvestigator(Detective detective);
 
     CriminalCase save(CriminalCase criminalCase);
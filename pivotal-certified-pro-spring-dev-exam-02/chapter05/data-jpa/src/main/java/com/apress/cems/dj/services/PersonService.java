@@ -30,6 +30,7 @@ package com.apress.cems.dj.services;
 import com.apress.cems.dao.Person;
 import com.apress.cems.dj.problem.InvalidCriteriaException;
 import com.apress.cems.dto.CriteriaDto;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -57,7 +58,19 @@ public interface PersonService {
 
     String getPersonAsHtml(String username);
 
+    /**
+     * @return the first page of persons matching the criteria, as {@link #searchByCriteriaDto(CriteriaDto)} returns it,
+     * at most {@code criteria.pageSize} persons. Use {@link #searchByCriteriaDto(CriteriaDto)} to retrieve the next pages.
+     */
     List<Person> getByCriteriaDto(CriteriaDto criteria) throws InvalidCriteriaException;
 
+    /**
+     * Returns the page of persons matching the criteria that follows the position given by {@code criteria.afterValue}
+     * and {@code criteria.afterId}. A non-exact match means the field starts with the given value, or contains it when
+     * {@code criteria.containsMatch} is set; contains searches cannot use an index and are ordered by id.
+     * Use {@link CriteriaDto#next(Person)} with the last person of the page to retrieve the next one.
+     */
+    Slice<Person> searchByCriteriaDto(CriteriaDto criteria) throws InvalidCriteriaException;
+
     //Person updatePassword(Person person, String password)throws MailSendingException;
 }
@@ -31,6 +31,8 @@ import com.apress.cems.dao.CriminalCase;
 import com.apress.cems.dao.Detective;
 import com.apress.cems.dj.repos.CriminalCaseRepo;
 import com.apress.cems.dj.services.CriminalCaseService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -55,6 +57,12 @@ public class CriminalCaseServiceImpl implements CriminalCaseService {
         return criminalCaseRepo.findAll();
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Page<CriminalCase> findAllWithFullCaseTree(Pageable pageable) {
+        return criminalCaseRepo.findAllWithFullCaseTree(pageable);
+    }
+
     @Override
     public List<CriminalCase> findAllByLeadInvestigator(Detective detective) {
         return criminalCaseRepo.findByLeadInvestigator(detective);
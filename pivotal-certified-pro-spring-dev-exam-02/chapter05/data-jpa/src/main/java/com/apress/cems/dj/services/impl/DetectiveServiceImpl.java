@@ -29,6 +29,7 @@ package com.apress.cems.dj.services.impl;
 
 import com.apress.cems.dao.Detective;
 import com.apress.cems.dj.repos.DetectiveRepo;
+import com.apress.cems.dj.repos.DetectiveSummary;
 import com.apress.cems.dj.services.DetectiveService;
 import com.apress.cems.dj.services.wrappers.DetectiveWrapper;
 import org.slf4j.Logger;
@@ -70,8 +71,8 @@ public class DetectiveServiceImpl implements DetectiveService {
         }
         return new DetectiveWrapper();
 */
-        Optional<Detective> detectiveOpt = detectiveRepo.findByIdWithCriminalCases(id);
-        return detectiveOpt.map(DetectiveWrapper::new).orElseGet(DetectiveWrapper::new);
+        Optional<DetectiveSummary> summaryOpt = detectiveRepo.findSummaryById(id);
+        return summaryOpt.map(DetectiveWrapper::new).orElseGet(DetectiveWrapper::new);
 
     }
 
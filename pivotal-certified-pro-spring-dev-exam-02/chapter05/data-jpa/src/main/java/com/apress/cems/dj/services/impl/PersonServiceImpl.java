@@ -34,14 +34,16 @@ import com.apress.cems.dj.services.PersonService;
 import com.apress.cems.dto.CriteriaDto;
 import com.apress.cems.dto.FieldGroup;
 import com.apress.cems.util.DateProcessor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -114,41 +116,57 @@ public class PersonServiceImpl implements PersonService {
         personRepo.delete(person);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<Person> getByCriteriaDto(CriteriaDto criteria) throws InvalidCriteriaException {
-        List<Person> persons = new ArrayList<>();
+        return searchByCriteriaDto(criteria).getContent();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<Person> searchByCriteriaDto(CriteriaDto criteria) throws InvalidCriteriaException {
         FieldGroup fg = FieldGroup.getField(criteria.getFieldName());
+        String value = criteria.getFieldValue();
+        boolean exactMatch = Boolean.TRUE.equals(criteria.getExactMatch());
+        boolean containsMatch = !exactMatch && Boolean.TRUE.equals(criteria.getContainsMatch());
+        Long afterId = criteria.getAfterId() == null ? Long.MIN_VALUE : criteria.getAfterId();
+        String afterValue = criteria.getAfterValue() == null ? value : criteria.getAfterValue();
+        Pageable page = PageRequest.of(0, criteria.getPageSize() == null ? CriteriaDto.DEFAULT_PAGE_SIZE : criteria.getPageSize());
 
         switch (fg) {
             case FIRSTNAME:
-                persons = criteria.getExactMatch() ? personRepo.findByFirstName(criteria.getFieldValue())
-                        : personRepo.findByFirstNameLike(criteria.getFieldValue());
-                break;
+                if (containsMatch) {
+                    return personRepo.findByFirstNameContaining(PersonRepo.containing(value), afterId, page);
+                }
+                return exactMatch ? personRepo.findByFirstName(value, afterId, page)
+                        : personRepo.findByFirstNameStartingWith(PersonRepo.startingWith(value), afterValue, afterId, page);
             case LASTNAME:
-                persons = criteria.getExactMatch() ? personRepo.findByLastName(criteria.getFieldValue())
-                        : personRepo.findByLastNameLike(criteria.getFieldValue());
-                break;
+                if (containsMatch) {
+                    return personRepo.findByLastNameContaining(PersonRepo.containing(value), afterId, page);
+                }
+                return exactMatch ? personRepo.findByLastName(value, afterId, page)
+                        : personRepo.findByLastNameStartingWith(PersonRepo.startingWith(value), afterValue, afterId, page);
             case USERNAME:
-                if(criteria.getExactMatch()) {
-                    Optional<Person> persOpt = personRepo.findByUsername(criteria.getFieldValue());
-                    if(persOpt.isPresent()) {
-                        persons.add(persOpt.get());
-                    }
-                } else {
-                    persons = personRepo.findByUsernameLike(criteria.getFieldValue());
+                if (exactMatch) {
+                    List<Person> persons = personRepo.findByUsername(value)
+                            .filter(p -> p.getId() > afterId).map(List::of).orElse(List.of());
+                    return new SliceImpl<>(persons, page, false);
+                }
+                if (containsMatch) {
+                    return personRepo.findByUsernameContaining(PersonRepo.containing(value), afterId, page);
                 }
-                break;
+                return personRepo.findByUsernameStartingWith(PersonRepo.startingWith(value), afterValue, afterId, page);
             case HIREDIN:
                 LocalDateTime date;
                 try {
-                    date = DateProcessor.toDate(criteria.getFieldValue());
+                    date = DateProcessor.toDate(value);
                 } catch (DateTimeParseException e) {
                     throw new InvalidCriteriaException("fieldValue", "typeMismatch.hiringDate");
                 }
-                persons = personRepo.findByHiringDate(date);
-                break;
+                return personRepo.findByHiringDate(date, afterId, page);
+            default:
+                return new SliceImpl<>(List.of(), page, false);
         }
-        return persons;
     }
 }
 
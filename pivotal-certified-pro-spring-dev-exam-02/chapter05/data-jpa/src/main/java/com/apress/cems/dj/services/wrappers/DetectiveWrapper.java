@@ -28,6 +28,7 @@ SOFTWARE.
 package com.apress.cems.dj.services.wrappers;
 
 import com.apress.cems.dao.Detective;
+import com.apress.cems.dj.repos.DetectiveSummary;
 import com.apress.cems.util.CaseStatus;
 import com.apress.cems.util.EmploymentStatus;
 import com.apress.cems.util.Rank;
@@ -41,6 +42,8 @@ import java.util.Set;
  */
 public class DetectiveWrapper {
 
+    static final Set<CaseStatus> IN_PROGRESS = Set.of(CaseStatus.UNDER_INVESTIGATION, CaseStatus.IN_COURT, CaseStatus.COLD);
+
     private Long id;
     private String name;
     private String badgeNumber;
@@ -63,7 +66,22 @@ public class DetectiveWrapper {
         this.armed = detective.getArmed();
         this.status = detective.getStatus();
         this.casesResolved = detective.getCriminalCases().stream().filter(cc -> cc.getStatus() == CaseStatus.CLOSED).count();
-        this.casesInProgress = detective.getCriminalCases().stream().filter(cc -> Set.of(CaseStatus.UNDER_INVESTIGATION, CaseStatus.IN_COURT, CaseStatus.COLD).contains(cc.getStatus())).count();
+        this.casesInProgress = detective.getCriminalCases().stream().filter(cc -> IN_PROGRESS.contains(cc.getStatus())).count();
+        this.empty = false;
+    }
+
+    /**
+     * Builds the wrapper from the case counts computed by the database, no case is loaded.
+     */
+    public DetectiveWrapper(DetectiveSummary summary) {
+        this.id = summary.getId();
+        this.name = summary.getFirstName().concat(summary.getLastName());
+        this.badgeNumber = summary.getBadgeNumber();
+        this.rank = summary.getRank();
+        this.armed = summary.getArmed();
+        this.status = summary.getStatus();
+        this.casesResolved = summary.getCasesResolved();
+        this.casesInProgress = summary.getCasesInProgress();
         this.empty = false;
     }
 
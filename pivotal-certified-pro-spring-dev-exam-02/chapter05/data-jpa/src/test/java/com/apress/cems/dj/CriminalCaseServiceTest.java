@@ -0,0 +1,127 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.dj;
+
+import com.apress.cems.dao.CriminalCase;
+import com.apress.cems.dj.config.DataSourceConfig;
+import com.apress.cems.dj.repos.CriminalCaseRepo;
+import com.apress.cems.dj.services.CriminalCaseService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {DataSourceConfig.class, ServiceConfig.class})
+class CriminalCaseServiceTest {
+    private Logger logger = LoggerFactory.getLogger(CriminalCaseServiceTest.class);
+
+    @Autowired
+    CriminalCaseService criminalCaseService;
+
+    @Autowired
+    CriminalCaseRepo criminalCaseRepo;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindAllWithFullCaseTree() {
+        var page = criminalCaseService.findAllWithFullCaseTree(PageRequest.of(0, 4, Sort.by("id")));
+        assertEquals(4, page.getNumberOfElements());
+        assertEquals(criminalCaseRepo.count(), page.getTotalElements());
+        statistics.clear();
+
+        // outside of the transaction, a lazy association that was not fetched would throw LazyInitializationException
+        long entries = page.stream().flatMap(cc -> cc.getEvidenceSet().stream())
+                .flatMap(evidence -> evidence.getTrackEntries().stream())
+                .peek(te -> assertNotNull(te.getDetective().getPerson().getUsername()))
+                .count();
+        assertTrue(entries > 0);
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        List<Long> ids = page.stream().map(CriminalCase::getId).collect(Collectors.toList());
+        assertEquals(ids.stream().sorted().collect(Collectors.toList()), ids);
+    }
+
+    @Test
+    void testStatementCountDoesNotDependOnPageSize() {
+        criminalCaseService.findAllWithFullCaseTree(PageRequest.of(0, 1));
+        // the page of ids, the count of the cases, then the case trees of the page
+        assertEquals(3, statistics.getPrepareStatementCount());
+        statistics.clear();
+
+        var page = criminalCaseService.findAllWithFullCaseTree(PageRequest.of(0, 100));
+        long allInOnePage = statistics.getPrepareStatementCount();
+        assertTrue(page.getNumberOfElements() > 1);
+        // every case fits in the first page, so the count is known without a query
+        assertEquals(2, allInOnePage, "the page of ids, then the case trees of the page");
+        statistics.clear();
+
+        var txTemplate = new TransactionTemplate(transactionManager);
+        txTemplate.setReadOnly(true);
+        txTemplate.executeWithoutResult(status -> criminalCaseRepo.findAll(PageRequest.of(0, 100)).forEach(cc ->
+                cc.getEvidenceSet().forEach(evidence -> evidence.getTrackEntries().size())));
+        long lazy = statistics.getPrepareStatementCount();
+
+        logger.info("Loading {} case trees took {} statements with findAllWithFullCaseTree, {} with lazy loading",
+                page.getNumberOfElements(), allInOnePage, lazy);
+        assertTrue(allInOnePage <= lazy);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.dj;
+
+import com.apress.cems.dao.CriminalCase;
+import com.apress.cems.dao.Detective;
+import com.apress.cems.dj.config.DataSourceConfig;
+import com.apress.cems.dj.repos.DetectiveRepo;
+import com.apress.cems.dj.services.DetectiveService;
+import com.apress.cems.dj.services.wrappers.DetectiveWrapper;
+import com.apress.cems.util.CaseStatus;
+import com.apress.cems.util.CaseType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the case counts of a detective computed in the database match the ones computed by loading all its cases.
+ * {@code testProjectionVersusLoadingCases} compares the speed of both over {@value #BENCHMARK_CASES} cases; it only logs
+ * the timings and only runs with {@code -DloadTest=true}.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {DataSourceConfig.class, ServiceConfig.class})
+class DetectiveServiceTest {
+    private Logger logger = LoggerFactory.getLogger(DetectiveServiceTest.class);
+
+    static final int CASES = 40;
+    static final int BENCHMARK_CASES = 2_000;
+    static final int RUNS = 20;
+    static final CaseStatus[] STATUSES = {CaseStatus.CLOSED, CaseStatus.UNDER_INVESTIGATION, CaseStatus.IN_COURT, CaseStatus.SUBMITTED};
+
+    @Autowired
+    DetectiveService detectiveService;
+
+    @Autowired
+    DetectiveRepo detectiveRepo;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    TransactionTemplate txTemplate;
+
+    Long detectiveId;
+
+    @BeforeEach
+    void setUp() {
+        txTemplate = new TransactionTemplate(transactionManager);
+        detectiveId = detectiveRepo.findAll().get(0).getId();
+    }
+
+    private void createCases(int cases) {
+        txTemplate.executeWithoutResult(status -> {
+            var detective = entityManager.find(Detective.class, detectiveId);
+            for (int i = 0; i < cases; ++i) {
+                var cc = new CriminalCase();
+                cc.setNumber("BENCH-" + i);
+                cc.setType(CaseType.MISDEMEANOR);
+                cc.setStatus(STATUSES[i % STATUSES.length]);
+                cc.setShortDescription("Benchmark case " + i);
+                cc.setLeadInvestigator(detective);
+                entityManager.persist(cc);
+                detective.getCriminalCases().add(cc);
+            }
+        });
+    }
+
+    @Test
+    void testFindById() {
+        createCases(CASES);
+        var wrapper = detectiveService.findById(detectiveId);
+        assertFalse(wrapper.isEmpty());
+        assertEquals(CASES / 4, wrapper.getCasesResolved());
+        assertEquals(CASES / 2, wrapper.getCasesInProgress());
+
+        assertTrue(detectiveService.findById(-1L).isEmpty());
+    }
+
+    @Test
+    void testProjectionMatchesLoadingCases() {
+        createCases(CASES);
+        var expected = loadingCases().get();
+        var actual = detectiveService.findById(detectiveId);
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getCasesResolved(), actual.getCasesResolved());
+        assertEquals(expected.getCasesInProgress(), actual.getCasesInProgress());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void testProjectionVersusLoadingCases() {
+        createCases(BENCHMARK_CASES);
+        long loading = time(loadingCases());
+        long aggregated = time(() -> detectiveService.findById(detectiveId));
+        logger.info("Counting {} cases of a detective, average of {} runs: loading the cases took {} us, the projection took {} us",
+                BENCHMARK_CASES, RUNS, loading, aggregated);
+    }
+
+    private Supplier<DetectiveWrapper> loadingCases() {
+        return () -> txTemplate.execute(status ->
+                detectiveRepo.findByIdWithCriminalCases(detectiveId).map(DetectiveWrapper::new).orElseThrow());
+    }
+
+    private long time(Supplier<DetectiveWrapper> findById) {
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; ++i) {
+            findById.get();
+        }
+        return (System.nanoTime() - start) / RUNS / 1_000;
+    }
+
+    @AfterEach
+    void cleanUp() {
+        txTemplate.executeWithoutResult(status -> {
+            entityManager.find(Detective.class, detectiveId).getCriminalCases().clear();
+            entityManager.flush();
+            entityManager.createQuery("delete from CriminalCase c where c.number like 'BENCH-%'").executeUpdate();
+        });
+    }
+}
@@ -27,22 +27,27 @@ SOFTWARE.
 */
 package com.apress.cems.dj;
 
+import com.apress.cems.dao.Person;
 import com.apress.cems.dj.config.DataSourceConfig;
 import com.apress.cems.dj.services.DetectiveService;
 import com.apress.cems.dj.services.PersonService;
 
 import com.apress.cems.dj.services.StorageService;
+import com.apress.cems.dto.CriteriaDto;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * @author Iuliana Cosmina
@@ -82,5 +87,126 @@ import static org.junit.jupiter.api.Assertions.fail;
         assertNotNull(personService.findAll());
     }
 
+    @Test
+    void testSearchByPrefixInPages() {
+        var saved = createPersons("Alex", 25);
+        try {
+            var criteria = new CriteriaDto();
+            criteria.setFieldName("firstName");
+            criteria.setFieldValue("Ale");
+            criteria.setExactMatch(false);
+            criteria.setPageSize(10);
+
+            List<Long> found = new ArrayList<>();
+            Slice<Person> slice;
+            int pages = 0;
+            do {
+                slice = personService.searchByCriteriaDto(criteria);
+                slice.forEach(p -> assertTrue(p.getFirstName().startsWith("Ale")));
+                slice.forEach(p -> found.add(p.getId()));
+                if (slice.hasNext()) {
+                    criteria = criteria.next(slice.getContent().get(slice.getNumberOfElements() - 1));
+                }
+                ++pages;
+            } while (slice.hasNext());
+
+            assertEquals(3, pages);
+            assertEquals(saved.stream().map(Person::getId).sorted().collect(Collectors.toList()), found);
+        } finally {
+            saved.forEach(personService::delete);
+        }
+    }
+
+    @Test
+    void testSearchEscapesWildcards() {
+        var criteria = new CriteriaDto();
+        criteria.setFieldName("lastName");
+        criteria.setFieldValue("%");
+        criteria.setExactMatch(false);
+        assertFalse(personService.searchByCriteriaDto(criteria).hasContent());
+
+        criteria.setFieldValue("Hol");
+        assertEquals(1, personService.searchByCriteriaDto(criteria).getNumberOfElements());
+    }
+
+    @Test
+    void testGetByCriteriaReturnsTheFirstPage() {
+        var saved = createPersons("Alex", CriteriaDto.DEFAULT_PAGE_SIZE + 5);
+        try {
+            var criteria = new CriteriaDto();
+            criteria.setFieldName("username");
+            criteria.setFieldValue("alex.search.");
+            criteria.setExactMatch(false);
+            var persons = personService.getByCriteriaDto(criteria);
+            assertEquals(CriteriaDto.DEFAULT_PAGE_SIZE, persons.size());
+            persons.forEach(p -> assertTrue(p.getUsername().startsWith("alex.search.")));
+        } finally {
+            saved.forEach(personService::delete);
+        }
+    }
+
+    @Test
+    void testSearchContainingTheValueOnlyWhenAskedFor() {
+        var saved = createPersons("Alex", 25);
+        try {
+            var criteria = new CriteriaDto();
+            criteria.setFieldName("username");
+            criteria.setFieldValue(".search.");
+            criteria.setExactMatch(false);
+            criteria.setPageSize(10);
+            assertFalse(personService.searchByCriteriaDto(criteria).hasContent());
+
+            criteria.setContainsMatch(true);
+            List<Long> found = new ArrayList<>();
+            Slice<Person> slice;
+            do {
+                slice = personService.searchByCriteriaDto(criteria);
+                slice.forEach(p -> found.add(p.getId()));
+                if (slice.hasNext()) {
+                    criteria = criteria.next(slice.getContent().get(slice.getNumberOfElements() - 1));
+                }
+            } while (slice.hasNext());
+
+            assertEquals(saved.stream().map(Person::getId).sorted().collect(Collectors.toList()), found);
+        } finally {
+            saved.forEach(personService::delete);
+        }
+    }
+
+    @Test
+    void testSearchExactMatchInPages() {
+        var saved = createPersons("Sam", 5);
+        try {
+            var criteria = new CriteriaDto();
+            criteria.setFieldName("lastName");
+            criteria.setFieldValue("Search");
+            criteria.setExactMatch(true);
+            criteria.setPageSize(3);
+
+            var first = personService.searchByCriteriaDto(criteria);
+            assertEquals(3, first.getNumberOfElements());
+            assertTrue(first.hasNext());
+            var second = personService.searchByCriteriaDto(criteria.next(first.getContent().get(2)));
+            assertEquals(2, second.getNumberOfElements());
+            assertFalse(second.hasNext());
+        } finally {
+            saved.forEach(personService::delete);
+        }
+    }
+
+    private List<Person> createPersons(String firstName, int count) {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            var person = new Person();
+            person.setUsername(firstName.toLowerCase() + ".search." + i);
+            person.setFirstName(firstName + (char) ('a' + i % 26));
+            person.setLastName("Search");
+            person.setPassword("search" + i);
+            person.setHiringDate(LocalDateTime.now());
+            persons.add(personService.save(person));
+        }
+        return persons;
+    }
+
 
 }
@@ -75,6 +75,7 @@ public class DataSourceConfig {
         hibernateProp.put("hibernate.format_sql", true);
         hibernateProp.put("hibernate.use_sql_comments", true);
         hibernateProp.put("hibernate.show_sql", true);
+        hibernateProp.put("hibernate.generate_statistics", true);
         return hibernateProp;
     }
 
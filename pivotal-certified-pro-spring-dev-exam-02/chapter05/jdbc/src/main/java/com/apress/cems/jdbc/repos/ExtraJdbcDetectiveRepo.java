@@ -38,7 +38,8 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
 
 /**
  * @author Iuliana Cosmina
@@ -47,49 +48,94 @@ import java.util.Optional;
 @Repository
 public class ExtraJdbcDetectiveRepo extends JdbcDetectiveRepo {
 
+    /**
+     * Oracle does not accept more than 1000 expressions in an IN list.
+     */
+    static final int MAX_IN_PARAMS = 1000;
+
+    private static final String SELECT_WITH_PERSON = "select d.ID id," +
+            " p.ID pid, " +
+            " p.USERNAME un," +
+            " p.FIRSTNAME fn, " +
+            " p.LASTNAME ln, " +
+            " p.HIRINGDATE hd," +
+            " d.BADGE_NUMBER bno," +
+            " d.RANK rank," +
+            " d.ARMED armed," +
+            " d.STATUS status" +
+            " from DETECTIVE d, PERSON p where d.PERSON_ID=p.ID and d.ID in (";
+
     public ExtraJdbcDetectiveRepo(JdbcTemplate jdbcTemplate) {
         super(jdbcTemplate);
     }
 
     @Override
     public Optional<Detective> findByIdWithPersonDetails(Long id) {
-        String sql = "select d.ID id," +
-                " p.ID pid, " +
-                " p.USERNAME un," +
-                " p.FIRSTNAME fn, " +
-                " p.LASTNAME ln, " +
-                " p.HIRINGDATE hd," +
-                " d.BADGE_NUMBER bno," +
-                " d.RANK rank," +
-                " d.ARMED armed," +
-                " d.STATUS status" +
-                " from DETECTIVE d, PERSON p where d.PERSON_ID=p.ID and d.ID=" + id;
-        return Optional.of(jdbcTemplate.query(sql, new DetectiveExtractor()));
+        return findAllByIdsWithPersonDetails(List.of(id)).stream().findFirst();
+    }
+
+    /**
+     * Loads the detectives and their person details with one query per {@value #MAX_IN_PARAMS} ids.
+     * The ids are bound as parameters of an IN list that is padded to the next power of two by repeating the last id,
+     * so only a handful of distinct statements are ever sent and the driver and database statement caches get hits.
+     */
+    @Override
+    public Set<Detective> findAllByIdsWithPersonDetails(Collection<Long> ids) {
+        var distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Detective> detectives = new LinkedHashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += MAX_IN_PARAMS) {
+            var chunk = distinctIds.subList(from, Math.min(from + MAX_IN_PARAMS, distinctIds.size()));
+            var args = padded(chunk);
+            var sql = SELECT_WITH_PERSON + "?" + ",?".repeat(args.length - 1) + ")";
+            detectives.putAll(jdbcTemplate.query(sql, new DetectiveExtractor(), args));
+        }
+        return new LinkedHashSet<>(detectives.values());
     }
 
-    private class DetectiveExtractor implements ResultSetExtractor<Detective> {
+    private static Object[] padded(List<Long> ids) {
+        int size = Math.min(Integer.highestOneBit(ids.size() - 1) << 1, MAX_IN_PARAMS);
+        size = Math.max(size, ids.size());
+        var args = new Object[size];
+        for (int i = 0; i < size; ++i) {
+            args[i] = ids.get(Math.min(i, ids.size() - 1));
+        }
+        return args;
+    }
+
+    private static class DetectiveExtractor implements ResultSetExtractor<Map<Long, Detective>> {
         @Override
-        public Detective extractData(ResultSet rs) throws SQLException {
-            Detective detective = null;
+        public Map<Long, Detective> extractData(ResultSet rs) throws SQLException {
+            Map<Long, Detective> detectives = new LinkedHashMap<>();
+            // the extractor sees the whole result set, so the columns are looked up only once
+            int id = rs.findColumn("id");
+            int bno = rs.findColumn("bno");
+            int rank = rs.findColumn("rank");
+            int armed = rs.findColumn("armed");
+            int status = rs.findColumn("status");
+            int pid = rs.findColumn("pid");
+            int un = rs.findColumn("un");
+            int fn = rs.findColumn("fn");
+            int ln = rs.findColumn("ln");
+            int hd = rs.findColumn("hd");
             while (rs.next()) {
-                if (detective == null) {
-                    detective = new Detective();
-                    // set internal entity identifier (primary key)
-                    detective.setId(rs.getLong("id"));
-                    detective.setBadgeNumber(rs.getString("bno"));
-                    detective.setRank(Rank.valueOf(rs.getString("rank")));
-                    detective.setArmed(rs.getBoolean("armed"));
-                    detective.setStatus(EmploymentStatus.valueOf(rs.getString("status")));
-                }
+                var detective = new Detective();
+                // set internal entity identifier (primary key)
+                detective.setId(rs.getLong(id));
+                detective.setBadgeNumber(rs.getString(bno));
+                detective.setRank(Rank.valueOf(rs.getString(rank)));
+                detective.setArmed(rs.getBoolean(armed));
+                detective.setStatus(EmploymentStatus.valueOf(rs.getString(status)));
+
                 Person p = new Person();
-                p.setId(rs.getLong("pid"));
-                p.setUsername(rs.getString("un"));
-                p.setFirstName(rs.getString("fn"));
-                p.setLastName(rs.getString("ln"));
-                p.setHiringDate(rs.getTimestamp("hd").toLocalDateTime());
+                p.setId(rs.getLong(pid));
+                p.setUsername(rs.getString(un));
+                p.setFirstName(rs.getString(fn));
+                p.setLastName(rs.getString(ln));
+                p.setHiringDate(rs.getObject(hd, LocalDateTime.class));
                 detective.setPerson(p);
+                detectives.put(detective.getId(), detective);
             }
-            return detective;
+            return detectives;
         }
     }
 }
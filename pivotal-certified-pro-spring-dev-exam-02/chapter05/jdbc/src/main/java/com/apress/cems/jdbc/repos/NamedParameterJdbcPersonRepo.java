@@ -29,6 +29,8 @@ package com.apress.cems.jdbc.repos;
 
 import com.apress.cems.dao.Person;
 import com.apress.cems.repos.PersonRepo;
+import com.apress.cems.repos.impl.JdbcAbstractRepo;
+import com.apress.cems.repos.util.JdbcStreams;
 import com.apress.cems.repos.util.PersonRowMapper;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -36,6 +38,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * @author Iuliana Cosmina
@@ -101,6 +104,22 @@ public class NamedParameterJdbcPersonRepo implements PersonRepo {
         return new HashSet<>(jdbcNamedTemplate.query(sql, rowMapper));
     }
 
+    @Override
+    public Stream<Person> streamAll() {
+        return streamAll(JdbcAbstractRepo.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * @param fetchSize number of rows the driver fetches from the database in one round trip
+     */
+    public Stream<Person> streamAll(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be a positive number!");
+        }
+        String sql = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE from PERSON";
+        return JdbcStreams.queryForStream(jdbcNamedTemplate.getJdbcTemplate(), fetchSize, sql, rowMapper);
+    }
+
     @Override
     public long count() {
         String sql = "select count(*) from PERSON";
@@ -0,0 +1,161 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy
+of this software and associated documentation files (the "Software"),
+to work with the Software within the limits of freeware distribution and fair use.
+This includes the rights to use, copy, and modify the Software for personal use.
+Users are also allowed and encouraged to submit corrections and modifications
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for
+commercial use in any way, or for a user's educational materials such as books
+or blog articles without prior permission from the copyright holder.
+
+The above copyright notice and this permission notice need to be included
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.jdbc;
+
+import com.apress.cems.dao.Detective;
+import com.apress.cems.dao.Person;
+import com.apress.cems.jdbc.config.TestDbConfig;
+import com.apress.cems.repos.DetectiveRepo;
+import com.apress.cems.repos.PersonRepo;
+import com.apress.cems.repos.impl.JdbcAbstractRepo;
+import com.apress.cems.util.Rank;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that {@code saveAll} inserts every row in JDBC batches. {@code testBatchVersusOneByOne} compares it with
+ * inserting the rows one by one with {@code save}; it only logs the timings and only runs with {@code -DloadTest=true}.
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@SpringJUnitConfig(classes = {TestDbConfig.class, JdbcConfig.class})
+class JdbcBatchInsertTest {
+    private Logger logger = LoggerFactory.getLogger(JdbcBatchInsertTest.class);
+
+    static final int ROWS = 10_000;
+    static final long FIRST_ID = 1_000L;
+
+    @Autowired
+    @Qualifier("extraJdbcPersonRepo")
+    PersonRepo personRepo;
+
+    @Autowired
+    DetectiveRepo detectiveRepo;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testSaveAllPersons() {
+        var persons = buildPersons(FIRST_ID);
+        personRepo.saveAll(persons);
+        assertEquals(ROWS + 2, personRepo.count());
+        personRepo.findById(FIRST_ID).ifPresent(p -> assertEquals("john.doe.1000", p.getUsername()));
+    }
+
+    @Test
+    void testSaveAllDetectives() {
+        personRepo.saveAll(buildPersons(FIRST_ID).subList(0, 3));
+        List<Detective> detectives = new ArrayList<>();
+        for (long id = FIRST_ID; id < FIRST_ID + 3; ++id) {
+            var person = new Person();
+            person.setId(id);
+            var detective = new Detective();
+            detective.setId(id);
+            detective.setPerson(person);
+            detective.setBadgeNumber("NY" + id);
+            detective.setRank(Rank.TRAINEE);
+            detectives.add(detective);
+        }
+        detectiveRepo.saveAll(detectives);
+        assertEquals(5, jdbcTemplate.queryForObject("select count(*) from DETECTIVE", Long.class));
+    }
+
+    @Test
+    void testSaveAllDetectivesWithoutRankAndStatus() {
+        personRepo.saveAll(buildPersons(FIRST_ID).subList(0, 2));
+        List<Detective> detectives = new ArrayList<>();
+        for (long id = FIRST_ID; id < FIRST_ID + 2; ++id) {
+            var person = new Person();
+            person.setId(id);
+            var detective = new Detective();
+            detective.setId(id);
+            detective.setPerson(person);
+            detective.setBadgeNumber("NY" + id);
+            detective.setStatus(null);
+            detectives.add(detective);
+        }
+        detectiveRepo.saveAll(detectives);
+        assertNull(jdbcTemplate.queryForObject("select RANK from DETECTIVE where ID = ?", String.class, FIRST_ID));
+        assertNull(jdbcTemplate.queryForObject("select STATUS from DETECTIVE where ID = ?", String.class, FIRST_ID + 1));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void testBatchVersusOneByOne() {
+        var single = buildPersons(FIRST_ID);
+        var batch = buildPersons(FIRST_ID + ROWS);
+        var oneByOne = time(() -> single.forEach(personRepo::save));
+        var batched = time(() -> personRepo.saveAll(batch));
+        assertEquals(2L * ROWS + 2, personRepo.count());
+
+        logger.info("Inserting {} persons: one by one took {} ms, saveAll with batch size {} took {} ms",
+                ROWS, oneByOne, ((JdbcAbstractRepo<?>) personRepo).getBatchSize(), batched);
+    }
+
+    private long time(Runnable insert) {
+        long start = System.nanoTime();
+        insert.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private List<Person> buildPersons(long firstId) {
+        List<Person> persons = new ArrayList<>(ROWS);
+        for (long id = firstId; id < firstId + ROWS; ++id) {
+            var person = new Person();
+            person.setId(id);
+            person.setUsername("john.doe." + id);
+            person.setFirstName("John");
+            person.setLastName("Doe");
+            person.setPassword("jd" + id);
+            person.setHiringDate(LocalDateTime.now());
+            persons.add(person);
+        }
+        return persons;
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from DETECTIVE where ID >= ?", FIRST_ID);
+        jdbcTemplate.update("delete from PERSON where ID >= ?", FIRST_ID);
+    }
+}
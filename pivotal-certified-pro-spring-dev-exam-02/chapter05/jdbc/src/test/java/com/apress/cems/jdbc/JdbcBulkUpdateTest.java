@@ -0,0 +1,231 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.jdbc;
+
+import com.apress.cems.dao.CriminalCase;
+import com.apress.cems.dao.Detective;
+import com.apress.cems.dao.Person;
+import com.apress.cems.jdbc.config.TestDbConfig;
+import com.apress.cems.repos.CriminalCaseRepo;
+import com.apress.cems.repos.PersonRepo;
+import com.apress.cems.repos.UpdateResult;
+import com.apress.cems.repos.impl.JdbcCriminalCaseRepo;
+import com.apress.cems.repos.impl.JdbcPersonRepo;
+import com.apress.cems.util.CaseStatus;
+import com.apress.cems.util.CaseType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@SpringJUnitConfig(classes = {TestDbConfig.class, JdbcConfig.class})
+class JdbcBulkUpdateTest {
+
+    static final long FIRST_ID = 2_000L;
+    static final int ROWS = 10;
+
+    @Autowired
+    @Qualifier("extraJdbcPersonRepo")
+    PersonRepo personRepo;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    CriminalCaseRepo criminalCaseRepo;
+
+    @BeforeEach
+    void setUp() {
+        criminalCaseRepo = new JdbcCriminalCaseRepo(jdbcTemplate);
+        List<Person> persons = new ArrayList<>();
+        List<CriminalCase> cases = new ArrayList<>();
+        var detective = new Detective();
+        detective.setId(1L);
+        for (long id = FIRST_ID; id < FIRST_ID + ROWS; ++id) {
+            var person = new Person();
+            person.setId(id);
+            person.setUsername("jane.doe." + id);
+            person.setFirstName("Jane");
+            person.setLastName("Doe");
+            person.setPassword("jd" + id);
+            person.setHiringDate(LocalDateTime.of(2019, 1, 1, 0, 0));
+            persons.add(person);
+
+            var cc = new CriminalCase();
+            cc.setId(id);
+            cc.setNumber("CC" + id);
+            cc.setType(CaseType.MISDEMEANOR);
+            cc.setStatus(CaseStatus.SUBMITTED);
+            cc.setShortDescription("Case " + id);
+            cc.setLeadInvestigator(detective);
+            cases.add(cc);
+        }
+        personRepo.saveAll(persons);
+        criminalCaseRepo.saveAll(cases);
+    }
+
+    @Test
+    void testOnlyModifiedRowsAreWritten() {
+        var first = personRepo.findById(FIRST_ID).orElseThrow();
+        var second = personRepo.findById(FIRST_ID + 1).orElseThrow();
+        assertEquals(1, first.getVersion());
+        first.setFirstName("Janet");
+
+        var result = personRepo.updateAll(List.of(first, second));
+        assertEquals(List.of(FIRST_ID), result.getUpdated());
+        assertEquals(List.of(FIRST_ID + 1), result.getUnchanged());
+        assertFalse(result.hasConflicts());
+        assertEquals(2, first.getVersion());
+
+        var saved = personRepo.findById(FIRST_ID).orElseThrow();
+        assertEquals("Janet", saved.getFirstName());
+        assertEquals("Doe", saved.getLastName());
+        assertEquals(2, saved.getVersion());
+        assertEquals(1, personRepo.findById(FIRST_ID + 1).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testConflictsDoNotAbortTheBatch() {
+        var stale = personRepo.findById(FIRST_ID).orElseThrow();
+        var fresh = personRepo.findById(FIRST_ID + 1).orElseThrow();
+        var missing = personRepo.findById(FIRST_ID + 2).orElseThrow();
+        jdbcTemplate.update("update PERSON set LASTNAME='Smith', VERSION=VERSION+1 where ID=?", FIRST_ID);
+        personRepo.deleteById(FIRST_ID + 2);
+
+        stale.setFirstName("Janet");
+        fresh.setFirstName("Janet");
+        missing.setFirstName("Janet");
+        var result = personRepo.updateAll(List.of(stale, fresh, missing));
+
+        assertEquals(List.of(FIRST_ID + 1), result.getUpdated());
+        assertEquals(Map.of(FIRST_ID, UpdateResult.Conflict.STALE_VERSION, FIRST_ID + 2, UpdateResult.Conflict.NOT_FOUND),
+                result.getConflicts());
+        var concurrent = personRepo.findById(FIRST_ID).orElseThrow();
+        assertEquals("Jane", concurrent.getFirstName());
+        assertEquals("Smith", concurrent.getLastName());
+    }
+
+    @Test
+    void testOneByOneUpdatesReportStaleVersions() {
+        // without updatable columns, updateAll falls back to one update per entity
+        var oneByOne = new JdbcPersonRepo(jdbcTemplate) {
+            @Override
+            protected String[] updatableColumns() {
+                return null;
+            }
+        };
+        var stale = oneByOne.findById(FIRST_ID).orElseThrow();
+        var fresh = oneByOne.findById(FIRST_ID + 1).orElseThrow();
+        jdbcTemplate.update("update PERSON set LASTNAME='Smith', VERSION=VERSION+1 where ID=?", FIRST_ID);
+
+        stale.setFirstName("Janet");
+        fresh.setFirstName("Janet");
+        var result = oneByOne.updateAll(List.of(stale, fresh));
+
+        assertEquals(List.of(FIRST_ID + 1), result.getUpdated());
+        assertEquals(Map.of(FIRST_ID, UpdateResult.Conflict.STALE_VERSION), result.getConflicts());
+        assertEquals("Jane", oneByOne.findById(FIRST_ID).orElseThrow().getFirstName());
+        assertEquals("Janet", oneByOne.findById(FIRST_ID + 1).orElseThrow().getFirstName());
+    }
+
+    @Test
+    void testUpdateRejectsAStaleVersion() {
+        var first = personRepo.findById(FIRST_ID).orElseThrow();
+        var stale = personRepo.findById(FIRST_ID).orElseThrow();
+        first.setFirstName("Janet");
+        personRepo.update(first);
+        assertEquals(2, first.getVersion());
+
+        stale.setLastName("Smith");
+        assertThrows(OptimisticLockingFailureException.class, () -> personRepo.update(stale));
+        var saved = personRepo.findById(FIRST_ID).orElseThrow();
+        assertEquals("Janet", saved.getFirstName());
+        assertEquals("Doe", saved.getLastName());
+        assertEquals(2, saved.getVersion());
+    }
+
+    @Test
+    void testRowsAreGroupedByModifiedColumns() {
+        List<CriminalCase> cases = new ArrayList<>();
+        for (long id = FIRST_ID; id < FIRST_ID + ROWS; ++id) {
+            var cc = criminalCaseRepo.findById(id).orElseThrow();
+            if (id % 2 == 0) {
+                cc.setStatus(CaseStatus.UNDER_INVESTIGATION);
+            } else {
+                cc.setType(CaseType.FELONY);
+                cc.setShortDescription(null);
+            }
+            cases.add(cc);
+        }
+        var result = criminalCaseRepo.updateAll(cases);
+        assertEquals(ROWS, result.getUpdated().size());
+
+        for (long id = FIRST_ID; id < FIRST_ID + ROWS; ++id) {
+            var cc = criminalCaseRepo.findById(id).orElseThrow();
+            assertEquals(2, cc.getVersion());
+            if (id % 2 == 0) {
+                assertEquals(CaseStatus.UNDER_INVESTIGATION, cc.getStatus());
+                assertEquals(CaseType.MISDEMEANOR, cc.getType());
+            } else {
+                assertEquals(CaseStatus.SUBMITTED, cc.getStatus());
+                assertEquals(CaseType.FELONY, cc.getType());
+                assertNull(cc.getShortDescription());
+            }
+        }
+    }
+
+    @Test
+    void testInvalidNamesRejectTheWholeCollection() {
+        var valid = personRepo.findById(FIRST_ID).orElseThrow();
+        var invalid = personRepo.findById(FIRST_ID + 1).orElseThrow();
+        valid.setFirstName("Janet");
+        invalid.setFirstName("J$net");
+        assertThrows(IllegalArgumentException.class, () -> personRepo.updateAll(List.of(valid, invalid)));
+        assertEquals(1, personRepo.findById(FIRST_ID).orElseThrow().getVersion());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from CRIMINAL_CASE where ID >= ?", FIRST_ID);
+        jdbcTemplate.update("delete from PERSON where ID >= ?", FIRST_ID);
+    }
+}
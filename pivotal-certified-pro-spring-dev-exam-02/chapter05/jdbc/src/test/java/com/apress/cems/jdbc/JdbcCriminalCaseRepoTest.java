@@ -0,0 +1,126 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.jdbc;
+
+import com.apress.cems.dao.CriminalCase;
+import com.apress.cems.dao.Detective;
+import com.apress.cems.jdbc.config.TestDbConfig;
+import com.apress.cems.repos.CriminalCaseRepo;
+import com.apress.cems.repos.impl.JdbcCriminalCaseRepo;
+import com.apress.cems.util.CaseStatus;
+import com.apress.cems.util.CaseType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@SpringJUnitConfig(classes = {TestDbConfig.class})
+class JdbcCriminalCaseRepoTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    CriminalCaseRepo criminalCaseRepo;
+
+    @BeforeEach
+    void setUp() {
+        criminalCaseRepo = new JdbcCriminalCaseRepo(jdbcTemplate);
+    }
+
+    @Test
+    void testFindByLeadInvestigator() {
+        var detective = new Detective();
+        detective.setId(1L);
+        var cases = criminalCaseRepo.findByLeadInvestigator(detective);
+        assertEquals(3, cases.size());
+        cases.forEach(cc -> assertEquals(1L, cc.getLeadInvestigator().getId()));
+    }
+
+    @Test
+    void testFindByStatus() {
+        assertEquals(3, criminalCaseRepo.findByStatus(CaseStatus.UNDER_INVESTIGATION).size());
+        assertTrue(criminalCaseRepo.findByStatus(CaseStatus.COLD).isEmpty());
+    }
+
+    @Test
+    void testFindByType() {
+        assertEquals(2, criminalCaseRepo.findByType(CaseType.FELONY).size());
+    }
+
+    @Test
+    void testFindByStatusPaged() {
+        List<CriminalCase> first = criminalCaseRepo.findByStatus(CaseStatus.UNDER_INVESTIGATION, null, 2);
+        assertEquals(List.of(1L, 3L), ids(first));
+
+        List<CriminalCase> second = criminalCaseRepo.findByStatus(CaseStatus.UNDER_INVESTIGATION, 3L, 2);
+        assertEquals(List.of(4L), ids(second));
+
+        assertTrue(criminalCaseRepo.findByStatus(CaseStatus.UNDER_INVESTIGATION, 4L, 2).isEmpty());
+    }
+
+    @Test
+    void testFindByStatusPageSeeksTheStatusIndex() {
+        var plan = jdbcTemplate.queryForObject("explain select ID from CRIMINAL_CASE where STATUS= ? and ID > ? order by ID",
+                String.class, CaseStatus.UNDER_INVESTIGATION.name(), 3L);
+        assertTrue(plan.contains("CRIMINAL_CASE_STATUS_IX"), plan);
+    }
+
+    @Test
+    void testFindByTypePaged() {
+        assertEquals(List.of(3L), ids(criminalCaseRepo.findByType(CaseType.FELONY, 1L, 10)));
+    }
+
+    @Test
+    void testFindByStatusAndType() {
+        var cases = criminalCaseRepo.findByStatusAndType(CaseStatus.UNDER_INVESTIGATION, CaseType.FELONY, null, 10);
+        assertEquals(List.of(1L, 3L), ids(cases));
+        cases.forEach(cc -> assertEquals(CaseType.FELONY, cc.getType()));
+    }
+
+    @Test
+    void testCountByStatus() {
+        var counts = criminalCaseRepo.countByStatus();
+        assertEquals(3L, counts.get(CaseStatus.UNDER_INVESTIGATION));
+        assertEquals(1L, counts.get(CaseStatus.CLOSED));
+        assertFalse(counts.containsKey(CaseStatus.COLD));
+    }
+
+    private static List<Long> ids(List<CriminalCase> cases) {
+        return cases.stream().map(CriminalCase::getId).collect(Collectors.toList());
+    }
+}
@@ -37,9 +37,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author Iuliana Cosmina
@@ -63,4 +68,22 @@ class JdbcDetectiveRepoTest {
         );
         logger.info("Result: {}", detective);
     }
+
+    @Test
+    void testFindAllByIdsWithDetails(){
+        Set<Detective> detectives = detectiveRepo.findAllByIdsWithPersonDetails(List.of(1L, 2L, 2L, 99L));
+        assertEquals(2, detectives.size());
+        detectives.forEach(d -> assertEquals(d.getId(), d.getPerson().getId()));
+
+        assertTrue(detectiveRepo.findAllByIdsWithPersonDetails(List.of()).isEmpty());
+        assertTrue(detectiveRepo.findByIdWithPersonDetails(99L).isEmpty());
+    }
+
+    @Test
+    void testStreamAll(){
+        try (Stream<Detective> detectives = detectiveRepo.streamAll()) {
+            detectives.forEach(d -> assertNotNull(d.getPerson().getUsername()));
+        }
+        assertEquals(2, detectiveRepo.findAll().size());
+    }
 }
@@ -48,6 +48,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @author Iuliana Cosmina
@@ -95,6 +96,13 @@ class JdbcPersonRepoTest {
         assertEquals(2, personSet.size());
     }
 
+    @Test
+    void testStreamAll() {
+        try (Stream<Person> persons = personRepo.streamAll()) {
+            assertEquals(personRepo.count(), persons.count());
+        }
+    }
+
     @Test
     void testFindAllByUsernamePart() {
         Set<Person> personSet = personRepo.findAllByUsernamePart("sherlock");
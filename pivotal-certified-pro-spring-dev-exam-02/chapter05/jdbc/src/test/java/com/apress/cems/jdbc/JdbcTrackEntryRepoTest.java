@@ -0,0 +1,150 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.jdbc;
+
+import com.apress.cems.dao.Detective;
+import com.apress.cems.dao.Evidence;
+import com.apress.cems.dao.TrackEntry;
+import com.apress.cems.jdbc.config.TestDbConfig;
+import com.apress.cems.repos.TrackEntryRepo;
+import com.apress.cems.repos.impl.JdbcTrackEntryRepo;
+import com.apress.cems.util.TrackAction;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@SpringJUnitConfig(classes = {TestDbConfig.class})
+class JdbcTrackEntryRepoTest {
+
+    static final LocalDateTime DAY = LocalDateTime.of(2019, 3, 18, 0, 0);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    TrackEntryRepo trackEntryRepo;
+
+    @BeforeEach
+    void setUp() {
+        trackEntryRepo = new JdbcTrackEntryRepo(jdbcTemplate);
+    }
+
+    @Test
+    void testFindLatestByEvidenceId() {
+        trackEntryRepo.findLatestByEvidenceId(1L).ifPresentOrElse(
+                te -> {
+                    assertEquals(3L, te.getId());
+                    assertEquals(TrackAction.RETURNED, te.getAction());
+                },
+                Assertions::fail
+        );
+        assertTrue(trackEntryRepo.findLatestByEvidenceId(99L).isEmpty());
+    }
+
+    @Test
+    void testFindByDate() {
+        var date = Timestamp.valueOf(DAY.plusHours(12));
+        assertEquals(3, trackEntryRepo.findByDate(date).size());
+        assertEquals(2, trackEntryRepo.findByDateAndAction(date, TrackAction.SUBMITTED).size());
+    }
+
+    @Test
+    void testFindByDateRangePaged() {
+        var from = DAY;
+        var to = DAY.plusDays(2);
+
+        List<TrackEntry> first = trackEntryRepo.findByDateRange(from, to, null, 2);
+        assertEquals(List.of(1L, 2L), ids(first));
+
+        List<TrackEntry> second = trackEntryRepo.findByDateRange(from, to, first.get(1), 2);
+        // entries 2 and 4 have the same date, the ID breaks the tie
+        assertEquals(List.of(4L, 3L), ids(second));
+
+        assertTrue(trackEntryRepo.findByDateRange(from, to, second.get(1), 2).isEmpty());
+    }
+
+    @Test
+    void testSaveAll() {
+        var evidence = new Evidence();
+        evidence.setId(3L);
+        var detective = new Detective();
+        detective.setId(1L);
+        var entries = List.of(
+                entry(100L, evidence, detective, TrackAction.SUBMITTED, DAY.plusDays(5)),
+                entry(101L, evidence, detective, TrackAction.RETRIEVED, DAY.plusDays(6)));
+        trackEntryRepo.saveAll(entries);
+
+        assertEquals(2, trackEntryRepo.findByEvidenceId(3L).size());
+        trackEntryRepo.findLatestByEvidenceId(3L).ifPresentOrElse(
+                te -> assertEquals(101L, te.getId()),
+                Assertions::fail
+        );
+        jdbcTemplate.update("delete from TRACK_ENTRY where EVIDENCE_FK = ?", 3L);
+    }
+
+    @Test
+    void testUpdateNotAllowed() {
+        assertThrows(UnsupportedOperationException.class, () -> trackEntryRepo.update(new TrackEntry()));
+    }
+
+    @Test
+    void testDeleteNotAllowed() {
+        var entry = new TrackEntry();
+        entry.setId(1L);
+        assertThrows(UnsupportedOperationException.class, () -> trackEntryRepo.delete(entry));
+        assertThrows(UnsupportedOperationException.class, () -> trackEntryRepo.deleteById(1L));
+    }
+
+    static TrackEntry entry(Long id, Evidence evidence, Detective detective, TrackAction action, LocalDateTime date) {
+        var trackEntry = new TrackEntry();
+        trackEntry.setId(id);
+        trackEntry.setEvidence(evidence);
+        trackEntry.setDetective(detective);
+        trackEntry.setAction(action);
+        trackEntry.setReason("Routine check");
+        trackEntry.setDate(date);
+        return trackEntry;
+    }
+
+    private static List<Long> ids(List<TrackEntry> entries) {
+        return entries.stream().map(TrackEntry::getId).collect(Collectors.toList());
+    }
+}
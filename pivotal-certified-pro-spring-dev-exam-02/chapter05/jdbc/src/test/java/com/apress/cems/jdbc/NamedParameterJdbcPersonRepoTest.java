@@ -43,6 +43,7 @@ import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -86,6 +87,22 @@ class NamedParameterJdbcPersonRepoTest {
         assertThrows( EmptyResultDataAccessException.class, () -> jdbcNamedPersonRepo.findById(99L));
     }
 
+    @Test
+    void testStreamAll(){
+        try (Stream<Person> persons = jdbcNamedPersonRepo.streamAll()) {
+            assertEquals(jdbcNamedPersonRepo.count(), persons.count());
+        }
+    }
+
+    @Test
+    void testStreamAllWithFetchSize(){
+        var repo = (NamedParameterJdbcPersonRepo) jdbcNamedPersonRepo;
+        try (Stream<Person> persons = repo.streamAll(1)) {
+            assertEquals(jdbcNamedPersonRepo.count(), persons.count());
+        }
+        assertThrows(IllegalArgumentException.class, () -> repo.streamAll(0));
+    }
+
     @Test
     void testCreatePerson(){
         //Long entityId, String username, String firstName, String lastName, String password)
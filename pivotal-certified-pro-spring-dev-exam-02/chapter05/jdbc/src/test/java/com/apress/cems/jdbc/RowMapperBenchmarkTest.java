@@ -0,0 +1,151 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.jdbc;
+
+import com.apress.cems.dao.Person;
+import com.apress.cems.jdbc.config.TestDbConfig;
+import com.apress.cems.repos.PersonRepo;
+import com.apress.cems.repos.util.PersonRowMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the index based {@code PersonRowMapper} maps the same persons as a mapper that looks up every column by
+ * name on every row. {@code testIndexedVersusByName} compares their speed over {@value #ROWS} rows; it only logs the
+ * timings and only runs with {@code -DloadTest=true}.
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@SpringJUnitConfig(classes = {TestDbConfig.class, JdbcConfig.class})
+class RowMapperBenchmarkTest {
+    private Logger logger = LoggerFactory.getLogger(RowMapperBenchmarkTest.class);
+
+    static final int ROWS = 50_000;
+    static final int CHECKED_ROWS = 100;
+    static final long FIRST_ID = 1_000L;
+    static final int ITERATIONS = 10;
+    static final String SQL = "select ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE from PERSON";
+
+    @Autowired
+    @Qualifier("extraJdbcPersonRepo")
+    PersonRepo personRepo;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private void insertPersons(int rows) {
+        List<Person> persons = new ArrayList<>(rows);
+        for (long id = FIRST_ID; id < FIRST_ID + rows; ++id) {
+            var person = new Person();
+            person.setId(id);
+            person.setUsername("jane.doe." + id);
+            person.setFirstName("Jane");
+            person.setLastName("Doe");
+            person.setPassword("jd" + id);
+            person.setHiringDate(LocalDateTime.now());
+            persons.add(person);
+        }
+        personRepo.saveAll(persons);
+    }
+
+    @Test
+    void testIndexedMapsLikeByName() {
+        insertPersons(CHECKED_ROWS);
+        RowMapper<Person> indexed = new PersonRowMapper();
+
+        assertEquals(jdbcTemplate.query(SQL, new ByNamePersonRowMapper()), jdbcTemplate.query(SQL, indexed));
+        // the same mapper on a query that selects the columns in another order resolves the indexes again
+        var reordered = jdbcTemplate.query("select HIRINGDATE, PASSWORD, LASTNAME, FIRSTNAME, USERNAME, ID from PERSON where ID = ?",
+                indexed, FIRST_ID);
+        assertEquals("jane.doe." + FIRST_ID, reordered.get(0).getUsername());
+        assertEquals(FIRST_ID, reordered.get(0).getId());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void testIndexedVersusByName() {
+        insertPersons(ROWS);
+        RowMapper<Person> byName = new ByNamePersonRowMapper();
+        RowMapper<Person> indexed = new PersonRowMapper();
+
+        assertEquals(jdbcTemplate.query(SQL, byName), jdbcTemplate.query(SQL, indexed));
+
+        long byNameTime = 0;
+        long indexedTime = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            byNameTime += time(byName);
+            indexedTime += time(indexed);
+        }
+        logger.info("Mapping {} rows, average of {} runs: by name {} ms, by index {} ms",
+                ROWS + 2, ITERATIONS, byNameTime / ITERATIONS, indexedTime / ITERATIONS);
+    }
+
+    private long time(RowMapper<Person> rowMapper) {
+        long start = System.nanoTime();
+        jdbcTemplate.query(SQL, rowMapper);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from PERSON where ID >= ?", FIRST_ID);
+    }
+
+    /**
+     * The mapper as it was written before {@code IndexedRowMapper}.
+     */
+    private static class ByNamePersonRowMapper implements RowMapper<Person> {
+        @Override
+        public Person mapRow(ResultSet rs, int rowNum) throws SQLException {
+            var person = new Person();
+            person.setId(rs.getLong("ID"));
+            person.setUsername(rs.getString("USERNAME"));
+            person.setFirstName(rs.getString("FIRSTNAME"));
+            person.setLastName(rs.getString("LASTNAME"));
+            person.setPassword(rs.getString("PASSWORD"));
+            person.setHiringDate(rs.getTimestamp("HIRINGDATE").toLocalDateTime());
+            return person;
+        }
+    }
+}
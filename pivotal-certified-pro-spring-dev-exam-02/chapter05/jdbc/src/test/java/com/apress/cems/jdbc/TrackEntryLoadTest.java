@@ -0,0 +1,134 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.jdbc;
+
+import com.apress.cems.dao.Detective;
+import com.apress.cems.dao.Evidence;
+import com.apress.cems.dao.TrackEntry;
+import com.apress.cems.jdbc.config.TestDbConfig;
+import com.apress.cems.repos.impl.JdbcTrackEntryRepo;
+import com.apress.cems.util.TrackAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Appends a million track entries and measures append throughput and the latency of the lookups.
+ * It takes a while, so it only runs when the build is started with {@code -DloadTest=true}.
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+@SpringJUnitConfig(classes = {TestDbConfig.class})
+class TrackEntryLoadTest {
+    private Logger logger = LoggerFactory.getLogger(TrackEntryLoadTest.class);
+
+    static final int ENTRIES = 1_000_000;
+    static final int CHUNK = 10_000;
+    static final int EVIDENCE_COUNT = 10_000;
+    static final long FIRST_ID = 1_000_000L;
+    static final long FIRST_EVIDENCE_ID = 1_000L;
+    static final int LOOKUPS = 1_000;
+    static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testAppendAndLookup() {
+        var repo = new JdbcTrackEntryRepo(jdbcTemplate);
+        repo.setBatchSize(1_000);
+
+        var detective = new Detective();
+        detective.setId(1L);
+        var evidence = new Evidence[EVIDENCE_COUNT];
+        for (int i = 0; i < EVIDENCE_COUNT; ++i) {
+            evidence[i] = new Evidence();
+            evidence[i].setId(FIRST_EVIDENCE_ID + i);
+        }
+
+        long start = System.nanoTime();
+        for (int offset = 0; offset < ENTRIES; offset += CHUNK) {
+            List<TrackEntry> chunk = new ArrayList<>(CHUNK);
+            for (int i = offset; i < offset + CHUNK; ++i) {
+                chunk.add(JdbcTrackEntryRepoTest.entry(FIRST_ID + i, evidence[i % EVIDENCE_COUNT], detective,
+                        TrackAction.values()[i % 3], START.plusSeconds(i)));
+            }
+            repo.saveAll(chunk);
+        }
+        long appendMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Appended {} entries in {} ms, {} entries/s", ENTRIES, appendMillis, ENTRIES * 1000L / Math.max(appendMillis, 1));
+
+        var random = new Random(42);
+        long[] latencies = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; ++i) {
+            long evidenceId = FIRST_EVIDENCE_ID + random.nextInt(EVIDENCE_COUNT);
+            long lookupStart = System.nanoTime();
+            var latest = repo.findLatestByEvidenceId(evidenceId);
+            latencies[i] = System.nanoTime() - lookupStart;
+            assertTrue(latest.isPresent());
+            // the last entry of each evidence was appended in the last EVIDENCE_COUNT entries
+            assertTrue(latest.get().getId() >= FIRST_ID + ENTRIES - EVIDENCE_COUNT);
+        }
+        Arrays.sort(latencies);
+        logger.info("Latest entry lookup over {} calls: p50 {} us, p99 {} us, max {} us", LOOKUPS,
+                latencies[LOOKUPS / 2] / 1000, latencies[LOOKUPS * 99 / 100] / 1000, latencies[LOOKUPS - 1] / 1000);
+
+        long scanStart = System.nanoTime();
+        var from = START.plusSeconds(ENTRIES / 2);
+        var to = from.plusHours(1);
+        int scanned = 0;
+        TrackEntry last = null;
+        List<TrackEntry> page;
+        while (!(page = repo.findByDateRange(from, to, last, 500)).isEmpty()) {
+            scanned += page.size();
+            last = page.get(page.size() - 1);
+        }
+        assertEquals(3600, scanned);
+        logger.info("Range scan of {} entries in pages of 500 took {} ms", scanned, (System.nanoTime() - scanStart) / 1_000_000);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from TRACK_ENTRY where ID >= ?", FIRST_ID);
+    }
+}
@@ -28,4 +28,51 @@ CREATE TABLE DETECTIVE
 , CREATED_AT TIMESTAMP NOT NULL
 , MODIFIED_AT TIMESTAMP NOT NULL
 , UNIQUE(BADGE_NUMBER)
-);
\ No newline at end of file
+);
+
+drop table CRIMINAL_CASE if exists;
+
+CREATE TABLE CRIMINAL_CASE
+(
+  ID BIGINT PRIMARY KEY
+, CASE_NUMBER VARCHAR2(50) NOT NULL
+, CASE_TYPE VARCHAR2(50) NOT NULL
+, STATUS VARCHAR2(50) NOT NULL
+, SHORT_DESCRIPTION VARCHAR2(200)
+, DETAILED_DESCRIPTION VARCHAR2(4000)
+, NOTES VARCHAR2(4000)
+, LEAD_INVESTIGATOR BIGINT NOT NULL
+, VERSION INT
+, CREATED_AT TIMESTAMP NOT NULL
+, MODIFIED_AT TIMESTAMP NOT NULL
+, UNIQUE(CASE_NUMBER)
+);
+
+-- keyset pages by status ordered by ID
+CREATE INDEX CRIMINAL_CASE_STATUS_IX ON CRIMINAL_CASE(STATUS, ID);
+-- keyset pages by status and type ordered by ID
+CREATE INDEX CRIMINAL_CASE_STATUS_TYPE_IX ON CRIMINAL_CASE(STATUS, CASE_TYPE, ID);
+-- keyset pages by type ordered by ID
+CREATE INDEX CRIMINAL_CASE_TYPE_IX ON CRIMINAL_CASE(CASE_TYPE, ID);
+CREATE INDEX CRIMINAL_CASE_LEAD_IX ON CRIMINAL_CASE(LEAD_INVESTIGATOR);
+
+drop table TRACK_ENTRY if exists;
+
+CREATE TABLE TRACK_ENTRY
+(
+  ID BIGINT PRIMARY KEY
+, TRACK_DATE TIMESTAMP NOT NULL
+, EVIDENCE_FK BIGINT NOT NULL
+, DETECTIVE_FK BIGINT NOT NULL
+, ACTION VARCHAR2(50) NOT NULL
+, REASON VARCHAR2(200) NOT NULL
+, VERSION INT
+, CREATED_AT TIMESTAMP NOT NULL
+, MODIFIED_AT TIMESTAMP NOT NULL
+);
+
+-- keyset range scans ordered by date
+CREATE INDEX TRACK_ENTRY_DATE_IX ON TRACK_ENTRY(TRACK_DATE, ID);
+-- latest entry of an evidence, read from the end of the index
+CREATE INDEX TRACK_ENTRY_EVIDENCE_IX ON TRACK_ENTRY(EVIDENCE_FK, TRACK_DATE, ID);
+CREATE INDEX TRACK_ENTRY_DETECTIVE_IX ON TRACK_ENTRY(DETECTIVE_FK);
@@ -2,4 +2,14 @@ INSERT INTO PERSON(ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE, VERS
 INSERT INTO PERSON(ID, USERNAME, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE, VERSION, CREATED_AT, MODIFIED_AT) VALUES (2, 'irene.adler', 'Irene', 'Adler', 'id123ds', '1990-08-18 00:03', 1, '1990-07-18 00:04', '1990-07-18 00:05');
 
 INSERT INTO DETECTIVE(ID, PERSON_ID, BADGE_NUMBER, RANK, ARMED, STATUS, VERSION, CREATED_AT, MODIFIED_AT) VALUES (1, 1, 'LD112233', 'INSPECTOR', FALSE, 'ACTIVE', 1, '1983-08-18 00:01', '2002-05-21 00:07' );
-INSERT INTO DETECTIVE(ID, PERSON_ID, BADGE_NUMBER, RANK, ARMED, STATUS, VERSION, CREATED_AT, MODIFIED_AT) VALUES (2, 2, 'EH113322', 'SENIOR', TRUE, 'ACTIVE', 1, '1990-07-18 00:04', '2002-05-21 00:08');
\ No newline at end of file
+INSERT INTO DETECTIVE(ID, PERSON_ID, BADGE_NUMBER, RANK, ARMED, STATUS, VERSION, CREATED_AT, MODIFIED_AT) VALUES (2, 2, 'EH113322', 'SENIOR', TRUE, 'ACTIVE', 1, '1990-07-18 00:04', '2002-05-21 00:08');
+
+INSERT INTO CRIMINAL_CASE(ID, CASE_NUMBER, CASE_TYPE, STATUS, SHORT_DESCRIPTION, LEAD_INVESTIGATOR, VERSION, CREATED_AT, MODIFIED_AT) VALUES (1, 'SC001', 'FELONY', 'UNDER_INVESTIGATION', 'The Hound of the Baskervilles', 1, 1, '1983-08-18 00:01', '1983-08-18 00:01');
+INSERT INTO CRIMINAL_CASE(ID, CASE_NUMBER, CASE_TYPE, STATUS, SHORT_DESCRIPTION, LEAD_INVESTIGATOR, VERSION, CREATED_AT, MODIFIED_AT) VALUES (2, 'SC002', 'MISDEMEANOR', 'CLOSED', 'A Scandal in Bohemia', 2, 1, '1990-07-18 00:04', '1990-07-18 00:04');
+INSERT INTO CRIMINAL_CASE(ID, CASE_NUMBER, CASE_TYPE, STATUS, SHORT_DESCRIPTION, LEAD_INVESTIGATOR, VERSION, CREATED_AT, MODIFIED_AT) VALUES (3, 'SC003', 'FELONY', 'UNDER_INVESTIGATION', 'The Speckled Band', 1, 1, '1992-03-02 00:04', '1992-03-02 00:04');
+INSERT INTO CRIMINAL_CASE(ID, CASE_NUMBER, CASE_TYPE, STATUS, SHORT_DESCRIPTION, LEAD_INVESTIGATOR, VERSION, CREATED_AT, MODIFIED_AT) VALUES (4, 'SC004', 'INFRACTION', 'UNDER_INVESTIGATION', 'The Red-Headed League', 1, 1, '1993-11-12 00:04', '1993-11-12 00:04');
+
+INSERT INTO TRACK_ENTRY(ID, TRACK_DATE, EVIDENCE_FK, DETECTIVE_FK, ACTION, REASON, VERSION, CREATED_AT, MODIFIED_AT) VALUES (1, '2019-03-18 09:00', 1, 1, 'SUBMITTED', 'Collected at the crime scene', 1, '2019-03-18 09:00', '2019-03-18 09:00');
+INSERT INTO TRACK_ENTRY(ID, TRACK_DATE, EVIDENCE_FK, DETECTIVE_FK, ACTION, REASON, VERSION, CREATED_AT, MODIFIED_AT) VALUES (2, '2019-03-18 14:30', 1, 2, 'RETRIEVED', 'Fingerprint analysis', 1, '2019-03-18 14:30', '2019-03-18 14:30');
+INSERT INTO TRACK_ENTRY(ID, TRACK_DATE, EVIDENCE_FK, DETECTIVE_FK, ACTION, REASON, VERSION, CREATED_AT, MODIFIED_AT) VALUES (3, '2019-03-19 10:15', 1, 2, 'RETURNED', 'Analysis complete', 1, '2019-03-19 10:15', '2019-03-19 10:15');
+INSERT INTO TRACK_ENTRY(ID, TRACK_DATE, EVIDENCE_FK, DETECTIVE_FK, ACTION, REASON, VERSION, CREATED_AT, MODIFIED_AT) VALUES (4, '2019-03-18 14:30', 2, 1, 'SUBMITTED', 'Collected at the crime scene', 1, '2019-03-18 14:30', '2019-03-18 14:30');
@@ -0,0 +1,123 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.serializer.support.SerializationDelegate;
+import org.springframework.util.StringUtils;
+
+/**
+ * Enables the service cache that sits in front of the JPA second-level cache. The maximum size and the time to live
+ * of the entries are configured under {@code spring.cache} in {@code application.yml}, setting
+ * {@code spring.cache.type} to {@code none} turns the service cache off without touching the services.
+ * <p>
+ * The cached persons are JPA entities, which callers modify. The caches therefore hold serialized copies and every
+ * lookup returns a new instance, so a change made by one caller never shows in the result of another. Puts and
+ * evictions made inside a transaction are applied after it commits: a reader cannot put the row back into the cache
+ * before the new one is visible, and a rolled back write leaves the cache alone.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+    public static final String PERSONS = "persons";
+    public static final String PERSONS_BY_USERNAME = "personsByUsername";
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        var cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache createCaffeineCache(String name) {
+                return new TransactionAwareCacheDecorator(
+                        new CopyingCaffeineCache(name, createNativeCaffeineCache(name), isAllowNullValues()));
+            }
+        };
+        if (StringUtils.hasText(cacheProperties.getCaffeine().getSpec())) {
+            cacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        }
+        cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        return cacheManager;
+    }
+
+    /**
+     * A Caffeine cache storing its values serialized, like a {@code ConcurrentMapCache} that stores by value.
+     */
+    static class CopyingCaffeineCache extends CaffeineCache {
+        private final SerializationDelegate serialization = new SerializationDelegate(CacheConfig.class.getClassLoader());
+
+        CopyingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache, boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        protected Object toStoreValue(Object userValue) {
+            Object storeValue = super.toStoreValue(userValue);
+            if (storeValue == NullValue.INSTANCE) {
+                return storeValue;
+            }
+            try {
+                var out = new ByteArrayOutputStream(1024);
+                serialization.serialize(storeValue, out);
+                return out.toByteArray();
+            } catch (Throwable ex) {
+                throw new IllegalArgumentException("Failed to serialize cache value '" + userValue +
+                        "'. Does it implement Serializable?", ex);
+            }
+        }
+
+        @Override
+        protected Object fromStoreValue(Object storeValue) {
+            if (storeValue instanceof byte[]) {
+                try {
+                    return super.fromStoreValue(serialization.deserialize(new ByteArrayInputStream((byte[]) storeValue)));
+                } catch (Throwable ex) {
+                    throw new IllegalArgumentException("Failed to deserialize cache value '" + storeValue + "'", ex);
+                }
+            }
+            return super.fromStoreValue(storeValue);
+        }
+    }
+}
@@ -27,12 +27,16 @@ SOFTWARE.
 */
 package com.apress.cems.person.services;
 
+import com.apress.cems.CacheConfig;
 import com.apress.cems.ex.InvalidCriteriaException;
 import com.apress.cems.person.Person;
 import com.apress.cems.person.PersonRepo;
 import com.apress.cems.util.CriteriaDto;
 import com.apress.cems.util.DateProcessor;
 import com.apress.cems.util.FieldGroup;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -45,6 +49,11 @@ import java.util.Optional;
 
 
 /**
+ * Lookups by id and by username are served from the {@value CacheConfig#PERSONS} and {@value CacheConfig#PERSONS_BY_USERNAME}
+ * caches, a missing person is not cached. Every write evicts the person once its transaction
+ * commits, a rolled back write leaves the caches as they were. The username may change with any write, so the whole
+ * username cache is cleared.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
@@ -67,24 +76,34 @@ public class PersonServiceImpl implements PersonService {
         return personRepo.count();
     }
 
+    @Cacheable(cacheNames = CacheConfig.PERSONS, unless = "#result == null")
     @Override
     public Optional<Person> findById(Long id) {
         return personRepo.findById(id);
     }
 
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PERSONS, key = "#person.id", condition = "#person.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.PERSONS_BY_USERNAME, allEntries = true)
+    })
     @Override
     public Person save(Person person) {
         personRepo.save(person);
         return person;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PERSONS, key = "#person.id", condition = "#person.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.PERSONS_BY_USERNAME, allEntries = true)
+    })
     @Override
     public Person updateFirstName(Person person, String newFirstname) {
         return personRepo.save(person);
     }
 
 
+    @Cacheable(cacheNames = CacheConfig.PERSONS_BY_USERNAME, unless = "#result == null")
     @Override
     public Optional<Person> findByUsername(String username) {
         return personRepo.findByUsername(username);
@@ -107,6 +126,10 @@ public class PersonServiceImpl implements PersonService {
         return personRepo.findByCompleteName(firstName,lastName);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PERSONS, key = "#person.id", condition = "#person.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.PERSONS_BY_USERNAME, allEntries = true)
+    })
     @Override
     public void delete(Person person) {
         personRepo.delete(person);
@@ -0,0 +1,203 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems;
+
+import com.apress.cems.person.Person;
+import com.apress.cems.person.PersonRepo;
+import com.apress.cems.person.services.PersonService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PersonCacheTest {
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonRepo personRepo;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    private List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(id -> personService.findById(id).ifPresent(personService::delete));
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromTheServiceCache() {
+        Person person = createPerson("sebastian.moran");
+
+        statistics.clear();
+        Person first = personService.findById(person.getId()).orElseThrow();
+        Person second = personService.findById(person.getId()).orElseThrow();
+
+        assertAll(
+                () -> assertNotSame(first, second),
+                () -> assertEquals(first.getId(), second.getId()),
+                () -> assertEquals(first.getUsername(), second.getUsername()),
+                () -> assertEquals(0, statistics.getPrepareStatementCount()),
+                () -> assertNotNull(cacheManager.getCache(CacheConfig.PERSONS).get(person.getId()))
+        );
+    }
+
+    @Test
+    void shouldNotShareChangesMadeToACachedPerson() {
+        Person person = createPerson("mary.morstan");
+        personService.findById(person.getId()).orElseThrow().setFirstName("Changed");
+
+        assertEquals("First", personService.findById(person.getId()).orElseThrow().getFirstName());
+    }
+
+    @Test
+    void shouldEvictThePersonOnlyAfterTheWriteCommits() {
+        Person person = createPerson("john.watson");
+        personService.findById(person.getId()).orElseThrow();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Person changed = personService.findById(person.getId()).orElseThrow();
+            changed.setFirstName("Hamish");
+            personService.save(changed);
+            assertNotNull(cacheManager.getCache(CacheConfig.PERSONS).get(person.getId()));
+        });
+
+        assertAll(
+                () -> assertNull(cacheManager.getCache(CacheConfig.PERSONS).get(person.getId())),
+                () -> assertEquals("Hamish", personService.findById(person.getId()).orElseThrow().getFirstName())
+        );
+    }
+
+    @Test
+    void shouldEvictThePersonOnSaveAndDelete() {
+        Person person = createPerson("mycroft.holmes");
+        personService.findById(person.getId()).orElseThrow();
+        personService.findByUsername("mycroft.holmes").orElseThrow();
+
+        person.setFirstName("Mycroft Sigerson");
+        personService.save(person);
+        assertAll(
+                () -> assertNull(cacheManager.getCache(CacheConfig.PERSONS).get(person.getId())),
+                () -> assertNull(cacheManager.getCache(CacheConfig.PERSONS_BY_USERNAME).get("mycroft.holmes")),
+                () -> assertEquals("Mycroft Sigerson", personService.findById(person.getId()).orElseThrow().getFirstName())
+        );
+
+        personService.delete(personService.findById(person.getId()).orElseThrow());
+        assertTrue(personService.findById(person.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldServeUsernameQueriesFromTheSecondLevelCache() {
+        createPerson("james.moriarty");
+
+        statistics.clear();
+        personRepo.findByUsername("james.moriarty").orElseThrow();
+        personRepo.findByUsername("james.moriarty").orElseThrow();
+
+        assertAll(
+                () -> assertEquals(1, statistics.getQueryCacheMissCount()),
+                () -> assertEquals(1, statistics.getQueryCacheHitCount()),
+                () -> assertEquals(1, statistics.getSecondLevelCacheHitCount()),
+                () -> assertEquals(1, statistics.getPrepareStatementCount())
+        );
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldExposeCacheStatisticsThroughActuator() {
+        RestTemplate restTemplate = new RestTemplate();
+        String metricsUrl = "http://localhost:" + port + "/actuator/metrics/";
+
+        ResponseEntity<Map> cacheGets = restTemplate.getForEntity(metricsUrl + "cache.gets?tag=cache:" + CacheConfig.PERSONS, Map.class);
+        ResponseEntity<Map> secondLevel = restTemplate.getForEntity(metricsUrl + "hibernate.second.level.cache.requests", Map.class);
+        ResponseEntity<Map> caches = restTemplate.getForEntity("http://localhost:" + port + "/actuator/caches", Map.class);
+
+        assertAll(
+                () -> assertEquals(HttpStatus.OK, cacheGets.getStatusCode()),
+                () -> assertEquals(HttpStatus.OK, secondLevel.getStatusCode()),
+                () -> assertEquals(HttpStatus.OK, caches.getStatusCode())
+        );
+    }
+
+    private Person createPerson(String username) {
+        Person person = personService.save(buildPerson(username));
+        created.add(person.getId());
+        return person;
+    }
+
+    private static Person buildPerson(String username) {
+        Person person = new Person();
+        person.setUsername(username);
+        person.setFirstName("First");
+        person.setLastName("Last");
+        person.setPassword("complicated");
+        person.setHiringDate(LocalDateTime.now());
+        return person;
+    }
+}
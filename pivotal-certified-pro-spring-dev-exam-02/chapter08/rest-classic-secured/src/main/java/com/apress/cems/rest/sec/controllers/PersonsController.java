@@ -33,8 +33,10 @@ import com.apress.cems.dto.CriteriaDto;
 import com.apress.cems.rest.sec.problem.IllegalOperation;
 import com.apress.cems.rest.sec.problem.NotFoundException;
 import com.apress.cems.util.NumberGenerator;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
@@ -54,6 +56,9 @@ import static com.apress.cems.util.Functions.COMPARATOR_BY_ID;
 @RequestMapping("/persons")
 public class PersonsController {
 
+    public static final String NEXT_AFTER_VALUE = "X-Next-After-Value";
+    public static final String NEXT_AFTER_ID = "X-Next-After-Id";
+
     private PersonService personService;
 
     public PersonsController(PersonService personService) {
@@ -71,10 +76,22 @@ public class PersonsController {
         return persons;
     }
 
-    @ResponseStatus(HttpStatus.OK)
+    /**
+     * Returns one page of matching persons. When there are more, the position of the next page is returned in the
+     * {@value #NEXT_AFTER_VALUE} and {@value #NEXT_AFTER_ID} headers, to be sent back as {@code afterValue} and {@code afterId}.
+     */
     @GetMapping(value = "/search")
-    public List<Person> processSubmit(@Validated @RequestBody CriteriaDto criteria) {
-        return personService.getByCriteriaDto(criteria);
+    public ResponseEntity<List<Person>> processSubmit(@Validated @RequestBody CriteriaDto criteria) {
+        Slice<Person> slice = personService.searchByCriteriaDto(criteria);
+        var response = ResponseEntity.ok();
+        if (slice.hasNext()) {
+            var next = criteria.next(slice.getContent().get(slice.getNumberOfElements() - 1));
+            if (next.getAfterValue() != null) {
+                response.header(NEXT_AFTER_VALUE, next.getAfterValue());
+            }
+            response.header(NEXT_AFTER_ID, next.getAfterId().toString());
+        }
+        return response.body(slice.getContent());
     }
 
     @ResponseStatus(HttpStatus.CREATED)
@@ -13,6 +13,7 @@ module com.apress.cems.classic.rest {
     requires spring.webmvc;
     requires spring.context;
     requires spring.web;
+    requires spring.data.commons;
 
     requires javax.servlet.api;
     requires org.slf4j;
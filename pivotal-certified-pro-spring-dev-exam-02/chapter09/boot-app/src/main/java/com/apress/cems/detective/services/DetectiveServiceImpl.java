@@ -27,8 +27,11 @@ SOFTWARE.
 */
 package com.apress.cems.detective.services;
 
+import com.apress.cems.CacheConfig;
 import com.apress.cems.detective.Detective;
 import com.apress.cems.detective.DetectiveRepo;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +39,8 @@ import java.util.List;
 import java.util.Optional;
 
 /**
+ * Lookups by id are served from the {@value CacheConfig#DETECTIVES} cache, every write evicts the detective after its transaction commits.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
@@ -54,6 +59,7 @@ public class DetectiveServiceImpl implements DetectiveService {
         return detectiveRepo.findAll();
     }
 
+    @Cacheable(cacheNames = CacheConfig.DETECTIVES, unless = "#result == null")
     @Override
     public Optional<Detective> findById(Long id) {
         return detectiveRepo.findById(id);
@@ -64,11 +70,13 @@ public class DetectiveServiceImpl implements DetectiveService {
         return detectiveRepo.findByBadgeNumber(badgeNumber);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.DETECTIVES, key = "#detective.id", condition = "#detective.id != null")
     @Override
     public Detective save(Detective detective) {
         return detectiveRepo.save(detective);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.DETECTIVES, key = "#detective.id", condition = "#detective.id != null")
     @Override
     public void delete(Detective detective) {
         detectiveRepo.delete(detective);
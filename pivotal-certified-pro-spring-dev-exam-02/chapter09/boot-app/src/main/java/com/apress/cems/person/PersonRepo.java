@@ -29,18 +29,23 @@ package com.apress.cems.person;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 /**
  * @author Iuliana Cosmina
  * @since 1.0
  */
 public interface PersonRepo extends JpaRepository<Person, Long> {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("select p from Person p where p.username like %?1%")
     Optional<Person> findByUsername(String username);
 
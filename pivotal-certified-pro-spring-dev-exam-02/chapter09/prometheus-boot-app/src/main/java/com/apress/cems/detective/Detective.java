@@ -31,6 +31,8 @@ import com.apress.cems.base.AbstractEntity;
 import com.apress.cems.person.Person;
 import com.apress.cems.util.EmploymentStatus;
 import com.apress.cems.util.Rank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
@@ -41,6 +43,7 @@ import java.util.Objects;
  * @since 1.0
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Detective extends AbstractEntity {
 
     @NotNull
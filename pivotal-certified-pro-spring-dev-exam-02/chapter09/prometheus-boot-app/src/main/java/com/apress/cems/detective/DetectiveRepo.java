@@ -29,16 +29,21 @@ package com.apress.cems.detective;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 /**
  * @author Iuliana Cosmina
  * @since 1.0
  */
 public interface DetectiveRepo extends JpaRepository<Detective, Long> {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("select d from Detective d where d.badgeNumber=:bn")
     Optional<Detective> findByBadgeNumber(@Param("bn")String badgeNumber);
 }
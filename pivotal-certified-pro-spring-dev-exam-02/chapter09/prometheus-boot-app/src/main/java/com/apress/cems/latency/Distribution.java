@@ -0,0 +1,75 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.latency;
+
+import java.util.Random;
+
+/**
+ * The distributions the injected delays are drawn from. {@code delay} is the fixed value, the lower bound of
+ * {@link #UNIFORM} or the mean of {@link #EXPONENTIAL}, and the scale of {@link #PARETO}. Every sample is capped at
+ * {@code max}, so a long tail cannot hold a request for longer than the rule allows.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public enum Distribution {
+    FIXED {
+        @Override
+        long sample(long delay, long max, Random random) {
+            return Math.min(delay, max);
+        }
+    },
+    UNIFORM {
+        @Override
+        long sample(long delay, long max, Random random) {
+            return delay >= max ? max : delay + (long) (random.nextDouble() * (max - delay));
+        }
+    },
+    EXPONENTIAL {
+        @Override
+        long sample(long delay, long max, Random random) {
+            return Math.min(max, (long) (-delay * Math.log(1 - random.nextDouble())));
+        }
+    },
+    /**
+     * Most requests get close to {@code delay}, a few get many times more: the shape of a real latency tail.
+     */
+    PARETO {
+        private static final double SHAPE = 1.5;
+
+        @Override
+        long sample(long delay, long max, Random random) {
+            return Math.min(max, (long) (delay / Math.pow(1 - random.nextDouble(), 1 / SHAPE)));
+        }
+    };
+
+    /**
+     * @return the delay in milliseconds, between {@code 0} and {@code max}
+     */
+    abstract long sample(long delay, long max, Random random);
+}
@@ -0,0 +1,67 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.latency;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.servlet.DispatcherType;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Injects latency and faults only when the {@code latency} profile is active, e.g.
+ * {@code --spring.profiles.active=prometheus,latency}. The rules are in {@code application-latency.yml}.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Configuration
+@Profile("latency")
+@EnableConfigurationProperties(LatencyInjectionProperties.class)
+public class LatencyInjectionConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    ScheduledExecutorService latencyScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("latency-"));
+    }
+
+    @Bean
+    FilterRegistrationBean<LatencyInjectionFilter> latencyInjectionFilter(LatencyInjectionProperties properties) {
+        var registration = new FilterRegistrationBean<>(new LatencyInjectionFilter(properties, latencyScheduler()));
+        // after WebMvcMetricsFilter, which is registered at HIGHEST_PRECEDENCE + 1
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+}
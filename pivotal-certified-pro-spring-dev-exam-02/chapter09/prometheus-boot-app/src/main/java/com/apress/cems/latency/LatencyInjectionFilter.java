@@ -0,0 +1,136 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.latency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delays the requests matching a {@link LatencyInjectionProperties.Rule}, and fails some of them, to show slow
+ * endpoints in Prometheus. The delay does not block the request thread: the request is put in asynchronous mode and a
+ * scheduler dispatches it back to the container once the delay is over, so the Tomcat workers keep serving other
+ * requests meanwhile. The filter is registered after the metrics filter, so {@code http.server.requests} includes the
+ * delay and the injected errors.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public class LatencyInjectionFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(LatencyInjectionFilter.class);
+
+    private static final String FAULT_ATTRIBUTE = LatencyInjectionFilter.class.getName() + ".FAULT";
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final List<LatencyInjectionProperties.Rule> rules;
+    private final ScheduledExecutorService scheduler;
+
+    public LatencyInjectionFilter(LatencyInjectionProperties properties, ScheduledExecutorService scheduler) {
+        this.rules = List.copyOf(properties.getRules());
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // the dispatch that ends the delay, or the one of an asynchronous handler, must not be delayed again
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // isAsyncDispatch(request) only recognizes the dispatches of Spring MVC asynchronous handlers
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            var rule = (LatencyInjectionProperties.Rule) request.getAttribute(FAULT_ATTRIBUTE);
+            if (rule != null) {
+                request.removeAttribute(FAULT_ATTRIBUTE);
+                sendFault(request, response, rule);
+            } else {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+
+        var rule = findRule(request);
+        if (rule == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        var random = ThreadLocalRandom.current();
+        long delay = rule.getDistribution().sample(rule.getDelay().toMillis(), rule.getMax().toMillis(), random);
+        boolean fail = random.nextDouble() < rule.getErrorRate();
+        if (delay <= 0 || !request.isAsyncSupported()) {
+            if (fail) {
+                sendFault(request, response, rule);
+            } else {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+
+        if (fail) {
+            request.setAttribute(FAULT_ATTRIBUTE, rule);
+        }
+        var asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(0);
+        logger.debug("Delaying {} {} by {} ms", request.getMethod(), request.getRequestURI(), delay);
+        scheduler.schedule(() -> asyncContext.dispatch(), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static void sendFault(HttpServletRequest request, HttpServletResponse response, LatencyInjectionProperties.Rule rule)
+            throws IOException {
+        // no handler is reached, the rule path keeps the uri tag of http.server.requests meaningful
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, rule.getPath());
+        response.sendError(rule.getErrorStatus(), "Injected fault");
+    }
+
+    private LatencyInjectionProperties.Rule findRule(HttpServletRequest request) {
+        var path = request.getServletPath() + (request.getPathInfo() == null ? "" : request.getPathInfo());
+        for (LatencyInjectionProperties.Rule rule : rules) {
+            if ((rule.getMethod() == null || rule.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(rule.getPath(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps every Spring Data repository in a proxy that times its methods. Each method gets the {@code cems.repository}
+ * timer, tagged with the {@code repository} interface, the {@code method} and the {@code outcome}, and the
+ * {@code cems.repository.results} summary of the number of entities returned by the methods that return a collection
+ * or an {@code Optional}. The time includes waiting for a pool connection, so a slow query type shows up here even
+ * when the pool is the bottleneck, while {@code hikaricp.connections.acquire} gives the wait of the whole pool.
+ *
+ * The meters of a method are registered on its first call and then reused, the registry is looked up lazily so that
+ * it is not created before the post-processors.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository)) {
+            return bean;
+        }
+        var repositoryInterface = Arrays.stream(AopProxyUtils.proxiedUserInterfaces(bean))
+                .filter(Repository.class::isAssignableFrom)
+                .filter(type -> !type.getName().startsWith("org.springframework."))
+                .findFirst();
+        if (repositoryInterface.isEmpty()) {
+            return bean;
+        }
+        var proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(new TimingInterceptor(repositoryInterface.get().getSimpleName(), meterRegistry));
+        return proxyFactory.getProxy();
+    }
+
+    private static final class TimingInterceptor implements MethodInterceptor {
+        private final String repository;
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final ConcurrentMap<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+        private TimingInterceptor(String repository, ObjectProvider<MeterRegistry> meterRegistry) {
+            this.repository = repository;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            var method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            var methodMeters = meters.get(method);
+            if (methodMeters == null) {
+                methodMeters = meters.computeIfAbsent(method, m -> new MethodMeters(meterRegistry.getObject(), repository, m.getName()));
+            }
+            long start = methodMeters.clock.monotonicTime();
+            try {
+                var result = invocation.proceed();
+                methodMeters.success.record(methodMeters.clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+                methodMeters.recordResults(result);
+                return result;
+            } catch (Throwable t) {
+                methodMeters.error.record(methodMeters.clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+                throw t;
+            }
+        }
+    }
+
+    private static final class MethodMeters {
+        private final Clock clock;
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary results;
+
+        private MethodMeters(MeterRegistry registry, String repository, String method) {
+            clock = registry.config().clock();
+            success = timer(registry, repository, method, "success");
+            error = timer(registry, repository, method, "error");
+            results = DistributionSummary.builder("cems.repository.results")
+                    .description("Number of entities returned by a repository method")
+                    .tags("repository", repository, "method", method)
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, String repository, String method, String outcome) {
+            return Timer.builder("cems.repository")
+                    .description("Repository method execution time")
+                    .tags("repository", repository, "method", method, "outcome", outcome)
+                    .register(registry);
+        }
+
+        private void recordResults(Object result) {
+            if (result instanceof Collection) {
+                results.record(((Collection<?>) result).size());
+            } else if (result instanceof Optional) {
+                results.record(((Optional<?>) result).isPresent() ? 1 : 0);
+            }
+        }
+    }
+}
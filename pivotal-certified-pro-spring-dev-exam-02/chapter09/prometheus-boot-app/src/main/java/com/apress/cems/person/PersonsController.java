@@ -125,7 +125,8 @@ public class PersonsController {
     }
 
     /**
-     * Returns the {@code Person} instance with id {@code id}
+     * Returns the {@code Person} instance with id {@code id}. Start the application with the {@code latency} profile
+     * to make this endpoint slow, see {@code application-latency.yml}.
      * @param id
      * @return
      */
@@ -134,12 +135,6 @@ public class PersonsController {
     public Person show(@PathVariable Long id) {
         Optional<Person> personOpt = personService.findById(id);
         if(personOpt.isPresent()) {
-            int msec = 1000;
-            try {
-                Thread.sleep(msec * id);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
             return personOpt.get();
         } else {
             throw new NotFoundException(Person.class, id );
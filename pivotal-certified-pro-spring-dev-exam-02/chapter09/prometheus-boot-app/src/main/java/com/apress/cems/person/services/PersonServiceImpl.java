@@ -27,12 +27,19 @@ SOFTWARE.
 */
 package com.apress.cems.person.services;
 
+import com.apress.cems.CacheConfig;
 import com.apress.cems.ex.InvalidCriteriaException;
 import com.apress.cems.person.Person;
 import com.apress.cems.person.PersonRepo;
 import com.apress.cems.util.CriteriaDto;
 import com.apress.cems.util.DateProcessor;
 import com.apress.cems.util.FieldGroup;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -40,21 +47,41 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
 /**
+ * Lookups by id and by username are served from the {@value CacheConfig#PERSONS} and {@value CacheConfig#PERSONS_BY_USERNAME}
+ * caches, a missing person is not cached. Every write evicts the person once its transaction
+ * commits, a rolled back write leaves the caches as they were. The username may change with any write, so the whole
+ * username cache is cleared, and so is the detectives cache, because the cached detectives hold their person details.
+ *
+ * Every search by criteria is timed by the {@code cems.person.search} timer and its number of results is recorded by
+ * the {@code cems.person.search.results} summary, both tagged with the searched {@code field} and the {@code match} type,
+ * so a slow like search on one field is not averaged away by the exact lookups. The meters are created up front for
+ * every combination, there is no registry lookup on the search path.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
 @Service
 @Transactional
 public class PersonServiceImpl implements PersonService {
+    private static final String EXACT = "exact";
+    private static final String LIKE = "like";
+
     private PersonRepo personRepo;
+    private final Map<FieldGroup, Map<String, SearchMeters>> searchMeters = new EnumMap<>(FieldGroup.class);
 
-    public PersonServiceImpl(PersonRepo personRepo) {
+    public PersonServiceImpl(PersonRepo personRepo, MeterRegistry meterRegistry) {
         this.personRepo = personRepo;
+        for (FieldGroup fg : FieldGroup.values()) {
+            searchMeters.put(fg, fg == FieldGroup.HIREDIN ? Map.of(EXACT, new SearchMeters(meterRegistry, fg, EXACT))
+                    : Map.of(EXACT, new SearchMeters(meterRegistry, fg, EXACT), LIKE, new SearchMeters(meterRegistry, fg, LIKE)));
+        }
     }
 
     @Override
@@ -67,24 +94,36 @@ public class PersonServiceImpl implements PersonService {
         return personRepo.count();
     }
 
+    @Cacheable(cacheNames = CacheConfig.PERSONS, unless = "#result == null")
     @Override
     public Optional<Person> findById(Long id) {
         return personRepo.findById(id);
     }
 
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PERSONS, key = "#person.id", condition = "#person.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.PERSONS_BY_USERNAME, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.DETECTIVES, allEntries = true)
+    })
     @Override
     public Person save(Person person) {
         personRepo.save(person);
         return person;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PERSONS, key = "#person.id", condition = "#person.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.PERSONS_BY_USERNAME, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.DETECTIVES, allEntries = true)
+    })
     @Override
     public Person updateFirstName(Person person, String newFirstname) {
         return personRepo.save(person);
     }
 
 
+    @Cacheable(cacheNames = CacheConfig.PERSONS_BY_USERNAME, unless = "#result == null")
     @Override
     public Optional<Person> findByUsername(String username) {
         return personRepo.findByUsername(username);
@@ -107,6 +146,11 @@ public class PersonServiceImpl implements PersonService {
         return personRepo.findByCompleteName(firstName,lastName);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PERSONS, key = "#person.id", condition = "#person.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.PERSONS_BY_USERNAME, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.DETECTIVES, allEntries = true)
+    })
     @Override
     public void delete(Person person) {
         personRepo.delete(person);
@@ -114,9 +158,23 @@ public class PersonServiceImpl implements PersonService {
 
     @Override
     public List<Person> getByCriteriaDto(CriteriaDto criteria) throws InvalidCriteriaException {
-        List<Person> persons = new ArrayList<>();
         FieldGroup fg = FieldGroup.getField(criteria.getFieldName());
+        // the hiring date is always matched exactly, whatever the criteria asks for
+        var meters = searchMeters.get(fg).get(fg == FieldGroup.HIREDIN || criteria.getExactMatch() ? EXACT : LIKE);
+        var sample = Timer.start();
+        try {
+            List<Person> persons = search(fg, criteria);
+            sample.stop(meters.success);
+            meters.results.record(persons.size());
+            return persons;
+        } catch (RuntimeException e) {
+            sample.stop(meters.error);
+            throw e;
+        }
+    }
 
+    private List<Person> search(FieldGroup fg, CriteriaDto criteria) throws InvalidCriteriaException {
+        List<Person> persons = new ArrayList<>();
         switch (fg) {
             case FIRSTNAME:
                 persons = criteria.getExactMatch() ? personRepo.findByFirstName(criteria.getFieldValue())
@@ -148,5 +206,26 @@ public class PersonServiceImpl implements PersonService {
         }
         return persons;
     }
-}
 
+    private static final class SearchMeters {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary results;
+
+        private SearchMeters(MeterRegistry registry, FieldGroup field, String match) {
+            success = timer(registry, field, match, "success");
+            error = timer(registry, field, match, "error");
+            results = DistributionSummary.builder("cems.person.search.results")
+                    .description("Number of persons matching the search criteria")
+                    .tags("field", field.name(), "match", match)
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, FieldGroup field, String match, String outcome) {
+            return Timer.builder("cems.person.search")
+                    .description("Person search by criteria execution time")
+                    .tags("field", field.name(), "match", match, "outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
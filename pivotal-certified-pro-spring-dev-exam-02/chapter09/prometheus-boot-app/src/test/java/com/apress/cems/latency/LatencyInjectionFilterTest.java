@@ -0,0 +1,161 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.latency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.DispatcherType;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+class LatencyInjectionFilterTest {
+    private static final long DELAY = 300;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void shouldApplyTheFirstRuleMatchingThePathAndMethod() throws Exception {
+        var filter = filter(rule("/persons/{id}", "GET", 0, 1, 500), rule("/persons/**", null, 0, 1, 503));
+
+        assertAll(
+                () -> assertEquals(500, execute(filter, "GET", "/persons/1").getStatus()),
+                () -> assertEquals(503, execute(filter, "POST", "/persons/1").getStatus()),
+                () -> assertEquals(503, execute(filter, "GET", "/persons/1/cases").getStatus()),
+                () -> assertEquals(200, execute(filter, "GET", "/detectives/1").getStatus())
+        );
+    }
+
+    @Test
+    void shouldDelayWithoutHoldingTheRequestThread() throws Exception {
+        var filter = filter(rule("/persons/**", null, DELAY, 0, 503));
+        var request = request("GET", "/persons/1");
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+
+        long start = System.nanoTime();
+        filter.doFilter(request, response, chain);
+
+        // the filter returned before the delay was over, leaving the request waiting for the scheduler
+        var asyncContext = (MockAsyncContext) request.getAsyncContext();
+        assertAll(
+                () -> assertTrue(request.isAsyncStarted()),
+                () -> assertNull(asyncContext.getDispatchedPath()),
+                () -> assertNull(chain.getRequest())
+        );
+        awaitDispatch(asyncContext);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(DELAY));
+
+        asyncDispatch(filter, request, response, chain);
+        assertSame(request, chain.getRequest());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void shouldSendTheInjectedFaultAfterTheDelay() throws Exception {
+        var filter = filter(rule("/persons/**", null, DELAY, 1, 504));
+        var request = request("GET", "/persons/1");
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+        assertEquals(200, response.getStatus());
+        awaitDispatch((MockAsyncContext) request.getAsyncContext());
+
+        asyncDispatch(filter, request, response, chain);
+        assertAll(
+                () -> assertNull(chain.getRequest()),
+                () -> assertEquals(504, response.getStatus()),
+                () -> assertEquals("Injected fault", response.getErrorMessage())
+        );
+    }
+
+    private LatencyInjectionFilter filter(LatencyInjectionProperties.Rule... rules) {
+        var properties = new LatencyInjectionProperties();
+        properties.setRules(List.of(rules));
+        return new LatencyInjectionFilter(properties, scheduler);
+    }
+
+    private static LatencyInjectionProperties.Rule rule(String path, String method, long delay, double errorRate, int errorStatus) {
+        var rule = new LatencyInjectionProperties.Rule();
+        rule.setPath(path);
+        rule.setMethod(method);
+        rule.setDelay(Duration.ofMillis(delay));
+        rule.setErrorRate(errorRate);
+        rule.setErrorStatus(errorStatus);
+        return rule;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        var request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static MockHttpServletResponse execute(LatencyInjectionFilter filter, String method, String path) throws Exception {
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path), response, new MockFilterChain());
+        return response;
+    }
+
+    private static void awaitDispatch(MockAsyncContext asyncContext) throws InterruptedException {
+        var dispatched = new CountDownLatch(1);
+        asyncContext.addDispatchHandler(dispatched::countDown);
+        assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Replays what the container does when the scheduler dispatches the request back.
+     */
+    private static void asyncDispatch(LatencyInjectionFilter filter, MockHttpServletRequest request,
+                                      MockHttpServletResponse response, MockFilterChain chain) throws Exception {
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, chain);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.metrics;
+
+import com.apress.cems.ex.InvalidCriteriaException;
+import com.apress.cems.person.PersonRepo;
+import com.apress.cems.person.services.PersonService;
+import com.apress.cems.util.CriteriaDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@SpringBootTest
+class RepositoryMetricsTest {
+
+    @Autowired
+    PersonRepo personRepo;
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void shouldTimeRepositoryMethodsByOutcome() {
+        var success = repositoryTimer("findAll", "success");
+        var calls = success.count();
+        var results = meterRegistry.get("cems.repository.results").tags("repository", "PersonRepo", "method", "findAll").summary();
+        var persons = results.totalAmount();
+
+        var found = personRepo.findAll();
+
+        assertAll(
+                () -> assertTrue(AopUtils.isAopProxy(personRepo)),
+                () -> assertEquals(calls + 1, success.count()),
+                () -> assertEquals(persons + found.size(), results.totalAmount()),
+                () -> assertThrows(InvalidDataAccessApiUsageException.class, () -> personRepo.findById(null)),
+                () -> assertEquals(1, repositoryTimer("findById", "error").count())
+        );
+    }
+
+    @Test
+    void shouldRecordOptionalResults() {
+        personRepo.findByCompleteName("Sherlock", "Holmes");
+        personRepo.findByCompleteName("John", "Nobody");
+
+        var results = meterRegistry.get("cems.repository.results").tags("repository", "PersonRepo", "method", "findByCompleteName").summary();
+        assertAll(
+                () -> assertEquals(2, results.count()),
+                () -> assertEquals(1, results.totalAmount())
+        );
+    }
+
+    @Test
+    void shouldTimeSearchesByFieldAndMatch() {
+        var like = searchTimer("FIRSTNAME", "like", "success");
+        var exact = searchTimer("FIRSTNAME", "exact", "success");
+        var likeCalls = like.count();
+        var exactCalls = exact.count();
+
+        var criteria = new CriteriaDto();
+        criteria.setFieldName("firstName");
+        criteria.setFieldValue("Sher");
+        criteria.setExactMatch(false);
+        var persons = personService.getByCriteriaDto(criteria);
+
+        var invalid = new CriteriaDto();
+        invalid.setFieldName("hiredIn");
+        invalid.setFieldValue("not a date");
+        invalid.setExactMatch(false);
+
+        assertAll(
+                () -> assertFalse(persons.isEmpty()),
+                () -> assertEquals(likeCalls + 1, like.count()),
+                () -> assertEquals(exactCalls, exact.count()),
+                () -> assertEquals(persons.size(), meterRegistry.get("cems.person.search.results")
+                        .tags("field", "FIRSTNAME", "match", "like").summary().totalAmount()),
+                () -> assertThrows(InvalidCriteriaException.class, () -> personService.getByCriteriaDto(invalid)),
+                () -> assertEquals(1, searchTimer("HIREDIN", "exact", "error").count())
+        );
+    }
+
+    private Timer repositoryTimer(String method, String outcome) {
+        return meterRegistry.get("cems.repository").tags("repository", "PersonRepo", "method", method, "outcome", outcome).timer();
+    }
+
+    private Timer searchTimer(String field, String match, String outcome) {
+        return meterRegistry.get("cems.person.search").tags("field", field, "match", match, "outcome", outcome).timer();
+    }
+}
@@ -27,6 +27,7 @@ SOFTWARE.
 */
 package com.apress.cems.detective;
 
+import com.apress.cems.base.VersionStamp;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -39,6 +40,9 @@ import java.util.Optional;
  */
 public interface DetectiveRepo extends JpaRepository<Detective, Long> {
 
+    @Query("select count(d) as count, max(d.id) as lastId, coalesce(sum(d.version), 0) as versions from Detective d")
+    VersionStamp findVersionStamp();
+
     @Query("select d from Detective d where d.badgeNumber=:bn")
     Optional<Detective> findByBadgeNumber(@Param("bn") String badgeNumber);
 }
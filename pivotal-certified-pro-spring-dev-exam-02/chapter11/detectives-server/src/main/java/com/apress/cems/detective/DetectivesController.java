@@ -27,10 +27,13 @@ SOFTWARE.
 */
 package com.apress.cems.detective;
 
+import com.apress.cems.base.ETags;
 import com.apress.cems.detective.services.DetectiveService;
 import com.apress.cems.ex.NotFoundException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -38,6 +41,10 @@ import java.util.Optional;
 import static com.apress.cems.base.AbstractEntity.COMPARATOR_BY_ID;
 
 /**
+ * The read endpoints send an {@code ETag} built from the versions of the returned detectives and answer a request whose
+ * {@code If-None-Match} matches it with an empty {@code 304}. The list of all detectives is tagged with the
+ * {@link com.apress.cems.base.VersionStamp} of the table, so an unchanged list is neither loaded nor serialized.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
@@ -54,23 +61,29 @@ public class DetectivesController {
     /**
      * Handles requests to list all detectives.
      */
-    @ResponseStatus(HttpStatus.OK)
     @GetMapping
-    public List<Detective> list() {
+    public ResponseEntity<List<Detective>> list(WebRequest request) {
+        var eTag = detectiveService.getVersionStamp().toETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<Detective> detectives =  detectiveService.findAll();
         detectives.sort(COMPARATOR_BY_ID);
-        return detectives;
+        return ResponseEntity.ok().eTag(eTag).body(detectives);
     }
 
     /**
      * Returns the {@code detective} instance with id {@code id}
      */
-    @ResponseStatus(HttpStatus.OK)
     @GetMapping("/{id}")
-    public Detective show(@PathVariable Long id) {
+    public ResponseEntity<Detective> show(@PathVariable Long id, WebRequest request) {
         var DetectiveOpt = detectiveService.findById(id);
         if(DetectiveOpt.isPresent()) {
-            return DetectiveOpt.get();
+            var eTag = ETags.of(DetectiveOpt.get());
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(eTag).body(DetectiveOpt.get());
         } else {
             throw new NotFoundException(Detective.class, id);
         }
@@ -27,6 +27,7 @@ SOFTWARE.
 */
 package com.apress.cems.detective.services;
 
+import com.apress.cems.base.VersionStamp;
 import com.apress.cems.detective.Detective;
 
 import java.util.List;
@@ -40,6 +41,8 @@ public interface DetectiveService {
 
     List<Detective> findAll();
 
+    VersionStamp getVersionStamp();
+
     Optional<Detective> findById(Long id);
 
     Optional<Detective> findByBadgeNumber(String badgeNumber);
@@ -27,6 +27,7 @@ SOFTWARE.
 */
 package com.apress.cems.detective.services;
 
+import com.apress.cems.base.VersionStamp;
 import com.apress.cems.detective.Detective;
 import com.apress.cems.detective.DetectiveRepo;
 import org.springframework.stereotype.Service;
@@ -54,6 +55,12 @@ public class DetectiveServiceImpl implements DetectiveService {
         return detectiveRepo.findAll();
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public VersionStamp getVersionStamp() {
+        return detectiveRepo.findVersionStamp();
+    }
+
     @Override
     public Optional<Detective> findById(Long id) {
         return detectiveRepo.findById(id);
@@ -0,0 +1,143 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.detective;
+
+import com.apress.cems.detective.services.DetectiveService;
+import com.apress.cems.util.EmploymentStatus;
+import com.apress.cems.util.Rank;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks the conditional requests of the detective endpoints: the tag of the list of all detectives is the
+ * {@code VersionStamp} of the table, the tag of a single detective comes from {@code ETags}.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"spring.config.name=detectives-server", "eureka.client.enabled=false"})
+class DetectivesControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    DetectiveService detectiveService;
+
+    private Detective detective;
+
+    @BeforeEach
+    void setUp() {
+        detective = new Detective();
+        detective.setPersonId(1L);
+        detective.setBadgeNumber("ETAG1887");
+        detective.setRank(Rank.JUNIOR);
+        detective.setStatus(EmploymentStatus.ACTIVE);
+        detective = detectiveService.save(detective);
+    }
+
+    @AfterEach
+    void tearDown() {
+        detectiveService.findById(detective.getId()).ifPresent(detectiveService::delete);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForAnUnchangedList() throws Exception {
+        var eTag = eTag("/detectives");
+
+        mockMvc.perform(get("/detectives").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldChangeTheListTagAfterASaveAndADelete() throws Exception {
+        var original = eTag("/detectives");
+
+        update(Rank.SENIOR);
+        var updated = changedETag("/detectives", original);
+
+        mockMvc.perform(delete("/detectives/" + detective.getId())).andExpect(status().isNoContent());
+        var deleted = changedETag("/detectives", updated);
+
+        assertNotEquals(original, deleted);
+    }
+
+    @Test
+    void shouldTagADetectiveByItsVersion() throws Exception {
+        var url = "/detectives/" + detective.getId();
+        var original = eTag(url);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, original))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        update(Rank.SENIOR);
+        changedETag(url, original);
+    }
+
+    private String eTag(String url) throws Exception {
+        var eTag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
+    }
+
+    /**
+     * Sends the previous tag back and expects the full response with another tag.
+     */
+    private String changedETag(String url, String previous) throws Exception {
+        var eTag = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, previous))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        assertNotEquals(previous, eTag);
+        return eTag;
+    }
+
+    private void update(Rank rank) throws Exception {
+        mockMvc.perform(put("/detectives/" + detective.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"badgeNumber\":\"" + detective.getBadgeNumber() + "\",\"rank\":\"" + rank
+                        + "\",\"armed\":false,\"status\":\"" + detective.getStatus() + "\"}"))
+                .andExpect(status().isNoContent());
+    }
+}
@@ -29,6 +29,7 @@ package com.apress.cems.base;
 
 import com.apress.cems.util.DateProcessor;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import javax.persistence.*;
@@ -95,6 +96,15 @@ public abstract class AbstractEntity implements Serializable {
         this.id = id;
     }
 
+    /**
+     * @return the optimistic locking version, incremented by every update of the entity. It is not serialized, the
+     * controllers send it as part of the {@code ETag} header instead.
+     */
+    @JsonIgnore
+    public int getVersion() {
+        return version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,55 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.base;
+
+import java.util.Collection;
+
+/**
+ * Builds entity tags from the id and the version of entities, two responses with the same tag carry the same data.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(AbstractEntity entity) {
+        return entity.getId() + "-" + entity.getVersion();
+    }
+
+    public static String of(Collection<? extends AbstractEntity> entities) {
+        long hash = 1;
+        for (AbstractEntity entity : entities) {
+            hash = 31 * hash + entity.getId();
+            hash = 31 * hash + entity.getVersion();
+        }
+        return entities.size() + "-" + Long.toHexString(hash);
+    }
+}
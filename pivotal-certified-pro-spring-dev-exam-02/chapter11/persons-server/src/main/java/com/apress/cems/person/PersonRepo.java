@@ -27,6 +27,7 @@ SOFTWARE.
 */
 package com.apress.cems.person;
 
+import com.apress.cems.base.VersionStamp;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -41,6 +42,9 @@ import java.util.Optional;
  */
 public interface PersonRepo extends JpaRepository<Person, Long> {
 
+    @Query("select count(p) as count, max(p.id) as lastId, coalesce(sum(p.version), 0) as versions from Person p")
+    VersionStamp findVersionStamp();
+
     @Query("select p from Person p where p.username like %?1%")
     Optional<Person> findByUsername(String username);
 
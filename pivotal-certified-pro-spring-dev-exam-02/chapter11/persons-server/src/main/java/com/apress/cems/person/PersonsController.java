@@ -27,6 +27,7 @@ SOFTWARE.
 */
 package com.apress.cems.person;
 
+import com.apress.cems.base.ETags;
 import com.apress.cems.ex.NotFoundException;
 import com.apress.cems.person.services.PersonService;
 import com.apress.cems.util.CriteriaDto;
@@ -34,26 +35,35 @@ import com.apress.cems.util.NumberGenerator;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriTemplate;
 
 import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.apress.cems.base.AbstractEntity.COMPARATOR_BY_ID;
 
 /**
+ * The read endpoints send an {@code ETag} built from the versions of the returned persons and answer a request whose
+ * {@code If-None-Match} matches it with an empty {@code 304}. The list of all persons is tagged with the
+ * {@link com.apress.cems.base.VersionStamp} of the table, so an unchanged list is neither loaded nor serialized.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
 @RestController
 @RequestMapping("/persons")
 public class PersonsController {
+    static final int MAX_IDS = 100;
+
     private PersonService personService;
 
     public PersonsController(PersonService personService) {
@@ -63,12 +73,33 @@ public class PersonsController {
     /**
      * Handles requests to list all persons.
      */
-    @ResponseStatus(HttpStatus.OK)
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<Person> list() {
+    public ResponseEntity<List<Person>> list(WebRequest request) {
+        var eTag = personService.getVersionStamp().toETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<Person> persons =  personService.findAll();
         persons.sort(COMPARATOR_BY_ID);
-        return persons;
+        return ResponseEntity.ok().eTag(eTag).body(persons);
+    }
+
+    /**
+     * Handles requests to list the persons with the given ids, e.g. {@code /persons?ids=1,2,3}, so that a client
+     * needing many persons does not request them one by one. Ids that do not exist are skipped.
+     */
+    @GetMapping(params = "ids", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<Person>> listByIds(@RequestParam Set<Long> ids, WebRequest request) {
+        if (ids.size() > MAX_IDS) {
+            throw new PersonsException(HttpStatus.BAD_REQUEST, "Cannot return more than " + MAX_IDS + " persons at once.");
+        }
+        List<Person> persons = personService.findAllById(ids);
+        persons.sort(COMPARATOR_BY_ID);
+        var eTag = ETags.of(persons);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(persons);
     }
 
     /**
@@ -128,12 +159,15 @@ public class PersonsController {
      * @param id
      * @return
      */
-    @ResponseStatus(HttpStatus.OK)
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Person show(@PathVariable Long id) {
+    public ResponseEntity<Person> show(@PathVariable Long id, WebRequest request) {
         var personOpt = personService.findById(id);
         if(personOpt.isPresent()) {
-            return personOpt.get();
+            var eTag = ETags.of(personOpt.get());
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(eTag).body(personOpt.get());
         } else {
             throw new NotFoundException(Person.class, id );
         }
@@ -170,4 +204,10 @@ public class PersonsController {
         var personOpt = personService.findById(id);
         personOpt.ifPresent(value -> personService.delete(value));
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler({PersonsException.class})
+    public ResponseEntity<String> handlePersonsException(PersonsException e) {
+        var status = e.getStatus() == null ? HttpStatus.INTERNAL_SERVER_ERROR : e.getStatus();
+        return ResponseEntity.status(status).body(e.getMessage());
+    }
+}
@@ -27,10 +27,12 @@ SOFTWARE.
 */
 package com.apress.cems.person.services;
 
+import com.apress.cems.base.VersionStamp;
 import com.apress.cems.ex.InvalidCriteriaException;
 import com.apress.cems.person.Person;
 import com.apress.cems.util.CriteriaDto;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,8 +45,12 @@ public interface PersonService {
 
     long countPersons();
 
+    VersionStamp getVersionStamp();
+
     Optional<Person> findById(Long id);
 
+    List<Person> findAllById(Collection<Long> ids);
+
     Person save(Person person);
 
     Person updateFirstName(Person person, String newFirstname);
@@ -27,6 +27,7 @@ SOFTWARE.
 */
 package com.apress.cems.person.services;
 
+import com.apress.cems.base.VersionStamp;
 import com.apress.cems.ex.InvalidCriteriaException;
 import com.apress.cems.person.Person;
 import com.apress.cems.person.PersonRepo;
@@ -40,6 +41,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -67,11 +69,22 @@ public class PersonServiceImpl implements PersonService {
         return personRepo.count();
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public VersionStamp getVersionStamp() {
+        return personRepo.findVersionStamp();
+    }
+
     @Override
     public Optional<Person> findById(Long id) {
         return personRepo.findById(id);
     }
 
+    @Override
+    public List<Person> findAllById(Collection<Long> ids) {
+        return personRepo.findAllById(ids);
+    }
+
 
     @Override
     public Person save(Person person) {
@@ -0,0 +1,170 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.person;
+
+import com.apress.cems.person.services.PersonService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks the conditional requests of the person endpoints: the tag of the list of all persons is the
+ * {@code VersionStamp} of the table, the tags of the selected persons and of a single person come from {@code ETags}.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"spring.config.name=persons-server", "eureka.client.enabled=false"})
+class PersonsControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    PersonService personService;
+
+    private final List<Person> created = new ArrayList<>();
+    private Person first;
+    private Person second;
+
+    @BeforeEach
+    void setUp() {
+        first = create("mycroft.holmes", "Mycroft");
+        second = create("mary.watson", "Mary");
+    }
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(person -> personService.findById(person.getId()).ifPresent(personService::delete));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForAnUnchangedList() throws Exception {
+        var eTag = eTag("/persons");
+
+        mockMvc.perform(get("/persons").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldChangeTheListTagAfterASaveAndADelete() throws Exception {
+        var original = eTag("/persons");
+
+        update(first, "Sherrinford");
+        var updated = changedETag("/persons", original);
+
+        mockMvc.perform(delete("/persons/" + second.getId())).andExpect(status().isNoContent());
+        var deleted = changedETag("/persons", updated);
+
+        assertNotEquals(original, deleted);
+    }
+
+    @Test
+    void shouldTagTheSelectedPersonsByTheirVersions() throws Exception {
+        var url = "/persons?ids=" + first.getId() + "," + second.getId();
+        var original = eTag(url);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, original))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        update(second, "Mary Jane");
+        var updated = changedETag(url, original);
+
+        mockMvc.perform(delete("/persons/" + first.getId())).andExpect(status().isNoContent());
+        changedETag(url, updated);
+    }
+
+    @Test
+    void shouldTagAPersonByItsVersion() throws Exception {
+        var url = "/persons/" + first.getId();
+        var original = eTag(url);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, original))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        update(first, "Sherrinford");
+        changedETag(url, original);
+    }
+
+    private String eTag(String url) throws Exception {
+        var eTag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
+    }
+
+    /**
+     * Sends the previous tag back and expects the full response with another tag.
+     */
+    private String changedETag(String url, String previous) throws Exception {
+        var eTag = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, previous))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        assertNotEquals(previous, eTag);
+        return eTag;
+    }
+
+    private void update(Person person, String firstName) throws Exception {
+        mockMvc.perform(put("/persons/" + person.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + person.getUsername() + "\",\"firstName\":\"" + firstName
+                        + "\",\"lastName\":\"" + person.getLastName() + "\"}"))
+                .andExpect(status().isNoContent());
+    }
+
+    private Person create(String username, String firstName) {
+        var person = new Person();
+        person.setUsername(username);
+        person.setFirstName(firstName);
+        person.setLastName("Holmes");
+        person.setPassword("etag1887");
+        person.setHiringDate(LocalDateTime.now());
+        var saved = personService.save(person);
+        created.add(saved);
+        return saved;
+    }
+}
@@ -27,7 +27,6 @@ SOFTWARE.
 */
 package com.apress.cems.web;
 
-import com.apress.cems.detective.Detective;
 import com.apress.cems.ex.InvalidCriteriaException;
 import com.apress.cems.person.Person;
 import com.apress.cems.util.CriteriaDto;
@@ -42,11 +41,15 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Locale;
 
 /**
+ * When a service cannot be reached, the list pages are rendered empty with a notice instead of failing, and a detective
+ * is shown without the details of its person.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
@@ -56,26 +59,31 @@ public class AllWebController {
     private static Logger logger = LoggerFactory.getLogger(AllWebController.class);
 
     private AllWebServices allWebServices;
+    private ReactiveWebServices reactiveWebServices;
     private MessageSource messageSource;
 
 
-    public AllWebController(AllWebServices allWebServices, MessageSource messageSource) {
+    public AllWebController(AllWebServices allWebServices, ReactiveWebServices reactiveWebServices, MessageSource messageSource) {
         this.allWebServices = allWebServices;
+        this.reactiveWebServices = reactiveWebServices;
         this.messageSource = messageSource;
     }
 
     @GetMapping(value = "/persons")
-    public String listPersons(Model model) {
+    public Mono<String> listPersons(Model model) {
         logger.info("Populating model with person list...");
-        List<Person> persons =  allWebServices.getAllPersons();
-        model.addAttribute("persons", persons);
-        return "persons/list";
+        return orUnavailable(reactiveWebServices.getAllPersons(), model).map(persons -> {
+            model.addAttribute("persons", persons);
+            return "persons/list";
+        });
     }
 
     @GetMapping(value = "/persons/{id}")
-    public String getPerson(@PathVariable Long id, Model model){
-        model.addAttribute("person", allWebServices.getPerson(id));
-        return "persons/show";
+    public Mono<String> getPerson(@PathVariable Long id, Model model){
+        return reactiveWebServices.getPerson(id).map(person -> {
+            model.addAttribute("person", person);
+            return "persons/show";
+        });
     }
 
     @GetMapping(value = "/persons/form")
@@ -107,17 +115,27 @@ public class AllWebController {
     }
 
     @GetMapping(value = "/detectives")
-    public String listDetectives(Model model) {
+    public Mono<String> listDetectives(Model model) {
         logger.info("Populating model with detective list...");
-        List<Detective> detectives =  allWebServices.getAllDetectives();
-        model.addAttribute("detectives", detectives);
-        return "detectives/list";
+        return orUnavailable(reactiveWebServices.getAllDetectives(), model).map(detectives -> {
+            model.addAttribute("detectives", detectives);
+            return "detectives/list";
+        });
     }
 
     @GetMapping(value = "/detectives/{id}")
-    public String getDetective(@PathVariable Long id, Model model){
-        model.addAttribute("detective", allWebServices.getDetective(id));
-        return "detectives/show";
+    public Mono<String> getDetective(@PathVariable Long id, Model model){
+        return reactiveWebServices.getDetective(id).map(detective -> {
+            model.addAttribute("detective", detective);
+            return "detectives/show";
+        });
     }
 
+    private <T> Mono<List<T>> orUnavailable(Mono<List<T>> list, Model model) {
+        return list.onErrorResume(e -> {
+            logger.warn("Rendering an empty list: {}", e.toString());
+            model.addAttribute("unavailable", true);
+            return Mono.just(List.of());
+        });
+    }
 }
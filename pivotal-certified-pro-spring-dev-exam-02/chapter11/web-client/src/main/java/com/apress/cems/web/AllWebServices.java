@@ -27,7 +27,6 @@ SOFTWARE.
 */
 package com.apress.cems.web;
 
-import com.apress.cems.detective.Detective;
 import com.apress.cems.ex.InvalidCriteriaException;
 import com.apress.cems.person.Person;
 import com.apress.cems.util.CriteriaDto;
@@ -37,10 +36,15 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static com.apress.cems.base.AbstractEntity.COMPARATOR_BY_ID;
 
 /**
+ * Serves the search form with the {@code RestTemplate}, the pages use the non-blocking {@link ReactiveWebServices}.
+ * Its calls go through the same {@link ServiceGuard}s, a slow service fails the calls over its bulkhead instead of
+ * holding more servlet threads.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
@@ -49,48 +53,22 @@ public class AllWebServices {
 
     private RestTemplate restTemplate;
 
-    private static final String PERSONS_SERVICE_URL = "http://persons-service";
+    private ServiceGuards guards;
 
-    private static final String DETECTIVES_SERVICE_URL = "http://detectives-service";
+    private static final String PERSONS_SERVICE = "persons-service";
 
-    public AllWebServices(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
-    }
-
-    List<Person> getAllPersons(){
-        var persons = restTemplate.getForObject(PERSONS_SERVICE_URL.concat("/persons"), Person[].class);
-        assert persons != null;
-        var personsList =  Arrays.asList(persons);
-        personsList.sort(COMPARATOR_BY_ID);
-        return personsList;
-    }
+    private static final String PERSONS_SERVICE_URL = "http://" + PERSONS_SERVICE;
 
-    Person getPerson(Long personId) {
-        return restTemplate.getForObject(PERSONS_SERVICE_URL.concat("/persons/" + personId), Person.class);
-    }
-
-    List<Detective> getAllDetectives(){
-        var detectives = restTemplate.getForObject(DETECTIVES_SERVICE_URL.concat("/detectives"), Detective[].class);
-        assert detectives != null;
-        var detectiveList =  Arrays.asList(detectives);
-        detectiveList.forEach(d ->
-            d.setPerson(restTemplate.getForObject(PERSONS_SERVICE_URL.concat("/persons/" + d.getPersonId()), Person.class))
-        );
-        detectiveList.sort(COMPARATOR_BY_ID);
-        return detectiveList;
-    }
-
-    Detective getDetective(Long detectiveId) {
-        var detective = restTemplate.getForObject(DETECTIVES_SERVICE_URL.concat("/detectives/" + detectiveId), Detective.class);
-        detective.setPerson(getPerson(detective.getPersonId()));
-        return detective;
+    public AllWebServices(RestTemplate restTemplate, ServiceGuards guards) {
+        this.restTemplate = restTemplate;
+        this.guards = guards;
     }
 
     List<Person> getByCriteriaDto(CriteriaDto criteria) throws InvalidCriteriaException {
         var headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         HttpEntity<CriteriaDto> entity = new HttpEntity<>(criteria, headers);
-        ResponseEntity<Person[]> responseEntity = restTemplate.exchange(PERSONS_SERVICE_URL.concat("/persons/search"), HttpMethod.GET, entity, Person[].class);
+        ResponseEntity<Person[]> responseEntity = persons(() -> restTemplate.exchange(PERSONS_SERVICE_URL.concat("/persons/search"), HttpMethod.GET, entity, Person[].class));
 
         var persons = responseEntity.getBody();
         assert persons != null;
@@ -98,4 +76,8 @@ public class AllWebServices {
         personsList.sort(COMPARATOR_BY_ID);
         return personsList;
     }
+
+    private <T> T persons(Supplier<T> call) {
+        return guards.forService(PERSONS_SERVICE).call(call);
+    }
 }
@@ -0,0 +1,229 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.web;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerRequest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses between the instances of a service by their load instead of in turn: two instances are picked at random
+ * and the one with the lower cost wins. The cost of an instance is its latency multiplied by the requests it has in
+ * flight, plus one, so a slow instance and a busy instance both receive fewer requests. Comparing two random
+ * instances instead of all of them keeps clients that see the same costs from sending all their requests to the same
+ * instance.
+ *
+ * The latency is an exponentially weighted moving average of the response times, each response moving it by
+ * {@value #LATENCY_WEIGHT} of the difference. While an instance gets no requests its latency decays, so an instance
+ * that was slow is tried again after a while. A failed request or a 5xx response counts as a response taking the call
+ * timeout.
+ *
+ * The requests of the {@code RestTemplate} are tracked in {@link #execute(String, ServiceInstance, LoadBalancerRequest)},
+ * the ones of the reactive client by this class used as a filter, matching the instance by host and port.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public class LoadAwareLoadBalancerClient implements LoadBalancerClient, ExchangeFilterFunction {
+
+    static final double LATENCY_WEIGHT = 0.3;
+
+    private final DiscoveryClient discoveryClient;
+    private final long decayNanos;
+    private final long failureNanos;
+    private final LongSupplier clock;
+
+    private final Map<String, InstanceLoad> loads = new ConcurrentHashMap<>();
+
+    public LoadAwareLoadBalancerClient(DiscoveryClient discoveryClient, Duration latencyDecay, Duration failurePenalty) {
+        this(discoveryClient, latencyDecay, failurePenalty, System::nanoTime);
+    }
+
+    LoadAwareLoadBalancerClient(DiscoveryClient discoveryClient, Duration latencyDecay, Duration failurePenalty, LongSupplier clock) {
+        this.discoveryClient = discoveryClient;
+        this.decayNanos = latencyDecay.toNanos();
+        this.failureNanos = failurePenalty.toNanos();
+        this.clock = clock;
+    }
+
+    @Override
+    public ServiceInstance choose(String serviceId) {
+        var instances = discoveryClient.getInstances(serviceId);
+        if (instances.isEmpty()) {
+            return null;
+        }
+        if (instances.size() == 1) {
+            return instances.get(0);
+        }
+        var random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            ++second;
+        }
+        var a = instances.get(first);
+        var b = instances.get(second);
+        long now = clock.getAsLong();
+        return loadOf(a).cost(now) <= loadOf(b).cost(now) ? a : b;
+    }
+
+    @Override
+    public <T> T execute(String serviceId, LoadBalancerRequest<T> request) throws IOException {
+        var instance = choose(serviceId);
+        if (instance == null) {
+            throw new IllegalStateException("No instance of " + serviceId + " is available.");
+        }
+        return execute(serviceId, instance, request);
+    }
+
+    @Override
+    public <T> T execute(String serviceId, ServiceInstance serviceInstance, LoadBalancerRequest<T> request) throws IOException {
+        var load = loadOf(serviceInstance);
+        long start = load.start();
+        boolean failed = true;
+        try {
+            var result = request.apply(serviceInstance);
+            failed = result instanceof ClientHttpResponse && ((ClientHttpResponse) result).getRawStatusCode() >= 500;
+            return result;
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        } finally {
+            load.finish(start, failed);
+        }
+    }
+
+    @Override
+    public URI reconstructURI(ServiceInstance instance, URI original) {
+        return LoadBalancerUriTools.reconstructURI(instance, original);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        var load = loads.get(key(request.url().getHost(), request.url().getPort()));
+        if (load == null) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            long start = load.start();
+            var finished = new AtomicBoolean();
+            return next.exchange(request)
+                    .doOnSuccess(response -> {
+                        if (finished.compareAndSet(false, true)) {
+                            load.finish(start, response == null || response.rawStatusCode() >= 500);
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (finished.compareAndSet(false, true)) {
+                            load.finish(start, true);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (finished.compareAndSet(false, true)) {
+                            load.cancel();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * @return the requests in flight to the instance
+     */
+    int inFlight(ServiceInstance instance) {
+        return loadOf(instance).inFlight.get();
+    }
+
+    private InstanceLoad loadOf(ServiceInstance instance) {
+        return loads.computeIfAbsent(key(instance.getHost(), instance.getPort()), key -> new InstanceLoad());
+    }
+
+    private static String key(String host, int port) {
+        return host + ":" + port;
+    }
+
+    private class InstanceLoad {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double latency;
+        private long updatedAt;
+
+        private long start() {
+            inFlight.incrementAndGet();
+            return clock.getAsLong();
+        }
+
+        private void finish(long start, boolean failed) {
+            inFlight.decrementAndGet();
+            long now = clock.getAsLong();
+            record(now, failed ? Math.max(now - start, failureNanos) : now - start);
+        }
+
+        private void cancel() {
+            inFlight.decrementAndGet();
+        }
+
+        private synchronized void record(long now, long nanos) {
+            latency = updatedAt == 0 ? nanos : latency + LATENCY_WEIGHT * (nanos - latency);
+            updatedAt = now;
+        }
+
+        /**
+         * An instance without a response yet costs as much as a failure per request in flight, so the first requests
+         * do not all rush to it.
+         */
+        private synchronized double cost(long now) {
+            int requests = inFlight.get();
+            if (updatedAt == 0) {
+                return (double) failureNanos * requests;
+            }
+            return latency * weight(now) * (requests + 1);
+        }
+
+        private double weight(long now) {
+            return updatedAt == 0 ? 0 : Math.exp(-(double) Math.max(0, now - updatedAt) / decayNanos);
+        }
+    }
+}
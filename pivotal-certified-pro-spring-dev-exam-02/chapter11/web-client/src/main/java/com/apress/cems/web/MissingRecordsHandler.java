@@ -51,4 +51,13 @@ public class MissingRecordsHandler {
         mav.setViewName("error");
         return mav;
     }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(value= HttpStatus.SERVICE_UNAVAILABLE)
+    public ModelAndView unavailable(HttpServletRequest req, ServiceUnavailableException sue) {
+        var mav = new ModelAndView();
+        mav.addObject("problem", sue.getMessage());
+        mav.setViewName("error");
+        return mav;
+    }
 }
@@ -0,0 +1,79 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.web;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * The non-blocking client used by {@link ReactiveWebServices}. All service calls share one bounded pool of
+ * keep-alive connections, a request that cannot get a connection within the call timeout fails instead of queueing
+ * forever. Responses are revalidated through the {@link RevalidatingResponseCache}.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Configuration
+@EnableConfigurationProperties(ServiceClientProperties.class)
+class ReactiveClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider servicesConnectionProvider(ServiceClientProperties properties) {
+        return ConnectionProvider.fixed("services", properties.getMaxConnections(), properties.getTimeout().toMillis());
+    }
+
+    /**
+     * Replaces the Ribbon load balancer, which is only created when no other {@code LoadBalancerClient} is defined.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cems.client.load-aware", matchIfMissing = true)
+    LoadAwareLoadBalancerClient loadAwareLoadBalancerClient(DiscoveryClient discoveryClient, ServiceClientProperties properties) {
+        return new LoadAwareLoadBalancerClient(discoveryClient, properties.getLatencyDecay(), properties.getTimeout());
+    }
+
+    @Bean
+    WebClient servicesWebClient(WebClient.Builder builder, ConnectionProvider servicesConnectionProvider, ServiceClientProperties properties,
+            RevalidatingResponseCache responseCache, ObjectProvider<LoadAwareLoadBalancerClient> loadAwareLoadBalancer) {
+        var httpClient = HttpClient.create(servicesConnectionProvider)
+                .tcpConfiguration(tcp -> tcp.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis()));
+        builder.clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(responseCache);
+        // the load-aware balancer needs to see the responses to weigh the instances
+        loadAwareLoadBalancer.ifAvailable(builder::filter);
+        return builder.build();
+    }
+}
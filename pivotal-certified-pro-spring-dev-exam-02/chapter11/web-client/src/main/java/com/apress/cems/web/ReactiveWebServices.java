@@ -0,0 +1,228 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.web;
+
+import com.apress.cems.base.AbstractEntity;
+import com.apress.cems.detective.Detective;
+import com.apress.cems.person.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.apress.cems.base.AbstractEntity.COMPARATOR_BY_ID;
+
+/**
+ * Non-blocking client of the services, used by the pages: no thread waits while a service answers, so a page that
+ * needs several calls does not hold a servlet thread for all of them.
+ *
+ * Every call picks an instance with the {@code LoadBalancerClient} and is limited by the configured timeout. A call that
+ * fails or times out is retried with an exponential backoff and a random jitter, so the retries of many clients
+ * do not hit a recovering instance at the same moment. When a hedge delay is configured, a call still running after
+ * that delay is sent to another instance too and the first answer wins, the other request is cancelled.
+ *
+ * Every request, hedges and retries included, goes through the {@link ServiceGuard} of its service. A request refused
+ * by the guard is not retried: the service is known to be overloaded or down.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Service
+public class ReactiveWebServices {
+    private static Logger logger = LoggerFactory.getLogger(ReactiveWebServices.class);
+
+    private static final String PERSONS_SERVICE = "persons-service";
+
+    private static final String DETECTIVES_SERVICE = "detectives-service";
+
+    private static final int HEDGE_CHOICES = 3;
+
+    static final int PERSONS_BATCH_SIZE = 50;
+
+    private WebClient webClient;
+    private LoadBalancerClient loadBalancer;
+    private ServiceClientProperties properties;
+    private ServiceGuards guards;
+
+    public ReactiveWebServices(WebClient servicesWebClient, LoadBalancerClient loadBalancer, ServiceClientProperties properties,
+            ServiceGuards guards) {
+        this.webClient = servicesWebClient;
+        this.loadBalancer = loadBalancer;
+        this.properties = properties;
+        this.guards = guards;
+    }
+
+    Mono<List<Person>> getAllPersons() {
+        return get(PERSONS_SERVICE, Person[].class, "/persons").map(ReactiveWebServices::sortedById);
+    }
+
+    Mono<Person> getPerson(Long personId) {
+        return get(PERSONS_SERVICE, Person.class, "/persons/{id}", personId);
+    }
+
+    /**
+     * The persons are requested in batches of at most {@value #PERSONS_BATCH_SIZE} ids, each person once no matter how
+     * many detectives share it. A batch that fails after its retries leaves its detectives without person details.
+     */
+    Mono<List<Detective>> getAllDetectives() {
+        return get(DETECTIVES_SERVICE, Detective[].class, "/detectives").flatMap(detectives -> {
+            var ids = Arrays.stream(detectives).map(Detective::getPersonId).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+            List<String> batches = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += PERSONS_BATCH_SIZE) {
+                batches.add(StringUtils.collectionToCommaDelimitedString(ids.subList(from, Math.min(ids.size(), from + PERSONS_BATCH_SIZE))));
+            }
+            return Flux.fromIterable(batches)
+                    .flatMap(batch -> get(PERSONS_SERVICE, Person[].class, "/persons?ids={ids}", batch)
+                            .onErrorResume(e -> {
+                                logger.warn("Could not load persons {}: {}", batch, e.toString());
+                                return Mono.empty();
+                            }), properties.getMaxConcurrency())
+                    .flatMapIterable(Arrays::asList)
+                    .collectMap(Person::getId)
+                    .map(persons -> {
+                        var detectiveList = sortedById(detectives);
+                        detectiveList.forEach(d -> d.setPerson(persons.get(d.getPersonId())));
+                        return detectiveList;
+                    });
+        });
+    }
+
+    /**
+     * A detective whose person cannot be loaded is returned without the person details.
+     */
+    Mono<Detective> getDetective(Long detectiveId) {
+        return get(DETECTIVES_SERVICE, Detective.class, "/detectives/{id}", detectiveId)
+                .flatMap(detective -> getPerson(detective.getPersonId())
+                        .map(person -> {
+                            detective.setPerson(person);
+                            return detective;
+                        })
+                        .onErrorResume(e -> {
+                            logger.warn("Could not load person {}: {}", detective.getPersonId(), e.toString());
+                            return Mono.just(detective);
+                        }));
+    }
+
+    private <T> Mono<T> get(String serviceId, Class<T> type, String path, Object... uriVariables) {
+        var guard = guards.forService(serviceId);
+        Function<ServiceInstance, Mono<T>> call = instance -> guard.protect(webClient.get()
+                .uri(instance.getUri() + path, uriVariables)
+                .attribute(RevalidatingResponseCache.SERVICE_ID_ATTRIBUTE, serviceId)
+                .retrieve()
+                .bodyToMono(type)
+                .timeout(properties.getTimeout()));
+        return hedged(serviceId, call).retryWhen(this::retryWithJitter);
+    }
+
+    /**
+     * The second instance is only chosen when the hedge delay passes, so the requests answered in time do not move
+     * the load balancer and the load stays spread over the instances.
+     */
+    private <T> Mono<T> hedged(String serviceId, Function<ServiceInstance, Mono<T>> call) {
+        return Mono.defer(() -> {
+            var primary = choose(serviceId);
+            var request = call.apply(primary);
+            var hedgeDelay = properties.getHedgeDelay();
+            if (hedgeDelay == null || hedgeDelay.isZero()) {
+                return request;
+            }
+            var hedge = Mono.defer(() -> {
+                var secondary = chooseOther(serviceId, primary);
+                if (secondary == null) {
+                    // a single instance: keep waiting for the first request
+                    return Mono.<T>never();
+                }
+                logger.debug("Hedging {} on {}", serviceId, secondary.getUri());
+                return call.apply(secondary);
+            }).delaySubscription(hedgeDelay);
+            return Mono.first(request, hedge);
+        });
+    }
+
+    private ServiceInstance choose(String serviceId) {
+        var instance = loadBalancer.choose(serviceId);
+        if (instance == null) {
+            throw new IllegalStateException("No instance of " + serviceId + " is available.");
+        }
+        return instance;
+    }
+
+    /**
+     * The load balancer moves on with every choice, but concurrent calls may take the instance meant for this one,
+     * so it is asked a few times before giving up.
+     */
+    private ServiceInstance chooseOther(String serviceId, ServiceInstance primary) {
+        for (int i = 0; i < HEDGE_CHOICES; ++i) {
+            var instance = loadBalancer.choose(serviceId);
+            if (instance != null && !instance.getUri().equals(primary.getUri())) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    private Flux<Long> retryWithJitter(Flux<Throwable> errors) {
+        return errors.zipWith(Flux.range(1, Integer.MAX_VALUE)).concatMap(failure -> {
+            var error = failure.getT1();
+            int attempt = failure.getT2();
+            if (attempt > properties.getRetries() || !isRetryable(error)) {
+                return Mono.error(error);
+            }
+            long backoff = properties.getRetryBackoff().toMillis() << (attempt - 1);
+            return Mono.delay(Duration.ofMillis(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1)));
+        });
+    }
+
+    private static <T extends AbstractEntity> List<T> sortedById(T[] entities) {
+        var list = Arrays.asList(entities);
+        list.sort(COMPARATOR_BY_ID);
+        return list;
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            return ((WebClientResponseException) error).getStatusCode().is5xxServerError();
+        }
+        return !(error instanceof IllegalStateException || error instanceof ServiceUnavailableException);
+    }
+}
@@ -0,0 +1,269 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.web;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the last body and {@code ETag} of every {@code GET} sent to the services and revalidates it instead of
+ * fetching it again: the request carries {@code If-None-Match} and a {@code 304} is answered with the cached body,
+ * so an unchanged list of persons or detectives costs a single version query on the server and no payload on the
+ * wire. Responses without an {@code ETag} are not cached. Used by the {@link org.springframework.web.client.RestTemplate}
+ * as an interceptor and by the reactive {@link org.springframework.web.reactive.function.client.WebClient} as a filter.
+ *
+ * The entries are keyed on the logical service URI, e.g. {@code http://persons-service/persons/1}, so a response
+ * fetched from one instance is revalidated against whichever instance the next request goes to. The interceptor runs
+ * before the {@code LoadBalancerInterceptor} that {@code @LoadBalanced} appends, so it sees that URI. The reactive
+ * requests are sent to the chosen instance directly and carry the service id in the {@value #SERVICE_ID_ATTRIBUTE}
+ * attribute, the filter puts it back in place of the host and port. The keys are decoded, so both clients find the
+ * same entry whatever the encoding of their query. The cache holds at most {@code maxBytes} of bodies, the least
+ * recently used entries are dropped first and a body larger than the whole cache is not kept.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public class RevalidatingResponseCache implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+    /**
+     * Request attribute holding the id of the service a reactive request is sent to.
+     */
+    static final String SERVICE_ID_ATTRIBUTE = RevalidatingResponseCache.class.getName() + ".serviceId";
+
+    private static final DefaultDataBufferFactory BUFFER_FACTORY = new DefaultDataBufferFactory();
+
+    private final Map<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long maxBytes;
+
+    private long bytes;
+
+    public RevalidatingResponseCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public RevalidatingResponseCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (request.getMethod() != HttpMethod.GET || body.length > 0) {
+            return execution.execute(request, body);
+        }
+        var key = key(request.getURI());
+        var cached = get(key);
+        if (cached != null) {
+            request.getHeaders().setIfNoneMatch(cached.eTag);
+        }
+        var response = execution.execute(request, body);
+        if (cached != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            return new CachedClientHttpResponse(cached);
+        }
+        var eTag = response.getHeaders().getETag();
+        if (eTag == null || response.getRawStatusCode() != HttpStatus.OK.value()) {
+            return response;
+        }
+        var entry = new CachedResponse(eTag, response.getHeaders().getContentType(), StreamUtils.copyToByteArray(response.getBody()));
+        response.close();
+        put(key, entry);
+        return new CachedClientHttpResponse(entry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (request.method() != HttpMethod.GET) {
+            return next.exchange(request);
+        }
+        var key = key(request.attribute(SERVICE_ID_ATTRIBUTE)
+                .map(serviceId -> UriComponentsBuilder.fromUri(request.url()).host(serviceId.toString()).port(-1).build(true).toUri())
+                .orElse(request.url()));
+        var cached = get(key);
+        var sent = cached == null ? request : ClientRequest.from(request)
+                .headers(headers -> headers.setIfNoneMatch(cached.eTag))
+                .build();
+        return next.exchange(sent).flatMap(response -> {
+            if (cached != null && response.rawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                return response.releaseBody().thenReturn(toClientResponse(response, cached));
+            }
+            var eTag = response.headers().asHttpHeaders().getETag();
+            if (eTag == null || response.rawStatusCode() != HttpStatus.OK.value()) {
+                return Mono.just(response);
+            }
+            return DataBufferUtils.join(response.body((message, context) -> message.getBody()))
+                    .map(buffer -> {
+                        var bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .map(bytes -> {
+                        var entry = new CachedResponse(eTag, response.headers().contentType().orElse(null), bytes);
+                        put(key, entry);
+                        return toClientResponse(response, entry);
+                    });
+        });
+    }
+
+    private static ClientResponse toClientResponse(ClientResponse response, CachedResponse cached) {
+        Flux<DataBuffer> body = Flux.defer(() -> Flux.just(BUFFER_FACTORY.wrap(cached.body)));
+        return ClientResponse.from(response)
+                .statusCode(HttpStatus.OK)
+                .headers(cached::writeTo)
+                .body(body)
+                .build();
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    long bytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    private static String key(URI uri) {
+        return UriUtils.decode(uri.toString(), StandardCharsets.UTF_8);
+    }
+
+    private CachedResponse get(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void put(String key, CachedResponse entry) {
+        synchronized (entries) {
+            var previous = entry.body.length > maxBytes ? entries.remove(key) : entries.put(key, entry);
+            if (previous != null) {
+                bytes -= previous.body.length;
+            }
+            if (entry.body.length > maxBytes) {
+                return;
+            }
+            bytes += entry.body.length;
+            for (var eldest = entries.values().iterator(); bytes > maxBytes; ) {
+                bytes -= eldest.next().body.length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private static final class CachedResponse {
+        private final String eTag;
+        private final MediaType contentType;
+        private final byte[] body;
+
+        private CachedResponse(String eTag, MediaType contentType, byte[] body) {
+            this.eTag = eTag;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        private void writeTo(HttpHeaders headers) {
+            headers.setETag(eTag);
+            headers.setContentLength(body.length);
+            if (contentType != null) {
+                headers.setContentType(contentType);
+            }
+        }
+    }
+
+    private static final class CachedClientHttpResponse implements ClientHttpResponse {
+        private final CachedResponse cached;
+
+        private CachedClientHttpResponse(CachedResponse cached) {
+            this.cached = cached;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return HttpStatus.OK.value();
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            var headers = new HttpHeaders();
+            cached.writeTo(headers);
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(cached.body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the clients of the persons and detectives services, bound from {@code cems.client}.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@ConfigurationProperties("cems.client")
+public class ServiceClientProperties {
+    /**
+     * How long a single attempt of a call may take, the retries get a new timeout each.
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    /**
+     * Connections kept open to all service instances together, requests wait at most {@code timeout} for one.
+     */
+    private int maxConnections = 50;
+    /**
+     * Retries of a failed or timed out call, a response with a 4xx status is not retried.
+     */
+    private int retries = 2;
+    /**
+     * The first retry waits between half of this and this, every following retry doubles it.
+     */
+    private Duration retryBackoff = Duration.ofMillis(50);
+    /**
+     * When set, a call that is not answered after this delay is sent to a second instance as well, and the first
+     * answer wins. Set it to about the 95th percentile of the call latency, so that only the slowest calls are sent twice.
+     */
+    private Duration hedgeDelay;
+    /**
+     * Batches of persons requested in parallel by a single page.
+     */
+    private int maxConcurrency = 4;
+    /**
+     * Choose the instances by latency and requests in flight instead of in turn.
+     */
+    private boolean loadAware = true;
+    /**
+     * How fast the latency of an instance that gets no requests is forgotten, a slow instance is tried again after
+     * about this long.
+     */
+    private Duration latencyDecay = Duration.ofSeconds(2);
+    /**
+     * Bulkhead and circuit breaker of each service.
+     */
+    private final Isolation isolation = new Isolation();
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(Duration retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public Duration getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public void setHedgeDelay(Duration hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public boolean isLoadAware() {
+        return loadAware;
+    }
+
+    public void setLoadAware(boolean loadAware) {
+        this.loadAware = loadAware;
+    }
+
+    public Duration getLatencyDecay() {
+        return latencyDecay;
+    }
+
+    public void setLatencyDecay(Duration latencyDecay) {
+        this.latencyDecay = latencyDecay;
+    }
+
+    public Isolation getIsolation() {
+        return isolation;
+    }
+
+    /**
+     * Applied to every service separately, a service that slows down fills only its own bulkhead.
+     */
+    public static class Isolation {
+        /**
+         * Calls to the service running at once, over this they fail at once instead of waiting.
+         */
+        private int maxConcurrentCalls = 20;
+        /**
+         * The circuit opens when this percentage of the last {@code slidingWindowSize} calls failed.
+         */
+        private int failureRateThreshold = 50;
+        private int slidingWindowSize = 20;
+        /**
+         * Calls recorded before the failure rate is considered at all.
+         */
+        private int minimumCalls = 10;
+        /**
+         * How long an open circuit refuses all calls, before letting {@code halfOpenCalls} probes through.
+         */
+        private Duration openDuration = Duration.ofSeconds(5);
+        private int halfOpenCalls = 2;
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
+}
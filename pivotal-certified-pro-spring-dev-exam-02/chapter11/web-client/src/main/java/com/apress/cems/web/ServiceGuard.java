@@ -0,0 +1,178 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Isolates the calls to one service: a bulkhead bounds how many of them run at once and a {@link CircuitBreaker}
+ * stops them while the service keeps failing. A call over either limit is not sent, it fails at once with a
+ * {@link ServiceUnavailableException}, so a slow service cannot take the threads and connections the other
+ * services need.
+ *
+ * The calls are counted in {@code cems.client.calls}, tagged with the service and an outcome of {@code success},
+ * {@code failure}, {@code rejected} (bulkhead full) or {@code short_circuited} (circuit open).
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public class ServiceGuard {
+
+    private final String serviceId;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter rejections;
+    private final Counter shortCircuits;
+
+    public ServiceGuard(String serviceId, ServiceClientProperties.Isolation isolation, MeterRegistry registry) {
+        this.serviceId = serviceId;
+        this.bulkhead = new Semaphore(isolation.getMaxConcurrentCalls());
+        this.circuitBreaker = new CircuitBreaker(isolation.getSlidingWindowSize(), isolation.getMinimumCalls(),
+                isolation.getFailureRateThreshold(), isolation.getOpenDuration(), isolation.getHalfOpenCalls());
+        this.successes = counter(registry, "success");
+        this.failures = counter(registry, "failure");
+        this.rejections = counter(registry, "rejected");
+        this.shortCircuits = counter(registry, "short_circuited");
+        Gauge.builder("cems.client.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .tag("service", serviceId)
+                .register(registry);
+        Gauge.builder("cems.client.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("service", serviceId)
+                .register(registry);
+    }
+
+    /**
+     * @return the call, sent only when the guard lets it through; its permit is returned when it completes, fails
+     * or is cancelled
+     */
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            var refused = tryAcquire();
+            if (refused != null) {
+                return Mono.error(refused);
+            }
+            var reported = new AtomicBoolean();
+            return call.doOnSuccess(result -> {
+                        if (reported.compareAndSet(false, true)) {
+                            onResult(null);
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (reported.compareAndSet(false, true)) {
+                            onResult(error);
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (reported.compareAndSet(false, true)) {
+                            circuitBreaker.onIgnored();
+                        }
+                        bulkhead.release();
+                    });
+        });
+    }
+
+    /**
+     * Runs a blocking call on the calling thread, when the guard lets it through.
+     */
+    public <T> T call(Supplier<T> call) {
+        var refused = tryAcquire();
+        if (refused != null) {
+            throw refused;
+        }
+        try {
+            var result = call.get();
+            onResult(null);
+            return result;
+        } catch (RuntimeException e) {
+            onResult(e);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    private ServiceUnavailableException tryAcquire() {
+        if (!circuitBreaker.tryAcquire()) {
+            shortCircuits.increment();
+            return new ServiceUnavailableException(serviceId, "The circuit of " + serviceId + " is open.");
+        }
+        if (!bulkhead.tryAcquire()) {
+            circuitBreaker.onIgnored();
+            rejections.increment();
+            return new ServiceUnavailableException(serviceId, "Too many calls to " + serviceId + " are in progress.");
+        }
+        return null;
+    }
+
+    private void onResult(Throwable error) {
+        if (error == null || !isFailure(error)) {
+            circuitBreaker.onSuccess();
+            successes.increment();
+        } else {
+            circuitBreaker.onFailure();
+            failures.increment();
+        }
+    }
+
+    /**
+     * A 4xx response is an answer of a working service, the request was wrong.
+     */
+    private static boolean isFailure(Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            return ((WebClientResponseException) error).getStatusCode().is5xxServerError();
+        }
+        if (error instanceof HttpStatusCodeException) {
+            return ((HttpStatusCodeException) error).getStatusCode().is5xxServerError();
+        }
+        return true;
+    }
+
+    private Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("cems.client.calls")
+                .tag("service", serviceId)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
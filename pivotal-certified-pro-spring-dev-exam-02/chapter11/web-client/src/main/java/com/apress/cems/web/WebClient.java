@@ -32,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
@@ -43,6 +44,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
 
 /**
  * @author Iuliana Cosmina
@@ -65,8 +67,19 @@ public class WebClient {
         ctx.close();
     }
 
-    @Bean @LoadBalanced RestTemplate restTemplate() {
-        return new RestTemplate();
+    /**
+     * Shared by the {@code RestTemplate} and the reactive client. Both key the responses on the service URI, not on
+     * the instance that answered, so a page revalidates what the other client already fetched from any instance.
+     */
+    @Bean RevalidatingResponseCache responseCache() {
+        return new RevalidatingResponseCache();
+    }
+
+    @Bean @LoadBalanced RestTemplate restTemplate(RestTemplateBuilder builder, RevalidatingResponseCache responseCache) {
+        return builder.setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(Duration.ofSeconds(3))
+                .additionalInterceptors(responseCache)
+                .build();
     }
 
     @Autowired
@@ -0,0 +1,239 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.web;
+
+import com.apress.cems.detective.Detective;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerRequest;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the latency of the detectives page loaded with the {@link ReactiveWebServices}, with and without hedging. Both services are served by two local stub instances that
+ * answer in a couple of milliseconds, except for a few slow requests: the tail the hedged calls should cut.
+ * The comparison only logs the percentiles, it takes a while and its numbers depend on the machine, so it only runs
+ * when the build is started with {@code -DloadTest=true}. The hedging itself is checked against an instance that
+ * never answers.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+class ClientLatencyBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(ClientLatencyBenchmarkTest.class);
+
+    private static final int DETECTIVES = 80;
+    private static final int PAGES = 300;
+
+    private static List<DisposableServer> instances;
+    private static ConnectionProvider connectionProvider;
+
+    @BeforeAll
+    static void startInstances() {
+        instances = List.of(startInstance(), startInstance());
+        connectionProvider = ConnectionProvider.fixed("benchmark", 50);
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        instances.forEach(DisposableServer::disposeNow);
+        connectionProvider.dispose();
+    }
+
+    @Test
+    void hedgedCallsShouldBeAnsweredByTheOtherInstance() {
+        var stalledRequests = new AtomicInteger();
+        var stalled = HttpServer.create().host("localhost").port(0)
+                .handle((request, response) -> {
+                    stalledRequests.incrementAndGet();
+                    return Mono.never();
+                })
+                .bindNow();
+        try {
+            var loadBalancer = new RoundRobinLoadBalancer(List.of(stalled, instances.get(0)));
+            var guards = new ServiceGuards(new ServiceClientProperties(), new SimpleMeterRegistry());
+            var webClient = WebClient.builder().clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider))).build();
+            var hedgedProperties = new ServiceClientProperties();
+            hedgedProperties.setHedgeDelay(Duration.ofMillis(15));
+            hedgedProperties.setRetries(0);
+            var hedged = new ReactiveWebServices(webClient, loadBalancer, hedgedProperties, guards);
+
+            // without the hedge the calls sent to the stalled instance would only end with the call timeout
+            var detectives = hedged.getAllDetectives().block(hedgedProperties.getTimeout());
+
+            assertAll(
+                    () -> assertTrue(stalledRequests.get() > 0),
+                    () -> assertEquals(DETECTIVES, detectives.size()),
+                    () -> assertTrue(detectives.stream().allMatch(d -> d.getPerson() != null && d.getPersonId().equals(d.getPerson().getId())))
+            );
+        } finally {
+            stalled.disposeNow();
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void benchmarkDetectivesPage() {
+        var loadBalancer = new RoundRobinLoadBalancer(instances);
+        var guards = new ServiceGuards(new ServiceClientProperties(), new SimpleMeterRegistry());
+        var webClient = WebClient.builder().clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider))).build();
+        var reactive = new ReactiveWebServices(webClient, loadBalancer, new ServiceClientProperties(), guards);
+        var hedgedProperties = new ServiceClientProperties();
+        hedgedProperties.setHedgeDelay(Duration.ofMillis(15));
+        var hedged = new ReactiveWebServices(webClient, loadBalancer, hedgedProperties, guards);
+
+        var reactiveNanos = measure(() -> reactive.getAllDetectives().block());
+        var hedgedNanos = measure(() -> hedged.getAllDetectives().block());
+
+        logger.info("Detectives page over {} loads, WebClient: {}", PAGES, percentiles(reactiveNanos));
+        logger.info("Detectives page over {} loads, WebClient hedged after 15 ms: {}", PAGES, percentiles(hedgedNanos));
+    }
+
+    private static long[] measure(Supplier<List<Detective>> page) {
+        for (int i = 0; i < 30; ++i) {
+            page.get();
+        }
+        var nanos = new long[PAGES];
+        for (int i = 0; i < PAGES; ++i) {
+            long start = System.nanoTime();
+            var detectives = page.get();
+            nanos[i] = System.nanoTime() - start;
+            assertEquals(DETECTIVES, detectives.size());
+            assertTrue(detectives.stream().allMatch(d -> d.getPerson() != null));
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static long percentile(long[] sortedNanos, double percentile) {
+        return sortedNanos[(int) Math.ceil(percentile * sortedNanos.length) - 1];
+    }
+
+    private static String percentiles(long[] sortedNanos) {
+        return String.format("p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms", percentile(sortedNanos, 0.5) / 1e6,
+                percentile(sortedNanos, 0.95) / 1e6, percentile(sortedNanos, 0.99) / 1e6, sortedNanos[sortedNanos.length - 1] / 1e6);
+    }
+
+    private static DisposableServer startInstance() {
+        return HttpServer.create().host("localhost").port(0)
+                .handle((request, response) -> {
+                    var uri = request.uri();
+                    if (uri.startsWith("/detectives")) {
+                        return respond(response, IntStream.rangeClosed(1, DETECTIVES)
+                                .mapToObj(id -> "{\"id\":" + id + ",\"personId\":" + id + ",\"badgeNumber\":\"NY" + id + "\"}")
+                                .collect(Collectors.joining(",", "[", "]")));
+                    }
+                    var ids = URLDecoder.decode(uri.substring(uri.indexOf("ids=") + "ids=".length()), StandardCharsets.UTF_8).split(",");
+                    return respond(response, Arrays.stream(ids)
+                            .map(id -> "{\"id\":" + id + ",\"username\":\"person" + id + "\",\"firstName\":\"First" + id + "\",\"lastName\":\"Last" + id + "\"}")
+                            .collect(Collectors.joining(",", "[", "]")));
+                })
+                .bindNow();
+    }
+
+    /**
+     * Answers after 1 ms, except for 2% of the requests that take 100 ms, like an instance pausing for a collection.
+     */
+    private static Publisher<Void> respond(HttpServerResponse response, String json) {
+        var delay = Duration.ofMillis(ThreadLocalRandom.current().nextInt(100) < 2 ? 100 : 1);
+        return response.header("Content-Type", "application/json")
+                .sendString(Mono.just(json).delayElement(delay));
+    }
+
+    /**
+     * Resolves both services to the given stub instances in turn, like Ribbon does for registered instances.
+     */
+    private static class RoundRobinLoadBalancer implements LoadBalancerClient {
+        private final AtomicInteger next = new AtomicInteger();
+        private final List<DisposableServer> instances;
+
+        private RoundRobinLoadBalancer(List<DisposableServer> instances) {
+            this.instances = instances;
+        }
+
+        @Override
+        public ServiceInstance choose(String serviceId) {
+            var server = instances.get(Math.floorMod(next.getAndIncrement(), instances.size()));
+            return new DefaultServiceInstance(serviceId + server.port(), serviceId, "localhost", server.port(), false);
+        }
+
+        @Override
+        public <T> T execute(String serviceId, LoadBalancerRequest<T> request) throws IOException {
+            return execute(serviceId, choose(serviceId), request);
+        }
+
+        @Override
+        public <T> T execute(String serviceId, ServiceInstance serviceInstance, LoadBalancerRequest<T> request) throws IOException {
+            try {
+                return request.apply(serviceInstance);
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public URI reconstructURI(ServiceInstance instance, URI original) {
+            return UriComponentsBuilder.fromUri(original).host(instance.getHost()).port(instance.getPort()).build(true).toUri();
+        }
+    }
+}
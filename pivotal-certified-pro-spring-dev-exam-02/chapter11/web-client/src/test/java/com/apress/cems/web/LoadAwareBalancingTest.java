@@ -0,0 +1,177 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.web;
+
+import com.apress.cems.person.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerInterceptor;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends the persons requests to two local stub instances of {@code persons-service}, one of them answering in
+ * 1 ms and the other in 100 ms, and checks that the {@link LoadAwareLoadBalancerClient} sends most of them to the fast
+ * one, through both the reactive client and the {@code RestTemplate}. A round robin would send half of them to each.
+ * The cost of an instance grows with its requests in flight, so the slow one must stay slower than the fast one with
+ * all the {@value #CONCURRENCY} requests in flight, client overhead included, for the bound to hold on a busy machine.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+class LoadAwareBalancingTest {
+    private static final Logger logger = LoggerFactory.getLogger(LoadAwareBalancingTest.class);
+
+    private static final String PERSONS_SERVICE = "persons-service";
+    private static final int REQUESTS = 400;
+    private static final int CONCURRENCY = 4;
+
+    private static DisposableServer fast;
+    private static DisposableServer slow;
+    private static final AtomicInteger fastRequests = new AtomicInteger();
+    private static final AtomicInteger slowRequests = new AtomicInteger();
+
+    @BeforeAll
+    static void startInstances() {
+        fast = startInstance(Duration.ofMillis(1), fastRequests);
+        slow = startInstance(Duration.ofMillis(100), slowRequests);
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        fast.disposeNow();
+        slow.disposeNow();
+    }
+
+    @BeforeEach
+    void resetCounts() {
+        fastRequests.set(0);
+        slowRequests.set(0);
+    }
+
+    @Test
+    void reactiveRequestsAvoidTheSlowInstance() {
+        var properties = new ServiceClientProperties();
+        var loadBalancer = new LoadAwareLoadBalancerClient(new StubDiscoveryClient(), properties.getLatencyDecay(), properties.getTimeout());
+        var webClient = WebClient.builder().filter(loadBalancer).build();
+        var services = new ReactiveWebServices(webClient, loadBalancer, properties, new ServiceGuards(properties, new SimpleMeterRegistry()));
+
+        var millis = Flux.range(0, REQUESTS)
+                .flatMap(i -> services.getAllPersons().elapsed().map(timed -> timed.getT1()), CONCURRENCY)
+                .sort()
+                .collectList()
+                .block();
+
+        logger.info("Load-aware WebClient: {} requests to the fast instance, {} to the slow one, {}",
+                fastRequests.get(), slowRequests.get(), percentiles(millis));
+        assertEquals(REQUESTS, fastRequests.get() + slowRequests.get());
+        assertTrue(slowRequests.get() < REQUESTS / 4);
+        assertEquals(0, loadBalancer.inFlight(new StubDiscoveryClient().getInstances(PERSONS_SERVICE).get(0)));
+    }
+
+    @Test
+    void restTemplateRequestsAvoidTheSlowInstance() {
+        var properties = new ServiceClientProperties();
+        var loadBalancer = new LoadAwareLoadBalancerClient(new StubDiscoveryClient(), properties.getLatencyDecay(), properties.getTimeout());
+        var restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+        restTemplate.getInterceptors().add(new LoadBalancerInterceptor(loadBalancer));
+
+        var millis = Flux.range(0, REQUESTS)
+                .flatMap(i -> Mono.fromCallable(() -> restTemplate.getForObject("http://" + PERSONS_SERVICE + "/persons", Person[].class))
+                        .subscribeOn(reactor.core.scheduler.Schedulers.elastic())
+                        .elapsed().map(timed -> timed.getT1()), CONCURRENCY)
+                .sort()
+                .collectList()
+                .block();
+
+        logger.info("Load-aware RestTemplate: {} requests to the fast instance, {} to the slow one, {}",
+                fastRequests.get(), slowRequests.get(), percentiles(millis));
+        assertEquals(REQUESTS, fastRequests.get() + slowRequests.get());
+        assertTrue(slowRequests.get() < REQUESTS / 4);
+    }
+
+    private static String percentiles(List<Long> sortedMillis) {
+        return String.format("p50 %d ms, p99 %d ms", sortedMillis.get(sortedMillis.size() / 2),
+                sortedMillis.get((int) Math.ceil(0.99 * sortedMillis.size()) - 1));
+    }
+
+    private static DisposableServer startInstance(Duration delay, AtomicInteger requests) {
+        return HttpServer.create().host("localhost").port(0)
+                .handle((request, response) -> {
+                    requests.incrementAndGet();
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.just("[{\"id\":1,\"username\":\"sherlock\"},{\"id\":2,\"username\":\"watson\"}]").delayElement(delay));
+                })
+                .bindNow();
+    }
+
+    /**
+     * Both stub instances registered as {@code persons-service}.
+     */
+    private static class StubDiscoveryClient implements DiscoveryClient {
+
+        @Override
+        public String description() {
+            return "stub";
+        }
+
+        @Override
+        public List<ServiceInstance> getInstances(String serviceId) {
+            return List.of(fast, slow).stream()
+                    .map(server -> new DefaultServiceInstance(serviceId + server.port(), serviceId, "localhost", server.port(), false))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<String> getServices() {
+            return List.of(PERSONS_SERVICE);
+        }
+    }
+}
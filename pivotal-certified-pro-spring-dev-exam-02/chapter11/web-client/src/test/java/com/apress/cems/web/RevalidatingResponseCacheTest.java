@@ -0,0 +1,208 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.web;
+
+import com.apress.cems.person.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerInterceptor;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends the requests to two local stub instances of {@code persons-service} that tag every person with the same
+ * {@code ETag} and answer {@code 304} when it is sent back, and counts the full and the not modified answers.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+class RevalidatingResponseCacheTest {
+    private static final String ETAG = "\"v1\"";
+
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+
+    private List<DisposableServer> instances;
+
+    @BeforeEach
+    void startInstances() {
+        instances = List.of(startInstance(), startInstance());
+    }
+
+    @AfterEach
+    void stopInstances() {
+        instances.forEach(DisposableServer::disposeNow);
+    }
+
+    @Test
+    void shouldRevalidateAgainstAnotherInstance() {
+        var cache = new RevalidatingResponseCache();
+        var services = reactiveServices(cache);
+
+        var first = services.getPerson(1L).block();
+        var second = services.getPerson(1L).block();
+
+        assertAll(
+                () -> assertEquals("person1", first.getUsername()),
+                () -> assertEquals("person1", second.getUsername()),
+                () -> assertEquals(1, fullResponses.get()),
+                () -> assertEquals(1, notModifiedResponses.get()),
+                () -> assertEquals(1, cache.size())
+        );
+    }
+
+    @Test
+    void shouldShareTheEntriesOfBothClients() {
+        var cache = new RevalidatingResponseCache();
+        var restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+        restTemplate.getInterceptors().add(cache);
+        restTemplate.getInterceptors().add(new LoadBalancerInterceptor(new RoundRobinLoadBalancer()));
+
+        var fetched = restTemplate.getForObject("http://persons-service/persons/1", Person.class);
+        var revalidated = reactiveServices(cache).getPerson(1L).block();
+
+        assertAll(
+                () -> assertEquals("person1", fetched.getUsername()),
+                () -> assertEquals("person1", revalidated.getUsername()),
+                () -> assertEquals(1, fullResponses.get()),
+                () -> assertEquals(1, notModifiedResponses.get())
+        );
+    }
+
+    @Test
+    void shouldDropTheLeastRecentlyUsedBodiesOverTheSizeLimit() {
+        var bodyLength = new RevalidatingResponseCache();
+        reactiveServices(bodyLength).getPerson(1L).block();
+        var cache = new RevalidatingResponseCache(bodyLength.bytes() * 2 + bodyLength.bytes() / 2);
+        var services = reactiveServices(cache);
+        fullResponses.set(0);
+
+        services.getPerson(1L).block();
+        services.getPerson(2L).block();
+        services.getPerson(1L).block();
+        services.getPerson(3L).block();
+        assertAll(
+                () -> assertEquals(2, cache.size()),
+                () -> assertTrue(cache.bytes() <= bodyLength.bytes() * 2),
+                () -> assertEquals(3, fullResponses.get())
+        );
+
+        // 2 was dropped and is fetched again, 3 is still there and is revalidated
+        services.getPerson(2L).block();
+        services.getPerson(3L).block();
+        assertEquals(4, fullResponses.get());
+    }
+
+    @Test
+    void shouldNotKeepABodyLargerThanTheCache() {
+        var cache = new RevalidatingResponseCache(8);
+
+        assertEquals("person1", reactiveServices(cache).getPerson(1L).block().getUsername());
+        assertAll(
+                () -> assertEquals(0, cache.size()),
+                () -> assertEquals(0, cache.bytes())
+        );
+    }
+
+    private ReactiveWebServices reactiveServices(RevalidatingResponseCache cache) {
+        var properties = new ServiceClientProperties();
+        properties.setRetries(0);
+        return new ReactiveWebServices(WebClient.builder().filter(cache).build(), new RoundRobinLoadBalancer(), properties,
+                new ServiceGuards(properties, new SimpleMeterRegistry()));
+    }
+
+    private DisposableServer startInstance() {
+        return HttpServer.create().host("localhost").port(0)
+                .route(routes -> routes.get("/persons/{id}", (request, response) -> {
+                    if (ETAG.equals(request.requestHeaders().get("If-None-Match"))) {
+                        notModifiedResponses.incrementAndGet();
+                        return response.status(HttpStatus.NOT_MODIFIED.value()).header("ETag", ETAG).send();
+                    }
+                    fullResponses.incrementAndGet();
+                    var id = request.param("id");
+                    return response.header("Content-Type", "application/json").header("ETag", ETAG)
+                            .sendString(Mono.just("{\"id\":" + id + ",\"username\":\"person" + id + "\"}"));
+                }))
+                .bindNow();
+    }
+
+    /**
+     * Resolves the service to the two stub instances in turn.
+     */
+    private class RoundRobinLoadBalancer implements LoadBalancerClient {
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Override
+        public ServiceInstance choose(String serviceId) {
+            var server = instances.get(Math.floorMod(next.getAndIncrement(), instances.size()));
+            return new DefaultServiceInstance(serviceId + server.port(), serviceId, "localhost", server.port(), false);
+        }
+
+        @Override
+        public <T> T execute(String serviceId, LoadBalancerRequest<T> request) throws IOException {
+            return execute(serviceId, choose(serviceId), request);
+        }
+
+        @Override
+        public <T> T execute(String serviceId, ServiceInstance serviceInstance, LoadBalancerRequest<T> request) throws IOException {
+            try {
+                return request.apply(serviceInstance);
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public URI reconstructURI(ServiceInstance instance, URI original) {
+            return UriComponentsBuilder.fromUri(original).host(instance.getHost()).port(instance.getPort()).build(true).toUri();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the {@link ReactiveWebServices} against a local stub of both services whose detectives endpoints can be
+ * held or made to fail, and checks that the persons calls are not affected by it.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+class ServiceIsolationTest {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceIsolationTest.class);
+
+    private static final String DETECTIVES_SERVICE = "detectives-service";
+
+    private static final String PERSONS_SERVICE = "persons-service";
+
+    private final AtomicReference<Mono<Void>> detectivesGate = new AtomicReference<>(Mono.empty());
+    private final AtomicInteger detectivesStatus = new AtomicInteger(200);
+    private final AtomicInteger detectivesRequests = new AtomicInteger();
+
+    private DisposableServer server;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void startServer() {
+        registry = new SimpleMeterRegistry();
+        server = HttpServer.create().host("localhost").port(0)
+                .route(routes -> routes
+                        .get("/detectives/{id}", (request, response) -> {
+                            detectivesRequests.incrementAndGet();
+                            return response.status(detectivesStatus.get())
+                                    .header("Content-Type", "application/json")
+                                    .sendString(Mono.just("{\"id\":" + request.param("id") + ",\"personId\":1,\"badgeNumber\":\"NY1\"}")
+                                            .delayUntil(json -> detectivesGate.get()));
+                        })
+                        .get("/persons/{id}", (request, response) -> response.header("Content-Type", "application/json")
+                                .sendString(Mono.just("{\"id\":" + request.param("id") + ",\"username\":\"sherlock\"}")))
+                        .get("/persons", (request, response) -> response.header("Content-Type", "application/json")
+                                .sendString(Mono.just("[{\"id\":1,\"username\":\"sherlock\"},{\"id\":2,\"username\":\"watson\"}]"))))
+                .bindNow();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.disposeNow();
+    }
+
+    @Test
+    void slowDetectivesDoNotHoldPersonsCalls() throws Exception {
+        var properties = properties();
+        properties.getIsolation().setMaxConcurrentCalls(4);
+        var services = services(properties);
+        var gate = MonoProcessor.<Void>create();
+        detectivesGate.set(gate);
+
+        // the detectives calls hold the whole bulkhead until the gate opens
+        var detectives = Flux.range(0, 20)
+                .flatMap(i -> services.getDetective(1L)
+                        .map(detective -> "answered")
+                        .onErrorResume(ServiceUnavailableException.class, e -> Mono.just("rejected")))
+                .collectList()
+                .toFuture();
+        assertEquals(16, count("rejected"));
+
+        for (int i = 0; i < 20; ++i) {
+            assertEquals(2, services.getAllPersons().block(properties.getTimeout()).size());
+        }
+        assertAll(
+                () -> assertFalse(detectives.isDone()),
+                () -> assertEquals(20, count(PERSONS_SERVICE, "success")),
+                () -> assertEquals(0, count(PERSONS_SERVICE, "rejected"))
+        );
+
+        gate.onComplete();
+        var outcomes = detectives.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Detectives calls: {}", outcomes);
+        assertEquals(4, outcomes.stream().filter("answered"::equals).count());
+    }
+
+    @Test
+    void circuitOpensAndRecovers() throws InterruptedException {
+        var properties = properties();
+        properties.getIsolation().setOpenDuration(Duration.ofMillis(300));
+        var services = services(properties);
+        detectivesStatus.set(500);
+
+        for (int i = 0; i < 4; ++i) {
+            assertThrows(RuntimeException.class, () -> services.getDetective(1L).block());
+        }
+        var sent = detectivesRequests.get();
+        for (int i = 0; i < 10; ++i) {
+            assertThrows(ServiceUnavailableException.class, () -> services.getDetective(1L).block());
+        }
+        assertEquals(sent, detectivesRequests.get());
+        assertEquals(10, count("short_circuited"));
+
+        detectivesStatus.set(200);
+        Thread.sleep(350);
+        for (int i = 0; i < 2; ++i) {
+            assertEquals("NY1", services.getDetective(1L).block().getBadgeNumber());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED.ordinal(),
+                registry.get("cems.client.circuit.state").tag("service", DETECTIVES_SERVICE).gauge().value());
+    }
+
+    private ServiceClientProperties properties() {
+        var properties = new ServiceClientProperties();
+        properties.setRetries(0);
+        properties.getIsolation().setSlidingWindowSize(4);
+        properties.getIsolation().setMinimumCalls(4);
+        return properties;
+    }
+
+    private ReactiveWebServices services(ServiceClientProperties properties) {
+        return new ReactiveWebServices(WebClient.create(), new StubLoadBalancer(), properties, new ServiceGuards(properties, registry));
+    }
+
+    private double count(String outcome) {
+        return count(DETECTIVES_SERVICE, outcome);
+    }
+
+    private double count(String service, String outcome) {
+        return registry.get("cems.client.calls").tag("service", service).tag("outcome", outcome).counter().count();
+    }
+
+    /**
+     * Resolves both services to the stub.
+     */
+    private class StubLoadBalancer implements LoadBalancerClient {
+
+        @Override
+        public ServiceInstance choose(String serviceId) {
+            return new DefaultServiceInstance(serviceId, serviceId, "localhost", server.port(), false);
+        }
+
+        @Override
+        public <T> T execute(String serviceId, LoadBalancerRequest<T> request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T execute(String serviceId, ServiceInstance serviceInstance, LoadBalancerRequest<T> request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public URI reconstructURI(ServiceInstance instance, URI original) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -29,13 +29,25 @@ package com.apress.cems.reactive;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * The repositories are blocking JPA repositories, the reactive service runs their calls on the {@code jpaScheduler}
+ * so that no request thread waits for the database.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
@@ -46,9 +58,27 @@ public class ReactiveHybridApplication {
 
     private static Logger logger = LoggerFactory.getLogger(ReactiveHybridApplication.class);
 
+    static final int JPA_QUEUE = 1000;
+
     public static void main(String... args) {
         ConfigurableApplicationContext ctx = SpringApplication.run(ReactiveHybridApplication.class, args);
         ctx.registerShutdownHook();
         logger.info("Application Started ...");
     }
+
+    /**
+     * As many threads as the pool has connections, more would only wait for a connection. Calls beyond
+     * {@value #JPA_QUEUE} waiting ones are rejected instead of piling up. With {@code cems.jpa.offload=false} the
+     * calls run on the subscribing thread, which is the request thread.
+     */
+    @Bean(destroyMethod = "dispose")
+    Scheduler jpaScheduler(@Value("${cems.jpa.offload:true}") boolean offload,
+                           @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connections) {
+        if (!offload) {
+            return Schedulers.immediate();
+        }
+        var executor = new ThreadPoolExecutor(connections, connections, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(JPA_QUEUE), new CustomizableThreadFactory("jpa-"));
+        return Schedulers.fromExecutorService(executor, "jpa");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.reactive.person;
+
+import com.apress.cems.person.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.ReplayProcessor;
+
+/**
+ * The changes of the persons, numbered in the order they were made. The last {@value #BUFFER} events are kept, so a
+ * client that reconnects with the identifier of the last event it received gets the ones it missed. The numbers start
+ * over with every run of the application, so the identifiers are qualified with the time the feed was created: an
+ * identifier from a previous run is recognized even when its number is also a recent one of this run. Each subscriber
+ * buffers at most {@value #BUFFER} events it has not consumed yet: when a slow subscriber falls further behind, its
+ * oldest events are dropped, so the memory used does not depend on how slow the subscribers are.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Component
+public class PersonChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(PersonChangeFeed.class);
+
+    static final int BUFFER = 256;
+
+    private final ReplayProcessor<PersonEvent> events = ReplayProcessor.create(BUFFER);
+
+    private final FluxSink<PersonEvent> sink = events.sink();
+
+    private final long epoch = System.currentTimeMillis();
+
+    private long sequence;
+
+    public void created(Person person) {
+        publish(PersonEvent.Type.CREATED, person.getId(), person);
+    }
+
+    public void updated(Person person) {
+        publish(PersonEvent.Type.UPDATED, person.getId(), person);
+    }
+
+    public void deleted(Long personId) {
+        publish(PersonEvent.Type.DELETED, personId, null);
+    }
+
+    private synchronized void publish(PersonEvent.Type type, Long personId, Person person) {
+        sink.next(new PersonEvent(epoch, ++sequence, type, personId, person));
+    }
+
+    /**
+     * @param lastEventId the identifier of the last event the client received, {@code null} for a new client
+     * @return the events after {@code lastEventId}, or the events from now on for a new client. When the events after
+     * {@code lastEventId} are no longer kept, or were published by a previous run of the application, the first event
+     * is a {@link PersonEvent.Type#RESET}.
+     */
+    public Flux<PersonEvent> since(String lastEventId) {
+        return Flux.defer(() -> {
+            long current;
+            synchronized (this) {
+                current = sequence;
+            }
+            if (lastEventId == null) {
+                return events.filter(event -> event.getSequence() > current);
+            }
+            var last = sequenceOf(lastEventId);
+            if (last == null || last > current || last < current - BUFFER) {
+                return events.filter(event -> event.getSequence() > current)
+                        .startWith(new PersonEvent(epoch, current, PersonEvent.Type.RESET, null, null));
+            }
+            return events.filter(event -> event.getSequence() > last);
+        }).onBackpressureBuffer(BUFFER, dropped -> logger.debug("Slow subscriber, dropped {}", dropped),
+                BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    /**
+     * @return the sequence number of an event of this run, {@code null} for any other identifier
+     */
+    private Long sequenceOf(String eventId) {
+        var prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
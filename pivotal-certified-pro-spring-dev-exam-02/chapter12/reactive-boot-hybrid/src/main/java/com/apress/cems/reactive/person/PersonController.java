@@ -29,12 +29,13 @@ package com.apress.cems.reactive.person;
 
 import com.apress.cems.person.Person;
 import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.function.Tuple2;
 
 import java.time.Duration;
 
@@ -48,16 +49,40 @@ public class PersonController {
 
     final PersonReactiveService reactiveService;
 
-    public PersonController(PersonReactiveService reactiveService) {
+    final PersonChangeFeed changeFeed;
+
+    final Duration heartbeat;
+
+    public PersonController(PersonReactiveService reactiveService, PersonChangeFeed changeFeed,
+                            @Value("${cems.changes.heartbeat:15s}") Duration heartbeat) {
         this.reactiveService = reactiveService;
+        this.changeFeed = changeFeed;
+        this.heartbeat = heartbeat;
     }
 
     // test with: curl -H "text/event-stream" http://localhost:8081/persons/
     @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<Person> persons() {
-        Flux<Person> persons = reactiveService.findAll();
-        Flux<Long> periodFlux = Flux.interval(Duration.ofSeconds(2));
-        return Flux.zip(persons, periodFlux).map(Tuple2::getT1);
+        return reactiveService.findAll().delayElements(Duration.ofSeconds(2));
+    }
+
+    /**
+     * The changes of the persons as they are made. The heartbeat comments keep idle connections open through proxies
+     * and make a write fail, and the subscription end, soon after a client went away. A client reconnecting with a
+     * {@code Last-Event-ID} header resumes after that event.
+     */
+    // test with: curl -H "text/event-stream" http://localhost:8081/persons/changes
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<PersonEvent>> changes(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        Flux<ServerSentEvent<PersonEvent>> changes = changeFeed.since(lastEventId)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(event.getId())
+                        .event(event.getType().name().toLowerCase())
+                        .build());
+        Flux<ServerSentEvent<PersonEvent>> heartbeats = Flux.interval(heartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<PersonEvent>builder().comment("heartbeat").build());
+        return Flux.merge(changes, heartbeats);
     }
 
     @ResponseStatus(HttpStatus.OK)
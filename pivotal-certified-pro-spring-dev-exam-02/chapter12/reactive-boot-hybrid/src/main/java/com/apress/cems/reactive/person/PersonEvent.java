@@ -0,0 +1,91 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.reactive.person;
+
+import com.apress.cems.person.Person;
+
+/**
+ * A change of a person, as sent to the clients of the change feed. The identifier is the start time of the application
+ * run that published the event and its sequence number in that run, {@code <epoch>-<sequence>}. The sequence numbers
+ * are consecutive, a client that sees a gap has missed events.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public class PersonEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /** The events since the client's last event are no longer known, the client must reload the persons. */
+        RESET
+    }
+
+    private final long epoch;
+    private final long sequence;
+    private final Type type;
+    private final Long personId;
+    private final Person person;
+
+    PersonEvent(long epoch, long sequence, Type type, Long personId, Person person) {
+        this.epoch = epoch;
+        this.sequence = sequence;
+        this.type = type;
+        this.personId = personId;
+        this.person = person;
+    }
+
+    public String getId() {
+        return epoch + "-" + sequence;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    /**
+     * @return the person after the change, {@code null} for deletes and resets
+     */
+    public Person getPerson() {
+        return person;
+    }
+
+    @Override
+    public String toString() {
+        return "PersonEvent[id=" + getId() + ", type=" + type + ", personId=" + personId + "]";
+    }
+}
@@ -29,36 +29,55 @@ package com.apress.cems.reactive.person;
 
 import com.apress.cems.person.Person;
 import com.apress.cems.util.NumberGenerator;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 /**
+ * The repository is blocking, so every call to it is deferred until subscription and runs on the {@code jpaScheduler}:
+ * the thread that subscribes, a request thread, is never held by a query. The persons are read in pages of
+ * {@value #PAGE_SIZE}, the next page is only read when the previous one was consumed, so a slow consumer does not
+ * make the whole table pile up in memory.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
 @Service
 public class PersonReactiveServiceImpl implements PersonReactiveService {
 
+    static final int PAGE_SIZE = 100;
+
     private PersonRepo personRepo;
 
-    public PersonReactiveServiceImpl(PersonRepo personRepo) {
+    private Scheduler jpaScheduler;
+
+    private PersonChangeFeed changeFeed;
+
+    public PersonReactiveServiceImpl(PersonRepo personRepo, Scheduler jpaScheduler, PersonChangeFeed changeFeed) {
         this.personRepo = personRepo;
+        this.jpaScheduler = jpaScheduler;
+        this.changeFeed = changeFeed;
     }
 
     @Override public Mono<Person> findById(Long id) {
-        return Mono.justOrEmpty(personRepo.findById(id));
+        return blocking(() -> personRepo.findById(id)).flatMap(Mono::justOrEmpty);
     }
 
     @Override public Flux<Person> findAll() {
-        return Flux.fromIterable(personRepo.findAll());
+        return pageAfter(0L)
+                .expand(page -> page.size() < PAGE_SIZE ? Mono.empty() : pageAfter(page.get(page.size() - 1).getId()))
+                .concatMapIterable(Function.identity(), 1);
     }
 
     @Override public Mono<Person> save(Mono<Person> personMono) {
-        return personMono.doOnNext(person ->  {
+        return personMono.publishOn(jpaScheduler).map(person ->  {
             // This a workaround for a Jackson bug, the field is actually not deserialized. This is the issue I've found already created on GitHub:
             // https://github.com/FasterXML/jackson-databind/issues/935#issuecomment-520070413.
             // It is closed, but the bug is still there in version 2.9.9. when I asked about it,
@@ -66,29 +85,38 @@ public class PersonReactiveServiceImpl implements PersonReactiveService {
             if(StringUtils.isEmpty(person.getPassword())){
                 person.setPassword(NumberGenerator.getPassword());
             }
-            Mono.just(personRepo.save(person));
-        });
+            return personRepo.save(person);
+        }).doOnNext(changeFeed::created);
     }
 
     @Override public Mono<Void> update(Long id, Mono<Person> personMono) {
-        Optional<Person> personOpt = personRepo.findById(id);
-        if(personOpt.isPresent()) {
-            Person original = personOpt.get();
-            return personMono.doOnNext(
-                    updatedPerson -> {
-                        original.setUsername(updatedPerson.getUsername());
-                        original.setFirstName(updatedPerson.getFirstName());
-                        original.setLastName(updatedPerson.getLastName());
-                        personRepo.save(original);
-                    }
-            ).thenEmpty(Mono.empty());
-        }
-        return Mono.empty();
+        return personMono.publishOn(jpaScheduler)
+                .flatMap(updatedPerson -> Mono.justOrEmpty(personRepo.findById(id)).map(original -> {
+                    original.setUsername(updatedPerson.getUsername());
+                    original.setFirstName(updatedPerson.getFirstName());
+                    original.setLastName(updatedPerson.getLastName());
+                    return personRepo.save(original);
+                }))
+                .doOnNext(changeFeed::updated)
+                .then();
     }
 
     @Override
     public Mono<Void> delete(Long id) {
-        personRepo.findById(id).ifPresent(person -> personRepo.delete(person));
-        return Mono.empty();
+        return blocking(() -> {
+            personRepo.findById(id).ifPresent(person -> {
+                personRepo.delete(person);
+                changeFeed.deleted(id);
+            });
+            return id;
+        }).then();
+    }
+
+    private Mono<List<Person>> pageAfter(Long id) {
+        return blocking(() -> personRepo.findPageAfter(id, PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(jpaScheduler);
     }
 }
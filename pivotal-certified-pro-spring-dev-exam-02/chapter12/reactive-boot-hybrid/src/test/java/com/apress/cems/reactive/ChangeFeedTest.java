@@ -0,0 +1,207 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.reactive;
+
+import com.apress.cems.person.Person;
+import com.apress.cems.reactive.person.PersonChangeFeed;
+import com.apress.cems.reactive.person.PersonEvent;
+import com.apress.cems.reactive.person.PersonReactiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "cems.changes.heartbeat=200ms",
+        "spring.datasource.hikari.jdbc-url=jdbc:h2:mem:changes;DB_CLOSE_DELAY=-1"})
+class ChangeFeedTest {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<Map<String, Object>>> EVENTS =
+            new ParameterizedTypeReference<>() {};
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    private PersonReactiveService reactiveService;
+
+    @Autowired
+    private PersonChangeFeed changeFeed;
+
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        webClient = WebClient.create("http://localhost:" + port + "/persons");
+    }
+
+    @Test
+    void shouldStreamChangesAndResume() throws Exception {
+        var connected = new CountDownLatch(1);
+        var live = changes(null)
+                .doOnNext(event -> connected.countDown())
+                .filter(event -> event.event() != null)
+                .take(3).collectList().toFuture();
+        assertTrue(connected.await(5, TimeUnit.SECONDS), "no heartbeat received");
+
+        var person = reactiveService.save(Mono.just(person("violet.hunter", "Violet"))).block();
+        person.setFirstName("Violet Rucastle");
+        reactiveService.update(person.getId(), Mono.just(person)).block();
+        reactiveService.delete(person.getId()).block();
+
+        var received = live.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("created", "updated", "deleted"), names(received));
+        assertEquals("Violet Rucastle", ((Map<?, ?>) received.get(1).data().get("person")).get("firstName"));
+        var created = received.get(0).id();
+        assertEquals(eventId(epoch(created), sequence(created) + 2), received.get(2).id());
+
+        var missed = changes(created).filter(event -> event.event() != null).take(2)
+                .collectList().block(Duration.ofSeconds(5));
+        assertEquals(List.of("updated", "deleted"), names(missed));
+
+        var unknown = changes(eventId(epoch(created), sequence(created) + 1000)).filter(event -> event.event() != null)
+                .blockFirst(Duration.ofSeconds(5));
+        assertEquals("reset", unknown.event());
+        assertEquals(received.get(2).id(), unknown.id());
+    }
+
+    @Test
+    void shouldResetAClientOfAPreviousRun() throws Exception {
+        var next = changeFeed.since(null).next().toFuture();
+        reactiveService.save(Mono.just(person("helen.stoner", "Helen"))).block();
+        var lastId = next.get(5, TimeUnit.SECONDS).getId();
+
+        // the same sequence number, published by a run that started earlier
+        var previousRun = changes(eventId(epoch(lastId) - 60_000, sequence(lastId) - 1))
+                .filter(event -> event.event() != null).blockFirst(Duration.ofSeconds(5));
+        var legacy = changes(String.valueOf(sequence(lastId) - 1))
+                .filter(event -> event.event() != null).blockFirst(Duration.ofSeconds(5));
+        var sameRun = changes(eventId(epoch(lastId), sequence(lastId) - 1))
+                .filter(event -> event.event() != null).blockFirst(Duration.ofSeconds(5));
+
+        assertAll(
+                () -> assertEquals("reset", previousRun.event()),
+                () -> assertEquals(lastId, previousRun.id()),
+                () -> assertEquals("reset", legacy.event()),
+                () -> assertEquals("created", sameRun.event()),
+                () -> assertEquals(lastId, sameRun.id())
+        );
+    }
+
+    @Test
+    void shouldKeepTheLatestEventsForASlowSubscriber() {
+        var changeFeed = new PersonChangeFeed();
+        var slow = new Subscriber();
+        changeFeed.since(null).subscribe(slow);
+        var person = person("mycroft.holmes", "Mycroft");
+        person.setId(1L);
+        for (int i = 0; i < 10_000; ++i) {
+            changeFeed.updated(person);
+        }
+
+        slow.request(Long.MAX_VALUE);
+        assertEquals(256, slow.received.size());
+        assertEquals(10_000, slow.received.get(slow.received.size() - 1).getSequence());
+        assertEquals(10_000 - 255, slow.received.get(0).getSequence());
+    }
+
+    private Flux<ServerSentEvent<Map<String, Object>>> changes(String lastEventId) {
+        return webClient.get().uri("/changes")
+                .headers(headers -> {
+                    if (lastEventId != null) {
+                        headers.set("Last-Event-ID", lastEventId);
+                    }
+                })
+                .retrieve().bodyToFlux(EVENTS);
+    }
+
+    private static long epoch(String eventId) {
+        return Long.parseLong(eventId.substring(0, eventId.indexOf('-')));
+    }
+
+    private static long sequence(String eventId) {
+        return Long.parseLong(eventId.substring(eventId.indexOf('-') + 1));
+    }
+
+    private static String eventId(long epoch, long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private static List<String> names(List<ServerSentEvent<Map<String, Object>>> events) {
+        return events.stream().map(ServerSentEvent::event).collect(Collectors.toList());
+    }
+
+    private static Person person(String username, String firstName) {
+        var person = new Person();
+        person.setUsername(username);
+        person.setFirstName(firstName);
+        person.setLastName("Holmes");
+        person.setPassword("secret");
+        person.setHiringDate(LocalDateTime.now());
+        return person;
+    }
+
+    /**
+     * Requests nothing until told to.
+     */
+    private static class Subscriber extends BaseSubscriber<PersonEvent> {
+        final List<PersonEvent> received = new ArrayList<>();
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+        }
+
+        @Override
+        protected void hookOnNext(PersonEvent event) {
+            received.add(event);
+        }
+    }
+}
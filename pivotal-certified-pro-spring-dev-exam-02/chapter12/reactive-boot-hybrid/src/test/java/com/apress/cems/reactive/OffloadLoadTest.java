@@ -0,0 +1,157 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.reactive;
+
+import com.apress.cems.reactive.person.PersonRepo;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keeps {@code SLOW_CLIENTS} clients sending requests whose query takes {@code SLOW_QUERY} and measures how long a
+ * request that does not touch the database, the health check, takes meanwhile. Tomcat gets 4 request threads: when the queries run on
+ * them, the health checks queue behind the queries; offloaded to the {@code jpaScheduler}, they are answered at once.
+ * It starts the application twice and keeps it busy for a while, so it only runs when the build is started with
+ * {@code -DloadTest=true}.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+class OffloadLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(OffloadLoadTest.class);
+
+    private static final Duration SLOW_QUERY = Duration.ofMillis(200);
+    private static final int SLOW_CLIENTS = 16;
+    private static final int PROBES = 20;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void requestThreadsStayAvailable() throws Exception {
+        var blocking = probeLatencies(false);
+        var offloaded = probeLatencies(true);
+
+        logger.info("Health check while queries run on the request threads: {}", percentiles(blocking));
+        logger.info("Health check while queries run on the jpaScheduler: {}", percentiles(offloaded));
+        assertTrue(offloaded[offloaded.length * 9 / 10] < blocking[blocking.length / 2]);
+    }
+
+    private long[] probeLatencies(boolean offload) throws Exception {
+        try (var ctx = new SpringApplicationBuilder(ReactiveHybridApplication.class, SlowQueries.class)
+                .run("--server.port=0", "--server.tomcat.max-threads=4", "--cems.jpa.offload=" + offload,
+                        "--spring.datasource.hikari.jdbc-url=jdbc:h2:mem:offload-" + offload + ";DB_CLOSE_DELAY=-1",
+                        "--management.health.db.enabled=false", "--logging.level.org.springframework=INFO")) {
+            var baseUrl = "http://localhost:" + ((WebServerApplicationContext) ctx).getWebServer().getPort();
+            var done = new AtomicBoolean();
+            List<CompletableFuture<Void>> slow = new ArrayList<>();
+            for (int i = 0; i < SLOW_CLIENTS; ++i) {
+                slow.add(keepQuerying(baseUrl + "/persons/1", done));
+            }
+            Thread.sleep(SLOW_QUERY.toMillis());
+            var nanos = new long[PROBES];
+            for (int i = 0; i < PROBES; ++i) {
+                Thread.sleep(50);
+                long start = System.nanoTime();
+                var health = client.send(get(baseUrl + "/actuator/health"), HttpResponse.BodyHandlers.ofString());
+                nanos[i] = System.nanoTime() - start;
+                assertEquals(200, health.statusCode());
+            }
+            done.set(true);
+            CompletableFuture.allOf(slow.toArray(CompletableFuture[]::new)).get();
+            Arrays.sort(nanos);
+            return nanos;
+        }
+    }
+
+    /**
+     * A client sending the next request as soon as the previous one is answered, until {@code done}.
+     */
+    private CompletableFuture<Void> keepQuerying(String url, AtomicBoolean done) {
+        return client.sendAsync(get(url), HttpResponse.BodyHandlers.discarding()).thenCompose(response -> {
+            assertEquals(200, response.statusCode());
+            return done.get() ? CompletableFuture.completedFuture(null) : keepQuerying(url, done);
+        });
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private static String percentiles(long[] sortedNanos) {
+        return String.format("p50 %.1f ms, p90 %.1f ms, max %.1f ms", sortedNanos[sortedNanos.length / 2] / 1e6,
+                sortedNanos[sortedNanos.length * 9 / 10] / 1e6, sortedNanos[sortedNanos.length - 1] / 1e6);
+    }
+
+    /**
+     * Makes every repository call take {@code SLOW_QUERY} longer, like a query on a large table.
+     */
+    @Configuration
+    static class SlowQueries {
+
+        @Bean
+        static BeanPostProcessor slowPersonRepo() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof PersonRepo)) {
+                        return bean;
+                    }
+                    var factory = new ProxyFactory(bean);
+                    factory.addAdvice((MethodInterceptor) invocation -> {
+                        Thread.sleep(SLOW_QUERY.toMillis());
+                        return invocation.proceed();
+                    });
+                    return factory.getProxy();
+                }
+            };
+        }
+    }
+}
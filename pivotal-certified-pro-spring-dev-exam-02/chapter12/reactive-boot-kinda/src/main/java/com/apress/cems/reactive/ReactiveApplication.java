@@ -28,21 +28,35 @@ SOFTWARE.
 package com.apress.cems.reactive;
 
 import com.apress.cems.reactive.person.PersonHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.reactive.function.server.RequestPredicate;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.springframework.web.reactive.function.BodyInserters.fromObject;
 import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
 import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
 import static org.springframework.web.reactive.function.server.RequestPredicates.DELETE;
 import static org.springframework.web.reactive.function.server.RequestPredicates.PUT;
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
 import static org.springframework.web.reactive.function.server.RouterFunctions.route;
 import static org.springframework.web.reactive.function.server.ServerResponse.ok;
 
@@ -56,6 +70,8 @@ public class ReactiveApplication {
 
     private static Logger logger = LoggerFactory.getLogger(ReactiveApplication.class);
 
+    static final int JPA_QUEUE = 1000;
+
     private final PersonHandler personHandler;
 
     public ReactiveApplication(PersonHandler personHandler) {
@@ -65,9 +81,11 @@ public class ReactiveApplication {
     @Bean
     RouterFunction<ServerResponse> routingFunction() {
         return route(GET("/home"), serverRequest -> ok().body(fromObject("works!")))
+                .andRoute(GET("/persons").and(acceptsNdjson()), personHandler.export)
                 .andRoute(GET("/persons"), personHandler.list)
                 .andRoute(GET("/persons/{id}"), personHandler::show)
                 .andRoute(PUT("/persons/{id}"), personHandler.update)
+                .andRoute(POST("/persons").and(contentType(PersonHandler.APPLICATION_NDJSON)), personHandler::importPersons)
                 .andRoute(POST("/persons"), personHandler::save)
                 .andRoute(DELETE("/persons/{id}"), personHandler.delete)
                 .filter((request, next) -> {
@@ -76,6 +94,36 @@ public class ReactiveApplication {
                 });
     }
 
+    /**
+     * Matches only an {@code Accept} header listing {@code application/x-ndjson} itself; browsers and clients that
+     * send no header keep getting the JSON array.
+     */
+    private static RequestPredicate acceptsNdjson() {
+        return request -> request.headers().accept().stream().anyMatch(PersonHandler.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+
+    /**
+     * Registers a Jackson encoder that treats {@code application/x-ndjson} as a streaming type: every page of persons
+     * read from the database is written and flushed line by line instead of being gathered into one JSON array.
+     */
+    @Bean
+    CodecCustomizer ndjsonCodecs(ObjectMapper objectMapper) {
+        var encoder = new Jackson2JsonEncoder(objectMapper, PersonHandler.APPLICATION_NDJSON);
+        encoder.setStreamingMediaTypes(List.of(PersonHandler.APPLICATION_NDJSON));
+        return configurer -> configurer.customCodecs().register(encoder);
+    }
+
+    /**
+     * Runs the repository calls that the service moved off the request threads: one thread per pooled connection, at
+     * most {@value #JPA_QUEUE} calls waiting for one of them, the next ones are rejected.
+     */
+    @Bean(destroyMethod = "dispose")
+    static Scheduler jpaScheduler(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int connections) {
+        var executor = new ThreadPoolExecutor(connections, connections, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(JPA_QUEUE), new CustomizableThreadFactory("jpa-"));
+        return Schedulers.fromExecutorService(executor, "jpa");
+    }
+
     public static void main(String... args) {
         ConfigurableApplicationContext ctx = SpringApplication.run(ReactiveApplication.class, args);
         ctx.registerShutdownHook();
@@ -30,6 +30,7 @@ package com.apress.cems.reactive.person;
 import com.apress.cems.person.Person;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.server.HandlerFunction;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
@@ -45,15 +46,26 @@ import static org.springframework.web.reactive.function.BodyInserters.fromObject
  */
 @Component
 public class PersonHandler {
+    public static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
     PersonReactiveService personReactiveService;
 
-    public PersonHandler(PersonReactiveService personReactiveService) {
+    PersonImporter personImporter;
+
+    public PersonHandler(PersonReactiveService personReactiveService, PersonImporter personImporter) {
         this.personReactiveService = personReactiveService;
+        this.personImporter = personImporter;
     }
 
     public HandlerFunction<ServerResponse> list = serverRequest -> ServerResponse.ok()
             .contentType(MediaType.APPLICATION_JSON).body(personReactiveService.findAll(), Person.class);
 
+    /**
+     * Writes all persons as newline delimited JSON, one person per line, each line as soon as its person is read.
+     */
+    public HandlerFunction<ServerResponse> export = serverRequest -> ServerResponse.ok()
+            .contentType(APPLICATION_NDJSON).body(personReactiveService.findAll(), Person.class);
+
     public Mono<ServerResponse> show(ServerRequest request) {
         return personReactiveService.findById(Long.valueOf(request.pathVariable("id")))
                 .flatMap(person -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(person))
@@ -70,6 +82,15 @@ public class PersonHandler {
                 .switchIfEmpty(ServerResponse.notFound().build());
     }
 
+    /**
+     * Saves the persons of a newline delimited JSON body, one person per line, as they are read, and answers with
+     * the {@link ImportReport}.
+     */
+    public Mono<ServerResponse> importPersons(ServerRequest serverRequest) {
+        return personImporter.importPersons(serverRequest.body(BodyExtractors.toDataBuffers()))
+                .flatMap(report -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(report));
+    }
+
     public HandlerFunction<ServerResponse> update = serverRequest -> ServerResponse.noContent()
             .build(personReactiveService.update(Long.valueOf(serverRequest.pathVariable("id")), serverRequest.bodyToMono(Person.class)));
 
@@ -16,6 +16,14 @@ public interface PersonReactiveService {
 
     Mono<Person> save(Mono<Person> personMono);
 
+    /**
+     * Inserts the persons in batches, one transaction per batch. The persons are always inserted, their identifiers
+     * are assigned by the database.
+     *
+     * @return the inserted persons, with their identifiers, in the order they were received
+     */
+    Flux<Person> saveAll(Flux<Person> persons);
+
     Mono<Void> update(Long id, Mono<Person> personMono);
 
     Mono<Void> delete(Long id);
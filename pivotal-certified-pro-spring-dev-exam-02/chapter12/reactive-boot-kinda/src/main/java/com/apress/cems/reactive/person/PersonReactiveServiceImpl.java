@@ -29,24 +29,48 @@ package com.apress.cems.reactive.person;
 
 import com.apress.cems.person.Person;
 import com.apress.cems.util.NumberGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
+ * {@link #findAll()} reads the persons in pages of {@value #PAGE_SIZE}, the next page is only read when the previous
+ * one was consumed, so a slow consumer does not make the whole table pile up in memory.
+ * <p>
+ * {@link #saveAll(Flux)} groups the persons in batches of {@code cems.jpa.batch.size}, the last one possibly smaller,
+ * and saves each batch in one transaction, its inserts sent to the database as one JDBC batch. The next batch is only
+ * requested once the previous one is saved, and a failed batch rolls back alone.
+ * <p>
+ * Both go through the blocking repository, so their calls run on the {@code jpaScheduler}, never on the thread that
+ * serves the request or delivers the body.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
 @Service
 public class PersonReactiveServiceImpl implements PersonReactiveService {
 
+    static final int PAGE_SIZE = 100;
+
     private PersonRepo personRepo;
 
-    public PersonReactiveServiceImpl(PersonRepo personRepo) {
+    private Scheduler jpaScheduler;
+
+    private int batchSize;
+
+    public PersonReactiveServiceImpl(PersonRepo personRepo, Scheduler jpaScheduler,
+                                     @Value("${cems.jpa.batch.size}") int batchSize) {
         this.personRepo = personRepo;
+        this.jpaScheduler = jpaScheduler;
+        this.batchSize = batchSize;
     }
 
     @Override public Mono<Person> findById(Long id) {
@@ -54,7 +78,13 @@ public class PersonReactiveServiceImpl implements PersonReactiveService {
     }
 
     @Override public Flux<Person> findAll() {
-        return Flux.fromIterable(personRepo.findAll());
+        return pageAfter(0L)
+                .expand(page -> page.size() < PAGE_SIZE ? Mono.empty() : pageAfter(page.get(page.size() - 1).getId()))
+                .concatMapIterable(Function.identity(), 1);
+    }
+
+    private Mono<List<Person>> pageAfter(Long id) {
+        return Mono.fromCallable(() -> personRepo.findPageAfter(id, PageRequest.of(0, PAGE_SIZE))).subscribeOn(jpaScheduler);
     }
 
     @Override public Mono<Person> save(Mono<Person> personMono) {
@@ -70,6 +100,13 @@ public class PersonReactiveServiceImpl implements PersonReactiveService {
         });
     }
 
+    @Override public Flux<Person> saveAll(Flux<Person> persons) {
+        return persons.doOnNext(person -> person.setId(null))
+                .buffer(batchSize)
+                .concatMap(batch -> Mono.fromCallable(() -> personRepo.saveAll(batch)).subscribeOn(jpaScheduler))
+                .concatMapIterable(Function.identity());
+    }
+
     @Override public Mono<Void> update(Long id, Mono<Person> personMono) {
         Optional<Person> personOpt = personRepo.findById(id);
         if(personOpt.isPresent()) {
@@ -28,6 +28,7 @@ SOFTWARE.
 package com.apress.cems.reactive.person;
 
 import com.apress.cems.person.Person;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -66,4 +67,11 @@ public interface PersonRepo extends JpaRepository<Person, Long> {
 
     @Query("select p from Person p where p.hiringDate=:hd")
     List<Person> findByHiringDate(@Param("hd") LocalDateTime date);
+
+    /**
+     * Keyset pagination: the query seeks into the primary key index after the last person of the previous page,
+     * instead of skipping an offset.
+     */
+    @Query("select p from Person p where p.id > :after order by p.id")
+    List<Person> findPageAfter(@Param("after") Long after, Pageable pageable);
 }
@@ -28,6 +28,7 @@ SOFTWARE.
 package com.apress.cems.reactive;
 
 import com.apress.cems.person.Person;
+import com.apress.cems.reactive.person.PersonHandler;
 import com.apress.cems.util.DateProcessor;
 import org.junit.jupiter.api.*;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -142,4 +143,57 @@ class PersonHandlerTest {
         webTestClient.delete().uri("/1").exchange().expectStatus().isNoContent();
     }
 
+    @Order(7)
+    @Test
+    void shouldImportPersonsAndReportTheInvalidLines() {
+        var body = "{\"username\":\"violet.hunter\",\"firstName\":\"Violet\",\"lastName\":\"Hunter\",\"hiringDate\":\"1985-01-13 00:00\"}\n"
+                + "{\"username\":\"jabez.wilson\",\"firstName\":\"Jabez\"\n"
+                + "\n"
+                + "{\"username\":\"jw\",\"firstName\":\"Jabez\",\"lastName\":\"Wilson\",\"hiringDate\":\"1990-05-21 00:00\"}\n"
+                + "{\"username\":\"helen.stoner\",\"firstName\":\"Helen\",\"lastName\":\"Stoner\",\"hiringDate\":\"1983-04-02 00:00\",\"password\":\"hs1883\"}\n";
+
+        webTestClient.post().uri("/").contentType(PersonHandler.APPLICATION_NDJSON).bodyValue(body).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.saved").isEqualTo(2)
+                .jsonPath("$.rejected").isEqualTo(2)
+                .jsonPath("$.errors[0].line").isEqualTo(2)
+                .jsonPath("$.errors[1].line").isEqualTo(4)
+                .jsonPath("$.errors[1].message").isEqualTo("username size must be between 3 and 30");
+    }
+
+    @Order(8)
+    @Test
+    void shouldExportAllPersonsOnePerLine() {
+        var persons = webTestClient.get().uri("/").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBodyList(Person.class).returnResult().getResponseBody();
+
+        var lines = webTestClient.get().uri("/").accept(PersonHandler.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(PersonHandler.APPLICATION_NDJSON)
+                .returnResult(String.class).getResponseBody()
+                .collectList().block();
+
+        assertEquals(persons.size(), lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"username\":\"violet.hunter\"")));
+        assertTrue(lines.stream().noneMatch(line -> line.contains("password")));
+    }
+
+    @Order(9)
+    @Test
+    void shouldReportTheLinesRefusedByTheDatabase() {
+        var body = "{\"username\":\"violet.hunter\",\"firstName\":\"Violet\",\"lastName\":\"Hunter\",\"hiringDate\":\"1985-01-13 00:00\"}\n"
+                + "{\"username\":\"hatty.doran\",\"firstName\":\"Hatty\",\"lastName\":\"Doran\",\"hiringDate\":\"1987-10-08 00:00\"}\n";
+
+        webTestClient.post().uri("/").contentType(PersonHandler.APPLICATION_NDJSON).bodyValue(body).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.saved").isEqualTo(1)
+                .jsonPath("$.rejected").isEqualTo(1)
+                .jsonPath("$.errors[0].line").isEqualTo(1)
+                .jsonPath("$.errors[0].message").isNotEmpty();
+    }
+
 }
@@ -28,20 +28,27 @@ SOFTWARE.
 package com.apress.reactive;
 
 import com.apress.reactive.person.PersonHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.RequestPredicate;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
+import java.util.List;
+
 import static org.springframework.web.reactive.function.BodyInserters.fromObject;
 import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
 import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
 import static org.springframework.web.reactive.function.server.RequestPredicates.PUT;
 import static org.springframework.web.reactive.function.server.RequestPredicates.DELETE;
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
 import static org.springframework.web.reactive.function.server.RouterFunctions.route;
 import static org.springframework.web.reactive.function.server.ServerResponse.ok;
 
@@ -64,9 +71,11 @@ public class MongoReactiveApplication {
     @Bean
     RouterFunction<ServerResponse> routingFunction() {
         return route(GET("/home"), serverRequest -> ok().body(fromObject("works!")))
+                .andRoute(GET("/persons").and(acceptsNdjson()), personHandler.export)
                 .andRoute(GET("/persons"), personHandler.list)
                 .andRoute(GET("/persons/{id}"), personHandler::show)
                 .andRoute(PUT("/persons/{id}"), personHandler.update)
+                .andRoute(POST("/persons").and(contentType(PersonHandler.APPLICATION_NDJSON)), personHandler::importPersons)
                 .andRoute(POST("/persons"), personHandler::save)
                 .andRoute(DELETE("/persons/{id}"), personHandler.delete)
                 .filter((request, next) -> {
@@ -75,6 +84,25 @@ public class MongoReactiveApplication {
                 });
     }
 
+    /**
+     * {@code RequestPredicates.accept} would also match {@code *}{@code /*}, which would send the export to every
+     * client that does not say what it accepts.
+     */
+    private static RequestPredicate acceptsNdjson() {
+        return request -> request.headers().accept().stream().anyMatch(PersonHandler.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+
+    /**
+     * The default encoder writes a {@code Flux} one element per line only for {@code application/stream+json}; this
+     * one does the same for {@code application/x-ndjson}, so each person leaves as soon as the cursor returns it.
+     */
+    @Bean
+    CodecCustomizer ndjsonCodecs(ObjectMapper objectMapper) {
+        var encoder = new Jackson2JsonEncoder(objectMapper, PersonHandler.APPLICATION_NDJSON);
+        encoder.setStreamingMediaTypes(List.of(PersonHandler.APPLICATION_NDJSON));
+        return configurer -> configurer.customCodecs().register(encoder);
+    }
+
     public static void main(String... args) {
         ConfigurableApplicationContext ctx = SpringApplication.run( MongoReactiveApplication.class, args);
         ctx.registerShutdownHook();
@@ -28,8 +28,11 @@ SOFTWARE.
 package com.apress.reactive.person;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.math.BigInteger;
 import java.time.LocalDateTime;
 
@@ -42,10 +45,20 @@ public class Person {
 
     @Id
     private String id;
+    @NotNull
+    @Size(min = 3, max = 30)
+    @Indexed(unique = true)
     private String username;
+    @NotNull
+    @Size(min = 4, max = 50)
     private String password;
+    @NotNull
+    @Size(min = 3, max = 30)
     private String firstName;
+    @NotNull
+    @Size(min = 3, max = 30)
     private String lastName;
+    @NotNull
     private LocalDateTime hiringDate;
     private LocalDateTime createdAt;
     private LocalDateTime modifiedAt;
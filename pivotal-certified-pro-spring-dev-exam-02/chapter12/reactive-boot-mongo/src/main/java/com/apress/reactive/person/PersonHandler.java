@@ -30,6 +30,7 @@ package com.apress.reactive.person;
 import com.apress.reactive.person.services.PersonReactiveService;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.server.HandlerFunction;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
@@ -43,15 +44,26 @@ import java.net.URI;
  */
 @Component
 public class PersonHandler {
+    public static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
     private PersonReactiveService personService;
 
-    public PersonHandler(PersonReactiveService personService) {
+    private PersonImporter personImporter;
+
+    public PersonHandler(PersonReactiveService personService, PersonImporter personImporter) {
         this.personService = personService;
+        this.personImporter = personImporter;
     }
 
     public HandlerFunction<ServerResponse> list = serverRequest -> ServerResponse.ok()
             .contentType(MediaType.APPLICATION_JSON).body(personService.findAll(), Person.class);
 
+    /**
+     * Streams the persons from the cursor to the client, one JSON document per line.
+     */
+    public HandlerFunction<ServerResponse> export = serverRequest -> ServerResponse.ok()
+            .contentType(APPLICATION_NDJSON).body(personService.findAll(), Person.class);
+
     public Mono<ServerResponse> show(ServerRequest serverRequest) {
         return personService.findById(serverRequest.pathVariable("id"))
                 .flatMap(person -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(person))
@@ -67,6 +79,15 @@ public class PersonHandler {
                 .switchIfEmpty(ServerResponse.notFound().build());
     }
 
+    /**
+     * Imports the persons of a newline delimited JSON body while it is received and answers with the
+     * {@link ImportReport}.
+     */
+    public Mono<ServerResponse> importPersons(ServerRequest serverRequest) {
+        return personImporter.importPersons(serverRequest.body(BodyExtractors.toDataBuffers()))
+                .flatMap(report -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(report));
+    }
+
     public HandlerFunction<ServerResponse> update = serverRequest -> ServerResponse.noContent()
             .build(personService.update(serverRequest.pathVariable("id"),
                     serverRequest.bodyToMono(Person.class)));
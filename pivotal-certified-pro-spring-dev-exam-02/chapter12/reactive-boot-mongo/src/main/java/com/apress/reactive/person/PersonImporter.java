@@ -0,0 +1,156 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.reactive.person;
+
+import com.apress.reactive.person.services.PersonReactiveService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Splits a newline delimited JSON body into lines while it is being received and reads a person from each one.
+ * Lines that cannot be read or fail validation end up in the {@link ImportReport} with their number, the others
+ * are handed to {@link PersonReactiveService#saveAll(Flux)} in batches of {@code cems.mongo.batch.size}, each one
+ * written with a single ordered bulk insert. The body is consumed only as fast as MongoDB takes the batches. Blank
+ * lines are skipped.
+ * <p>
+ * There is no transaction around a batch: when MongoDB refuses a document, a username already taken for instance,
+ * the documents before it are already written and the ones after it were never sent. The refused line is reported
+ * with the write error and the rest of the batch is inserted again, so no line is lost or written twice. Any other
+ * failure, an unreachable server for instance, ends the import with its error, since nothing is known about the batch.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Component
+public class PersonImporter {
+    private static final ResolvableType STRING = ResolvableType.forClass(String.class);
+
+    private final StringDecoder lineDecoder = StringDecoder.textPlainOnly(StringDecoder.DEFAULT_DELIMITERS, true);
+
+    private ObjectMapper objectMapper;
+
+    private Validator validator;
+
+    private PersonReactiveService personService;
+
+    private int batchSize;
+
+    public PersonImporter(ObjectMapper objectMapper, Validator validator, PersonReactiveService personService,
+                          @Value("${cems.mongo.batch.size}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.personService = personService;
+        this.batchSize = batchSize;
+    }
+
+    public Mono<ImportReport> importPersons(Flux<DataBuffer> body) {
+        return Mono.defer(() -> {
+            var report = new ImportReport();
+            Flux<Tuple2<Long, Person>> persons = lineDecoder.decode(body, STRING, null, Map.of())
+                    .index()
+                    .handle((line, sink) -> {
+                        long number = line.getT1() + 1;
+                        Person person = read(number, line.getT2(), report);
+                        if (person != null) {
+                            sink.next(Tuples.of(number, person));
+                        }
+                    });
+            return persons.buffer(batchSize)
+                    .concatMap(batch -> save(batch, report))
+                    .reduce(0L, Long::sum)
+                    .map(report::saved);
+        });
+    }
+
+    private Mono<Long> save(List<Tuple2<Long, Person>> batch, ImportReport report) {
+        if (batch.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return personService.saveAll(Flux.fromIterable(batch).map(Tuple2::getT2))
+                .count()
+                .onErrorResume(e -> {
+                    BulkWriteError error = firstWriteError(e);
+                    if (error == null) {
+                        return Mono.error(e);
+                    }
+                    int written = error.getIndex();
+                    report.reject(batch.get(written).getT1(), error.getMessage());
+                    return save(batch.subList(written + 1, batch.size()), report).map(saved -> saved + written);
+                });
+    }
+
+    private static BulkWriteError firstWriteError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException) {
+                List<BulkWriteError> errors = ((MongoBulkWriteException) cause).getWriteErrors();
+                return errors.isEmpty() ? null : errors.get(0);
+            }
+        }
+        return null;
+    }
+
+    private Person read(long number, String line, ImportReport report) {
+        if (line.isBlank()) {
+            return null;
+        }
+        Person person;
+        try {
+            person = objectMapper.readValue(line, Person.class);
+        } catch (JsonProcessingException e) {
+            report.reject(number, e.getOriginalMessage());
+            return null;
+        }
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (!violations.isEmpty()) {
+            report.reject(number, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return person;
+    }
+}
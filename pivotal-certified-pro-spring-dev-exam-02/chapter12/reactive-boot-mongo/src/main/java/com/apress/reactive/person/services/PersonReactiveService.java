@@ -45,6 +45,14 @@ public interface PersonReactiveService {
 
     Mono<Person> save(Person person);
 
+    /**
+     * Saves the persons in batches, a batch of new persons with one insert. A person that comes with an identifier
+     * replaces the person with that identifier, so importing the same persons twice does not duplicate them.
+     *
+     * @return the saved persons, in the order they were received
+     */
+    Flux<Person> saveAll(Flux<Person> persons);
+
     Mono<Void> update(String id, Mono<Person> personMono);
 
     Mono<Void> delete(String id);
@@ -31,11 +31,16 @@ import com.apress.reactive.person.Person;
 import com.apress.reactive.person.PersonReactiveRepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
+ * {@link #findAll()} reads the persons through a cursor, the driver fetches the next documents only when the previous
+ * ones were consumed. {@link #saveAll(Flux)} groups the persons in batches of {@code cems.mongo.batch.size}, the last
+ * one possibly smaller, and only requests the next batch once the previous one is written.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
@@ -46,8 +51,12 @@ public class PersonReactiveServiceImpl implements PersonReactiveService {
 
     private final PersonReactiveRepo personRepository;
 
-    public PersonReactiveServiceImpl(PersonReactiveRepo personRepository) {
+    private final int batchSize;
+
+    public PersonReactiveServiceImpl(PersonReactiveRepo personRepository,
+                                     @Value("${cems.mongo.batch.size}") int batchSize) {
         this.personRepository = personRepository;
+        this.batchSize = batchSize;
     }
 
     //added the subscriber just to make sure our service works
@@ -66,6 +75,11 @@ public class PersonReactiveServiceImpl implements PersonReactiveService {
         return personRepository.save(person);
     }
 
+    @Override
+    public Flux<Person> saveAll(Flux<Person> persons) {
+        return persons.buffer(batchSize).concatMap(personRepository::saveAll);
+    }
+
     @Override
     public Mono<Void> update(String id, Mono<Person> personMono) {
        return personRepository.findById(id).doOnNext(original ->
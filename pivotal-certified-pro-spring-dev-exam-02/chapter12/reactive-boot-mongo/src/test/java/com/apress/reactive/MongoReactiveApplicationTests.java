@@ -28,6 +28,7 @@ SOFTWARE.
 package com.apress.reactive;
 
 import com.apress.reactive.person.Person;
+import com.apress.reactive.person.PersonHandler;
 import org.junit.jupiter.api.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -156,6 +157,45 @@ class MongoReactiveApplicationTests {
         webTestClient.delete().uri("/gigipedala43").exchange().expectStatus().isNoContent();
     }
 
+    @Order(7)
+    @Test
+    void shouldImportPersonsAndReportTheInvalidLines() {
+        var body = "{\"username\":\"violet.hunter\",\"firstName\":\"Violet\",\"lastName\":\"Hunter\",\"password\":\"vh1885\",\"hiringDate\":\"1985-01-13T00:00:00\"}\n"
+                + "{\"username\":\"jabez.wilson\",\"firstName\":\"Jabez\"\n"
+                + "\n"
+                + "{\"username\":\"jw\",\"firstName\":\"Jabez\",\"lastName\":\"Wilson\",\"password\":\"jw1890\",\"hiringDate\":\"1990-05-21T00:00:00\"}\n"
+                + "{\"username\":\"helen.stoner\",\"firstName\":\"Helen\",\"lastName\":\"Stoner\",\"password\":\"hs1883\",\"hiringDate\":\"1983-04-02T00:00:00\"}\n";
+
+        webTestClient.post().uri("/").contentType(PersonHandler.APPLICATION_NDJSON).bodyValue(body).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.saved").isEqualTo(2)
+                .jsonPath("$.rejected").isEqualTo(2)
+                .jsonPath("$.errors[0].line").isEqualTo(2)
+                .jsonPath("$.errors[1].line").isEqualTo(4)
+                .jsonPath("$.errors[1].message").isEqualTo("username size must be between 3 and 30");
+    }
+
+    @Order(8)
+    @Test
+    void shouldExportAllPersonsOnePerLine() {
+        var persons = webTestClient.get().uri("/").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBodyList(Person.class).returnResult().getResponseBody();
+
+        var lines = webTestClient.get().uri("/").accept(PersonHandler.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(PersonHandler.APPLICATION_NDJSON)
+                .returnResult(String.class).getResponseBody()
+                .collectList().block();
+
+        assertNotNull(persons);
+        assertNotNull(lines);
+        assertEquals(persons.size(), lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"username\":\"violet.hunter\"")));
+    }
+
 }
 
 class DateProcessor {
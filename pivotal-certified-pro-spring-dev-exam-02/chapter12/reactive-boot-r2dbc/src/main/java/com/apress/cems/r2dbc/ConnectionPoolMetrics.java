@@ -0,0 +1,78 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.r2dbc;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the state of a connection pool as {@code r2dbc.pool.*} gauges, tagged with the name of the pool. A
+ * growing {@code r2dbc.pool.pending} with {@code r2dbc.pool.acquired} at {@code r2dbc.pool.max.allocated} means the
+ * pool is too small for the load.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public class ConnectionPoolMetrics implements MeterBinder {
+
+    private final ConnectionPool pool;
+
+    private final Tags tags;
+
+    public ConnectionPoolMetrics(ConnectionPool pool, String name) {
+        this.pool = pool;
+        this.tags = Tags.of("name", name);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pool.getMetrics().ifPresent(metrics -> {
+            gauge(registry, "acquired", metrics, PoolMetrics::acquiredSize, "Connections in use");
+            gauge(registry, "allocated", metrics, PoolMetrics::allocatedSize, "Connections open, in use or idle");
+            gauge(registry, "idle", metrics, PoolMetrics::idleSize, "Connections open and idle");
+            gauge(registry, "pending", metrics, PoolMetrics::pendingAcquireSize, "Callers waiting for a connection");
+            gauge(registry, "max.allocated", metrics, PoolMetrics::getMaxAllocatedSize, "Maximum number of connections");
+            gauge(registry, "max.pending", metrics, PoolMetrics::getMaxPendingAcquireSize, "Maximum number of waiting callers");
+        });
+    }
+
+    private void gauge(MeterRegistry registry, String name, PoolMetrics metrics, ToDoubleFunction<PoolMetrics> value,
+                       String description) {
+        Gauge.builder("r2dbc.pool." + name, metrics, value)
+                .tags(tags)
+                .description(description)
+                .strongReference(true)
+                .register(registry);
+    }
+}
@@ -29,6 +29,7 @@ package com.apress.cems.r2dbc;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
@@ -43,13 +44,16 @@ import java.util.List;
 public class Initializer {
     private static Logger logger = LoggerFactory.getLogger(Initializer.class);
 
+    @Value("${cems.r2dbc.database}")
+    String database;
+
     Connection jdbc;
 
     @PostConstruct
     public void init() {
         logger.info(" -->> Starting database initialization...");
         try {
-            jdbc = DriverManager.getConnection("jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;", "sa", "");
+            jdbc = DriverManager.getConnection("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;", "sa", "");
             Statement statement = jdbc.createStatement();
             List<String> statements = Arrays.asList(
                     "drop table PERSON if exists;",
@@ -28,15 +28,21 @@ SOFTWARE.
 package com.apress.cems.r2dbc;
 
 import com.apress.cems.r2dbc.person.PersonHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.RequestPredicate;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
+import java.util.List;
+
 import static org.springframework.web.reactive.function.BodyInserters.fromObject;
 import static org.springframework.web.reactive.function.server.RequestPredicates.*;
 import static org.springframework.web.reactive.function.server.RequestPredicates.DELETE;
@@ -57,9 +63,11 @@ public class ReactiveBootR2dbcApplication {
     @Bean
     RouterFunction<ServerResponse> routingFunction() {
         return route(GET("/home"), serverRequest -> ok().body(fromObject("works!")))
+                .andRoute(GET("/persons").and(acceptsNdjson()), personHandler.export)
                 .andRoute(GET("/persons"), personHandler.list)
                 .andRoute(GET("/persons/{id}"), personHandler::show)
                 .andRoute(PUT("/persons/{id}"), personHandler.update)
+                .andRoute(POST("/persons").and(contentType(PersonHandler.APPLICATION_NDJSON)), personHandler::importPersons)
                 .andRoute(POST("/persons"), personHandler::save)
                 .andRoute(DELETE("/persons/{id}"), personHandler.delete)
                 .filter((request, next) -> {
@@ -68,6 +76,26 @@ public class ReactiveBootR2dbcApplication {
                 });
     }
 
+    /**
+     * Only a request that names {@code application/x-ndjson} gets the export, one that accepts anything gets the
+     * JSON array.
+     */
+    private static RequestPredicate acceptsNdjson() {
+        return request -> request.headers().accept().stream().anyMatch(PersonHandler.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+
+    /**
+     * Spring 5.2 writes a stream of JSON values one per line only as {@code application/stream+json}, any other JSON
+     * type is collected into an array first. Jackson writes {@code application/x-ndjson} the same way, flushing
+     * each line, so an export holds one person at a time.
+     */
+    @Bean
+    CodecCustomizer ndjsonCodecs(ObjectMapper objectMapper) {
+        var encoder = new Jackson2JsonEncoder(objectMapper, PersonHandler.APPLICATION_NDJSON);
+        encoder.setStreamingMediaTypes(List.of(PersonHandler.APPLICATION_NDJSON));
+        return configurer -> configurer.customCodecs().register(encoder);
+    }
+
     public static void main(String... args) {
         ConfigurableApplicationContext ctx = SpringApplication.run( ReactiveBootR2dbcApplication.class, args);
         ctx.registerShutdownHook();
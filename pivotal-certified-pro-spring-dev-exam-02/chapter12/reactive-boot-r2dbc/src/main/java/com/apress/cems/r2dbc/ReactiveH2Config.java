@@ -27,24 +27,73 @@ SOFTWARE.
 */
 package com.apress.cems.r2dbc;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
 import io.r2dbc.h2.H2ConnectionConfiguration;
 import io.r2dbc.h2.H2ConnectionFactory;
-import io.r2dbc.spi.ConnectionFactories;
-import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.connectionfactory.R2dbcTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
 
 /**
+ * Creating an H2 connection opens a new session, so the connections are pooled: they are created up to
+ * {@code cems.r2dbc.pool.max-size}, reused, and closed after being idle for {@code cems.r2dbc.pool.max-idle-time}.
+ * The H2 driver runs its statements on the calling thread, and a released connection is handed to the next waiting
+ * request on the thread that released it. The handover is moved to the parallel scheduler, otherwise under load one
+ * event loop runs every waiting transaction in turn and the requests of its other connections are not read meanwhile.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
 @Configuration
 public class ReactiveH2Config extends AbstractR2dbcConfiguration {
 
-    @Bean
+    static final String POOL_NAME = "cemsPool";
+
+    @Value("${cems.r2dbc.database}")
+    private String database;
+
+    @Value("${cems.r2dbc.pool.initial-size}")
+    private int initialSize;
+
+    @Value("${cems.r2dbc.pool.max-size}")
+    private int maxSize;
+
+    @Value("${cems.r2dbc.pool.max-idle-time}")
+    private Duration maxIdleTime;
+
+    /**
+     * {@code ConnectionPool.close()} only returns a {@code Mono} that nobody would subscribe to, so the context closes
+     * the pool, and its connections, with {@code dispose()}.
+     */
+    @Bean(destroyMethod = "dispose")
     @Override
-    public ConnectionFactory connectionFactory() {
-        return new H2ConnectionFactory(H2ConnectionConfiguration.builder().inMemory("testdb").username("sa").password("").build());
+    public ConnectionPool connectionFactory() {
+        var h2 = new H2ConnectionFactory(H2ConnectionConfiguration.builder().inMemory(database).username("sa").password("").build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(h2)
+                .name(POOL_NAME)
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .validationQuery("SELECT 1")
+                .customizer(pool -> pool.acquisitionScheduler(Schedulers.parallel()))
+                .build());
+    }
+
+    @Bean
+    ReactiveTransactionManager transactionManager() {
+        return new R2dbcTransactionManager(connectionFactory());
+    }
+
+    @Bean
+    MeterBinder connectionPoolMetrics() {
+        return new ConnectionPoolMetrics(connectionFactory(), POOL_NAME);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.r2dbc.person;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The outcome of an import: how many persons were saved, how many lines were rejected and why. Only the first
+ * {@value #MAX_ERRORS} rejected lines are described, so a file full of bad lines does not make the report grow
+ * with it. Lines are rejected while the body is read and while the batches are written, possibly on different
+ * threads, so the counters are guarded by the report itself; the errors are listed in line order.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+public class ImportReport {
+    static final int MAX_ERRORS = 100;
+
+    private long saved;
+
+    private long rejected;
+
+    private final List<LineError> errors = new ArrayList<>();
+
+    synchronized void reject(long line, String message) {
+        if (++rejected <= MAX_ERRORS) {
+            errors.add(new LineError(line, message));
+        }
+    }
+
+    synchronized ImportReport saved(long saved) {
+        this.saved = saved;
+        errors.sort(Comparator.comparingLong(LineError::getLine));
+        return this;
+    }
+
+    public synchronized long getSaved() {
+        return saved;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public synchronized List<LineError> getErrors() {
+        return List.copyOf(errors);
+    }
+
+    public static class LineError {
+        private final long line;
+
+        private final String message;
+
+        LineError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -30,6 +30,8 @@ package com.apress.cems.r2dbc.person;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
 
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
@@ -43,12 +45,18 @@ public class Person {
     @Id
     private Long id;
 
+    @NotNull
+    @Size(min = 3, max = 50)
     private String loginuser;
 
+    @Size(max = 50)
     private String firstname;
 
+    @Size(max = 50)
     private String lastname;
 
+    @NotNull
+    @Size(max = 50)
     private String password;
 
     private LocalDateTime hiringdate;
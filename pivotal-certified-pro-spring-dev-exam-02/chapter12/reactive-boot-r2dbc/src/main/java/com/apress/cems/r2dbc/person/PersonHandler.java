@@ -30,6 +30,7 @@ package com.apress.cems.r2dbc.person;
 import com.apress.cems.r2dbc.person.services.PersonService;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.server.HandlerFunction;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
@@ -46,15 +47,26 @@ import static org.springframework.web.reactive.function.BodyInserters.fromObject
 
 @Component
 public class PersonHandler {
+    public static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
     private PersonService personService;
 
-    public PersonHandler(PersonService personService) {
+    private PersonImporter personImporter;
+
+    public PersonHandler(PersonService personService, PersonImporter personImporter) {
         this.personService = personService;
+        this.personImporter = personImporter;
     }
 
     public HandlerFunction<ServerResponse> list = serverRequest -> ServerResponse.ok()
             .contentType(MediaType.APPLICATION_JSON).body(personService.findAll(), Person.class);
 
+    /**
+     * Writes all persons as newline delimited JSON, one person per line, each line as soon as its person is read.
+     */
+    public HandlerFunction<ServerResponse> export = serverRequest -> ServerResponse.ok()
+            .contentType(APPLICATION_NDJSON).body(personService.findAll(), Person.class);
+
     public Mono<ServerResponse> show(ServerRequest serverRequest) {
         return personService.findById(Long.parseLong(serverRequest.pathVariable("id")))
                 .flatMap(person -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(person))
@@ -70,9 +82,19 @@ public class PersonHandler {
                 .switchIfEmpty(ServerResponse.notFound().build());
     }
 
-    public HandlerFunction<ServerResponse> update = serverRequest -> ServerResponse.noContent()
-            .build(personService.update(Long.parseLong(serverRequest.pathVariable("id")),
-                    serverRequest.bodyToMono(Person.class)));
+    /**
+     * Saves the persons of a newline delimited JSON body, one person per line, as they are read, and answers with
+     * the {@link ImportReport}.
+     */
+    public Mono<ServerResponse> importPersons(ServerRequest serverRequest) {
+        return personImporter.importPersons(serverRequest.body(BodyExtractors.toDataBuffers()))
+                .flatMap(report -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(report));
+    }
+
+    public HandlerFunction<ServerResponse> update = serverRequest -> personService.update(Long.parseLong(serverRequest.pathVariable("id")),
+                    serverRequest.bodyToMono(Person.class))
+            .flatMap(person -> ServerResponse.noContent().build())
+            .switchIfEmpty(ServerResponse.notFound().build());
 
     public HandlerFunction<ServerResponse> delete = serverRequest -> ServerResponse.noContent()
             .build(personService.delete(Long.parseLong(serverRequest.pathVariable("id"))));
@@ -0,0 +1,148 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.r2dbc.person;
+
+import com.apress.cems.r2dbc.person.services.PersonService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the persons of a newline delimited JSON body, one person per line, as the lines arrive. A line that is not
+ * a person, or not a valid one, is reported with its number and skipped, the import goes on with the next line.
+ * The valid persons are grouped in batches of {@code cems.r2dbc.batch.size} and each batch is passed on to
+ * {@link PersonService#saveAll(Flux)}, which inserts it with a single statement; the body is read as fast as the
+ * batches are written. When the database refuses a batch, a duplicate login for instance, the batch is rolled back
+ * and its persons are inserted again one at a time, so only the offending lines are reported, with the database
+ * error, and the import goes on. Any other error ends the import. Blank lines are ignored.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@Component
+public class PersonImporter {
+    private static final ResolvableType STRING = ResolvableType.forClass(String.class);
+
+    private final StringDecoder lineDecoder = StringDecoder.textPlainOnly(StringDecoder.DEFAULT_DELIMITERS, true);
+
+    private ObjectMapper objectMapper;
+
+    private Validator validator;
+
+    private PersonService personService;
+
+    private int batchSize;
+
+    public PersonImporter(ObjectMapper objectMapper, Validator validator, PersonService personService,
+                          @Value("${cems.r2dbc.batch.size}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.personService = personService;
+        this.batchSize = batchSize;
+    }
+
+    public Mono<ImportReport> importPersons(Flux<DataBuffer> body) {
+        return Mono.defer(() -> {
+            var report = new ImportReport();
+            Flux<Tuple2<Long, Person>> persons = lineDecoder.decode(body, STRING, null, Map.of())
+                    .index()
+                    .handle((line, sink) -> {
+                        long number = line.getT1() + 1;
+                        Person person = read(number, line.getT2(), report);
+                        if (person != null) {
+                            sink.next(Tuples.of(number, person));
+                        }
+                    });
+            return persons.buffer(batchSize)
+                    .concatMap(batch -> save(batch, report))
+                    .reduce(0L, Long::sum)
+                    .map(report::saved);
+        });
+    }
+
+    private Mono<Long> save(List<Tuple2<Long, Person>> batch, ImportReport report) {
+        return personService.saveAll(Flux.fromIterable(batch).map(Tuple2::getT2))
+                .count()
+                .onErrorResume(PersonImporter::refusedByTheDatabase, e -> batch.size() > 1
+                        ? Flux.fromIterable(batch).concatMap(line -> save(List.of(line), report)).reduce(0L, Long::sum)
+                        : reject(batch.get(0).getT1(), e, report));
+    }
+
+    /**
+     * The batch broke a constraint of the table. Any other error, a lost connection for instance, would fail every
+     * line the same way, so it ends the import instead.
+     */
+    private static boolean refusedByTheDatabase(Throwable e) {
+        return e instanceof R2dbcDataIntegrityViolationException || e instanceof DataIntegrityViolationException;
+    }
+
+    private Mono<Long> reject(long number, Throwable e, ImportReport report) {
+        report.reject(number, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        return Mono.just(0L);
+    }
+
+    private Person read(long number, String line, ImportReport report) {
+        if (line.isBlank()) {
+            return null;
+        }
+        Person person;
+        try {
+            person = objectMapper.readValue(line, Person.class);
+        } catch (JsonProcessingException e) {
+            report.reject(number, e.getOriginalMessage());
+            return null;
+        }
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (!violations.isEmpty()) {
+            report.reject(number, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return person;
+    }
+}
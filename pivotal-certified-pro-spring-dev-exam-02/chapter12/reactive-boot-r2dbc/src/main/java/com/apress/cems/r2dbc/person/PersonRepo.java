@@ -17,6 +17,13 @@ public interface PersonRepo extends ReactiveCrudRepository<Person, Long> {
 
     @Query("select * from Person p where p.loginuser=:loginuser")
     Mono<Person> findByLoginuser(String loginuser);
+
+    /**
+     * Keyset pagination: the query seeks into the primary key index after the last person of the previous page,
+     * instead of skipping an offset.
+     */
+    @Query("select * from Person p where p.id > :after order by p.id limit :size")
+    Flux<Person> findPageAfter(@Param("after") Long after, @Param("size") int size);
 }
 
 
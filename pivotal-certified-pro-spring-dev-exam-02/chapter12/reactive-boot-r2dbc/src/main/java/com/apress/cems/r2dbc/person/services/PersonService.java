@@ -42,7 +42,18 @@ public interface PersonService {
 
     Mono<Person> save(Person person);
 
-    Mono<Void> update(Long id, Mono<Person> personMono);
+    /**
+     * Inserts the persons in batches, one statement and one transaction per batch. The flux ends with the error of
+     * the first batch that fails, the batches before it are kept.
+     *
+     * @return the inserted persons, with their identifiers, in the order they were received
+     */
+    Flux<Person> saveAll(Flux<Person> persons);
+
+    /**
+     * @return the updated person, or an empty {@code Mono} if there is no person with the given id
+     */
+    Mono<Person> update(Long id, Mono<Person> personMono);
 
     Mono<Void> delete(Long id);
 
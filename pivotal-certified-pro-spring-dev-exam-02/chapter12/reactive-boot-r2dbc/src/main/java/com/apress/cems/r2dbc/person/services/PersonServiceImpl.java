@@ -29,28 +29,70 @@ package com.apress.cems.r2dbc.person.services;
 
 import com.apress.cems.r2dbc.person.Person;
 import com.apress.cems.r2dbc.person.PersonRepo;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.connectionfactory.ConnectionFactoryUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
 /**
+ * {@link #saveAll(Flux)} groups the persons in batches of {@code cems.r2dbc.batch.size}, the last one possibly smaller,
+ * and inserts each batch with one statement holding a set of bindings per person, in a transaction of its own. Only
+ * the persons of the next batch are requested while a batch is written, so a slow database slows down the reading of
+ * the persons instead of letting them pile up. A failed batch rolls back alone, the batches written before it stay.
+ * A batch is only written when it is full or the persons end, so persons arriving slowly wait for the rest of their batch.
+ * <p>
+ * {@link #findAll()} reads the persons in pages of {@value #PAGE_SIZE}, the next page is only read when the previous one
+ * was consumed. There is no transaction around the pages, each page is read on a connection of its own, so a slow
+ * consumer holds neither a connection nor the whole table in memory.
+ * <p>
+ * {@link #update(Long, Mono)} and {@link #delete(Long)} read and write the person in one transaction. The update
+ * starts its transaction once the new values are received, so a slow client does not hold a connection.
+ *
  * @author Iuliana Cosmina
  * @since 1.0
  */
 @Service
-@Transactional
 public class PersonServiceImpl implements PersonService {
+    static final int PAGE_SIZE = 100;
+
+    private static final String INSERT_SQL = "insert into PERSON(LOGINUSER, FIRSTNAME, LASTNAME, PASSWORD, HIRINGDATE, VERSION, CREATEDAT, MODIFIEDAT) values($1, $2, $3, $4, $5, 0, $6, $7)";
+
     private PersonRepo personRepo;
 
-    public PersonServiceImpl(PersonRepo personRepo) {
+    private ConnectionFactory connectionFactory;
+
+    private int batchSize;
+
+    private TransactionalOperator transactionalOperator;
+
+    public PersonServiceImpl(PersonRepo personRepo, ConnectionFactory connectionFactory, TransactionalOperator transactionalOperator,
+                             @Value("${cems.r2dbc.batch.size}") int batchSize) {
         this.personRepo = personRepo;
+        this.connectionFactory = connectionFactory;
+        this.transactionalOperator = transactionalOperator;
+        this.batchSize = batchSize;
     }
 
-    @Transactional(readOnly = true)
     @Override
     public Flux<Person> findAll() {
-        return personRepo.findAll();
+        return pageAfter(0L)
+                .expand(page -> page.size() < PAGE_SIZE ? Mono.empty() : pageAfter(page.get(page.size() - 1).getId()))
+                .concatMapIterable(Function.identity(), 1);
+    }
+
+    private Mono<List<Person>> pageAfter(Long id) {
+        return personRepo.findPageAfter(id, PAGE_SIZE).collectList();
     }
 
     @Transactional(readOnly = true)
@@ -59,27 +101,84 @@ public class PersonServiceImpl implements PersonService {
         return personRepo.findById(id);
     }
 
+    @Transactional
     @Override
     public Mono<Person> save(Person person) {
         return personRepo.save(person);
     }
 
     @Override
-    public Mono<Void> update(Long id, Mono<Person> personMono) {
-        return personRepo.findById(id).doOnNext(original ->
-                personMono.doOnNext(
-                        updatedPerson -> {
-                            original.setLoginuser(updatedPerson.getLoginuser());
-                            original.setFirstname(updatedPerson.getFirstname());
-                            original.setLastname(updatedPerson.getLastname());
-                            personRepo.save(original);
-                        })
-        ).then(Mono.empty());
+    public Flux<Person> saveAll(Flux<Person> persons) {
+        return persons.buffer(batchSize).concatMap(batch -> insert(batch).as(transactionalOperator::transactional));
+    }
+
+    private Flux<Person> insert(List<Person> batch) {
+        return Flux.usingWhen(ConnectionFactoryUtils.getConnection(connectionFactory),
+                connection -> {
+                    Statement statement = connection.createStatement(INSERT_SQL).returnGeneratedValues("ID");
+                    for (int i = 0; i < batch.size(); ++i) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        bind(statement, batch.get(i));
+                    }
+                    return Flux.from(statement.execute())
+                            .concatMap(result -> result.map((row, metadata) -> row.get("ID", Long.class)));
+                },
+                this::release)
+                .zipWithIterable(batch, (id, person) -> {
+                    person.setId(id);
+                    return person;
+                });
+    }
+
+    /**
+     * Closes the connection unless it is the one of the current transaction, which the transaction manager closes.
+     * {@code ConnectionFactoryUtils.releaseConnection} closes both.
+     */
+    private Mono<Void> release(Connection connection) {
+        return ConnectionFactoryUtils.currentConnectionFactory(connectionFactory).hasElement()
+                .onErrorReturn(NoTransactionException.class, false)
+                .flatMap(transactional -> transactional ? Mono.empty() : Mono.from(connection.close()));
+    }
+
+    private static void bind(Statement statement, Person person) {
+        bind(statement, 0, person.getLoginuser(), String.class);
+        bind(statement, 1, person.getFirstname(), String.class);
+        bind(statement, 2, person.getLastname(), String.class);
+        bind(statement, 3, person.getPassword(), String.class);
+        bind(statement, 4, person.getHiringdate(), LocalDateTime.class);
+        bind(statement, 5, person.getCreatedat(), LocalDateTime.class);
+        bind(statement, 6, person.getModifiedat(), LocalDateTime.class);
+    }
+
+    private static void bind(Statement statement, int index, Object value, Class<?> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+
+    @Override
+    public Mono<Person> update(Long id, Mono<Person> personMono) {
+        return personMono.flatMap(updatedPerson -> personRepo.findById(id)
+                .map(original -> {
+                    original.setLoginuser(updatedPerson.getLoginuser());
+                    original.setFirstname(updatedPerson.getFirstname());
+                    original.setLastname(updatedPerson.getLastname());
+                    original.setModifiedat(LocalDateTime.now());
+                    return original;
+                })
+                .flatMap(personRepo::save)
+                .as(transactionalOperator::transactional));
     }
 
     @Override
     public Mono<Void> delete(Long id) {
-        return personRepo.findById(id).doOnNext(personRepo::delete).then(Mono.empty());
+        return personRepo.findById(id)
+                .flatMap(personRepo::delete)
+                .as(transactionalOperator::transactional);
     }
 
     @Transactional(readOnly = true)
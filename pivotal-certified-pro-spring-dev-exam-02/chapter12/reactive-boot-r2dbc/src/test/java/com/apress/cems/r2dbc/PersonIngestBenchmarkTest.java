@@ -0,0 +1,239 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.r2dbc;
+
+import com.apress.cems.r2dbc.person.Person;
+import com.apress.cems.r2dbc.person.PersonHandler;
+import com.apress.cems.r2dbc.person.PersonRepo;
+import com.apress.cems.r2dbc.person.services.PersonService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Posts persons as a newline delimited JSON stream, inserted in batches, and reads them back the same way.
+ * {@code benchmarkIngest} compares the throughput of the import, of {@code saveAll} and of saving the persons one at
+ * a time through the repository. It only logs the numbers, which depend on the machine, and it only runs when the
+ * build is started with {@code -DloadTest=true}.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "cems.r2dbc.database=ingest")
+class PersonIngestBenchmarkTest extends TestBase {
+    private static final Logger logger = LoggerFactory.getLogger(PersonIngestBenchmarkTest.class);
+
+    /** A few batches of {@code cems.r2dbc.batch.size}, the last one incomplete. */
+    static final int PERSONS = 1_200;
+    static final int BENCHMARK_PERSONS = 20_000;
+    static final int COMPARED_PERSONS = 2_000;
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    PersonRepo personRepo;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void shouldImportEveryLine() {
+        long before = personRepo.count().block();
+
+        Map<?, ?> response = importLines("import.", PERSONS);
+
+        assertAll(
+                () -> assertEquals(PERSONS, ((Number) response.get("saved")).intValue()),
+                () -> assertEquals(0, ((Number) response.get("rejected")).intValue()),
+                () -> assertEquals(before + PERSONS, personRepo.count().block()),
+                () -> assertNotNull(personRepo.findByLoginuser("import." + (PERSONS - 1)).block())
+        );
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void benchmarkIngest() {
+        long start = System.nanoTime();
+        personService.saveAll(Flux.range(0, COMPARED_PERSONS).map(i -> createPerson(null, "batched." + i, "Jane", "Doe", "jd")))
+                .then().block();
+        long batchedNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        Flux.range(0, COMPARED_PERSONS).concatMap(i -> personService.save(createPerson(null, "one." + i, "Jane", "Doe", "jd")))
+                .then().block();
+        long oneByOneNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        importLines("benchmark.", BENCHMARK_PERSONS);
+        long ndjsonNanos = System.nanoTime() - start;
+
+        logger.info("Batched saveAll of {} persons: {} persons/s", COMPARED_PERSONS, perSecond(COMPARED_PERSONS, batchedNanos));
+        logger.info("One save per person of {} persons: {} persons/s", COMPARED_PERSONS, perSecond(COMPARED_PERSONS, oneByOneNanos));
+        logger.info("NDJSON import of {} persons: {} persons/s", BENCHMARK_PERSONS, perSecond(BENCHMARK_PERSONS, ndjsonNanos));
+    }
+
+    @Test
+    void shouldExportAllPersonsOnePerLine() {
+        personService.saveAll(Flux.range(0, PERSONS).map(i -> createPerson(null, "export." + i, "Jane", "Doe", "jd")))
+                .then().block();
+        long persons = personRepo.count().block();
+
+        var client = WebClient.create("http://localhost:" + port);
+        long start = System.nanoTime();
+        long lines = client.get().uri("/persons").accept(PersonHandler.APPLICATION_NDJSON)
+                .retrieve().bodyToFlux(String.class)
+                .count().block(Duration.ofMinutes(5));
+        long exportNanos = System.nanoTime() - start;
+
+        assertEquals(persons, lines);
+        assertEquals(MediaType.APPLICATION_JSON, client.get().uri("/persons").accept(MediaType.ALL)
+                .exchange().block().headers().contentType().orElseThrow());
+        logger.info("NDJSON export of {} persons: {} persons/s", persons, perSecond(persons, exportNanos));
+    }
+
+    @Test
+    void shouldReportTheLinesThatAreNotValidPersons() {
+        var body = "{\"loginuser\":\"violet.hunter\",\"firstname\":\"Violet\",\"lastname\":\"Hunter\",\"password\":\"vh1895\"}\n"
+                + "\n"
+                + "{\"loginuser\":\"jabez.wilson\",\"firstname\":\"Jabez\"\n"
+                + "{\"loginuser\":\"jw\",\"firstname\":\"Jabez\",\"lastname\":\"Wilson\"}\n"
+                + "{\"loginuser\":\"helen.stoner\",\"firstname\":\"Helen\",\"lastname\":\"Stoner\",\"password\":\"hs1883\"}";
+
+        Map<?, ?> report = WebClient.create("http://localhost:" + port).post().uri("/persons")
+                .contentType(PersonHandler.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .retrieve().bodyToMono(Map.class)
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(2, ((Number) report.get("saved")).intValue());
+        assertEquals(2, ((Number) report.get("rejected")).intValue());
+        var errors = (List<?>) report.get("errors");
+        var malformed = (Map<?, ?>) errors.get(0);
+        var invalid = (Map<?, ?>) errors.get(1);
+        assertAll(
+                () -> assertEquals(3, ((Number) malformed.get("line")).intValue()),
+                () -> assertTrue(malformed.get("message").toString().startsWith("Unexpected end-of-input")),
+                () -> assertEquals(4, ((Number) invalid.get("line")).intValue()),
+                () -> assertEquals("loginuser size must be between 3 and 50, password must not be null", invalid.get("message")));
+        assertNotNull(personRepo.findByLoginuser("violet.hunter").block());
+        assertNotNull(personRepo.findByLoginuser("helen.stoner").block());
+        assertNull(personRepo.findByLoginuser("jw").block());
+    }
+
+    @Test
+    void shouldReportTheLinesRefusedByTheDatabase() {
+        var body = "{\"loginuser\":\"john.openshaw\",\"firstname\":\"John\",\"lastname\":\"Openshaw\",\"password\":\"jo1887\"}\n"
+                + "{\"loginuser\":\"john.openshaw\",\"firstname\":\"John\",\"lastname\":\"Openshaw\",\"password\":\"jo1888\"}\n"
+                + "{\"loginuser\":\"hatty.doran\",\"firstname\":\"Hatty\",\"lastname\":\"Doran\",\"password\":\"hd1892\"}";
+
+        Map<?, ?> report = WebClient.create("http://localhost:" + port).post().uri("/persons")
+                .contentType(PersonHandler.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .retrieve().bodyToMono(Map.class)
+                .block(Duration.ofSeconds(30));
+
+        var duplicate = (Map<?, ?>) ((List<?>) report.get("errors")).get(0);
+        assertAll(
+                () -> assertEquals(2, ((Number) report.get("saved")).intValue()),
+                () -> assertEquals(1, ((Number) report.get("rejected")).intValue()),
+                () -> assertEquals(2, ((Number) duplicate.get("line")).intValue()),
+                () -> assertNotNull(duplicate.get("message")),
+                () -> assertEquals("jo1887", personRepo.findByLoginuser("john.openshaw").block().getPassword()),
+                () -> assertNotNull(personRepo.findByLoginuser("hatty.doran").block()));
+    }
+
+    @Test
+    void shouldKeepTheBatchesSavedBeforeAFailedOne() {
+        // with batches of 500, the second batch repeats a login of the first one
+        var persons = Flux.range(0, 600).map(i -> createPerson(null, "rollback." + (i == 550 ? 0 : i), "Jane", "Doe", "jd"));
+
+        personService.saveAll(persons).as(StepVerifier::create)
+                .expectNextCount(500)
+                // the rows of the failed batch inserted before the duplicate are rolled back with it
+                .thenConsumeWhile(person -> true)
+                .expectError()
+                .verify(Duration.ofSeconds(30));
+        assertAll(
+                () -> assertNotNull(personRepo.findByLoginuser("rollback.499").block()),
+                () -> assertNull(personRepo.findByLoginuser("rollback.500").block())
+        );
+    }
+
+    @Test
+    void shouldReturnThePersonsInOrderWithTheirIds() {
+        List<Person> saved = personService.saveAll(Flux.just(
+                createPerson(null, "mary.morstan", "Mary", "Morstan", "mm"),
+                createPerson(null, "mrs.hudson", "Martha", "Hudson", "mh"),
+                createPerson(null, "greg.lestrade", "Greg", "Lestrade", "gl")))
+                .collectList().block();
+
+        assertEquals(List.of("mary.morstan", "mrs.hudson", "greg.lestrade"),
+                saved.stream().map(Person::getLoginuser).collect(Collectors.toList()));
+        for (Person person : saved) {
+            assertEquals(person.getLoginuser(), personRepo.findById(person.getId()).block().getLoginuser());
+        }
+    }
+
+    @Test
+    void shouldPublishPoolMetrics() {
+        assertEquals(10, meterRegistry.get("r2dbc.pool.max.allocated").tag("name", "cemsPool").gauge().value());
+        assertNotNull(meterRegistry.get("r2dbc.pool.acquired").tag("name", "cemsPool").gauge());
+    }
+
+    private Map<?, ?> importLines(String loginPrefix, int persons) {
+        var lines = Flux.range(0, persons).map(i -> "{\"loginuser\":\"" + loginPrefix + i + "\",\"firstname\":\"Jane\",\"lastname\":\"Doe\","
+                + "\"password\":\"jd" + i + "\",\"hiringdate\":\"2020-01-01T00:00:00\"}\n");
+        return WebClient.create("http://localhost:" + port).post().uri("/persons")
+                .contentType(PersonHandler.APPLICATION_NDJSON)
+                .body(lines, String.class)
+                .retrieve().bodyToMono(Map.class)
+                .block(Duration.ofMinutes(5));
+    }
+
+    private static long perSecond(long persons, long nanos) {
+        return persons * 1_000_000_000L / nanos;
+    }
+}
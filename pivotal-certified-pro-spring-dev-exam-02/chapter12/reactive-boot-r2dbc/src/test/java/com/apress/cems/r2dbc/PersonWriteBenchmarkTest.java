@@ -0,0 +1,158 @@
+/*
+Freeware License, some rights reserved
+
+Copyright (c) 2019 Iuliana Cosmina
+
+Permission is hereby granted, free of charge, to anyone obtaining a copy 
+of this software and associated documentation files (the "Software"), 
+to work with the Software within the limits of freeware distribution and fair use. 
+This includes the rights to use, copy, and modify the Software for personal use. 
+Users are also allowed and encouraged to submit corrections and modifications 
+to the Software for the benefit of other users.
+
+It is not allowed to reuse,  modify, or redistribute the Software for 
+commercial use in any way, or for a user's educational materials such as books 
+or blog articles without prior permission from the copyright holder. 
+
+The above copyright notice and this permission notice need to be included 
+in all copies or substantial portions of the software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS OR APRESS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.apress.cems.r2dbc;
+
+import com.apress.cems.r2dbc.person.Person;
+import com.apress.cems.r2dbc.person.PersonRepo;
+import com.apress.cems.r2dbc.person.services.PersonService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Sends a PUT and then a DELETE for each person, {@code CONCURRENCY} requests at a time, checks that every one of
+ * them changed the database and logs the latencies and the throughput. The client gets a connection per concurrent
+ * request, the default pool of the Netty client would make half of them wait for a connection.
+ * {@code benchmarkUpdateAndDelete} sends them for {@code PERSONS} persons and only runs when the build is started
+ * with {@code -DloadTest=true}, the other test sends them for a few persons on every build.
+ *
+ * @author Iuliana Cosmina
+ * @since 1.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "cems.r2dbc.database=writes")
+class PersonWriteBenchmarkTest extends TestBase {
+    private static final Logger logger = LoggerFactory.getLogger(PersonWriteBenchmarkTest.class);
+
+    static final int PERSONS = 2_000;
+    static final int FEW_PERSONS = 100;
+    static final int CONCURRENCY = 32;
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    PersonRepo personRepo;
+
+    private ConnectionProvider connectionProvider;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        connectionProvider = ConnectionProvider.fixed("benchmark", CONCURRENCY);
+        webTestClient = WebTestClient.bindToServer(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .baseUrl("http://localhost:" + port + "/persons")
+                .responseTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+    }
+
+    @Test
+    void shouldUpdateAndDeleteConcurrently() throws Exception {
+        updateAndDelete("few.", "Jill", FEW_PERSONS);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    void benchmarkUpdateAndDelete() throws Exception {
+        updateAndDelete("load.", "Janet", PERSONS);
+    }
+
+    private void updateAndDelete(String loginPrefix, String firstname, int persons) throws Exception {
+        List<Long> ids = personService.saveAll(Flux.range(0, persons).map(i -> createPerson(null, loginPrefix + i, "Jane", "Doe", "jd")))
+                .map(Person::getId).collectList().block();
+
+        var updates = send(ids, id -> webTestClient.put().uri("/{id}", id)
+                .bodyValue(createPerson(id, loginPrefix + "updated." + id, firstname, "Doe", "jd"))
+                .exchange().expectStatus().isNoContent());
+        assertEquals(persons, personRepo.findByFirstname(firstname).count().block());
+        assertEquals(loginPrefix + "updated." + ids.get(0), personRepo.findById(ids.get(0)).block().getLoginuser());
+        logger.info("PUT: {}", updates);
+
+        var deletes = send(ids, id -> webTestClient.delete().uri("/{id}", id)
+                .exchange().expectStatus().isNoContent());
+        assertEquals(0, personRepo.findByFirstname(firstname).count().block());
+        logger.info("DELETE: {}", deletes);
+    }
+
+    private String send(List<Long> ids, Consumer<Long> request) throws Exception {
+        var executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Callable<Long>> calls = new ArrayList<>();
+            for (Long id : ids) {
+                calls.add(() -> {
+                    long start = System.nanoTime();
+                    request.accept(id);
+                    return System.nanoTime() - start;
+                });
+            }
+            long start = System.nanoTime();
+            long[] nanos = new long[calls.size()];
+            int i = 0;
+            for (Future<Long> latency : executor.invokeAll(calls)) {
+                nanos[i++] = latency.get();
+            }
+            long total = System.nanoTime() - start;
+            Arrays.sort(nanos);
+            return String.format("%d requests, %d at a time: %d requests/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms",
+                    nanos.length, CONCURRENCY, nanos.length * 1_000_000_000L / total, nanos[nanos.length / 2] / 1e6,
+                    nanos[nanos.length * 99 / 100] / 1e6, nanos[nanos.length - 1] / 1e6);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -110,7 +110,14 @@ public class R2dbcApplicationTests extends TestBase {
         });
     }
 
-    @Order(5)
+    @Order(6)
+    @Test
+    void shouldNotUpdateAMissingPerson() {
+        Person person = createPerson(null, "irene.adler", "Irene", "Adler", "ia1891");
+        webTestClient.put().uri("/99").body(Mono.just(person), Person.class).exchange().expectStatus().isNotFound();
+    }
+
+    @Order(7)
     @Test
     void shouldDeleteAPerson() {
         webTestClient.delete().uri("/3").exchange().expectStatus().isNoContent();